@@ -0,0 +1,66 @@
+package benchmarks;
+
+import api.BookPayloads;
+import models.Book;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Book request body building: the original string concatenation against the Jackson writers in
+ * {@link BookPayloads}. Run with -prof gc to compare allocation per payload.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BookPayloadBenchmark {
+
+    @Param({"100", "100000"})
+    private int summaryLength;
+
+    private HashMap<String, Object> bookDetails;
+    private Book book;
+
+    @Setup
+    public void setup() {
+        String summary = "A".repeat(summaryLength);
+        bookDetails = new HashMap<>();
+        bookDetails.put("bookName", "Project Hail Mary");
+        bookDetails.put("author", "Andy Weir");
+        bookDetails.put("published_year", 2021L);
+        bookDetails.put("book_summary", summary);
+        book = new Book("Project Hail Mary", "Andy Weir", 2021L, summary);
+    }
+
+    @Benchmark
+    public byte[] stringConcatenation() {
+        // What BooksApi did before: RestAssured then encoded the String body to bytes
+        return ("{\"name\":\"" + bookDetails.get("bookName") + "\",\"author\":\"" + bookDetails.get("author") + "\",\"published_year\":\"" + bookDetails.get("published_year") + "\",\"book_summary\":\"" + bookDetails.get("book_summary") + "\"}")
+                .getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public byte[] jacksonFromDetailsMap() {
+        return BookPayloads.toJson(bookDetails);
+    }
+
+    @Benchmark
+    public byte[] jacksonFromBook() {
+        return BookPayloads.toJson(book);
+    }
+}
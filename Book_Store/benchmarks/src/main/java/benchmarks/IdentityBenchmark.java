@@ -0,0 +1,38 @@
+package benchmarks;
+
+import api.UserApi;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Identity generation as the suites call it: a 10-character email local part and an 8-character password.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class IdentityBenchmark {
+
+    @Benchmark
+    public String generateEmailAndPassword() {
+        return UserApi.generateEmailAndPassword(10) + "@gmail.com" + UserApi.generateEmailAndPassword(8);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public String generateEmailAndPasswordContended() {
+        return UserApi.generateEmailAndPassword(10) + "@gmail.com" + UserApi.generateEmailAndPassword(8);
+    }
+}
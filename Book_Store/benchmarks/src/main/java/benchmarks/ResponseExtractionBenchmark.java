@@ -0,0 +1,71 @@
+package benchmarks;
+
+import api.ParsedResponse;
+import io.restassured.builder.ResponseBuilder;
+import io.restassured.http.ContentType;
+import io.restassured.path.json.JsonPath;
+import io.restassured.response.Response;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pulling id/name/author out of a typical book response: one jsonPath() per field as the suites used to,
+ * a single reused JsonPath, and {@link ParsedResponse}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ResponseExtractionBenchmark {
+
+    private static final String BOOK_JSON = "{\"id\":101,\"name\":\"Project Hail Mary\",\"author\":\"Andy Weir\",\"published_year\":2021,"
+            + "\"book_summary\":\"A gripping sci-fi story about a lone astronaut who must save humanity from extinction while uncovering mysteries in deep space.\"}";
+
+    private byte[] body;
+
+    @Setup
+    public void setup() {
+        body = BOOK_JSON.getBytes();
+    }
+
+    private Response freshResponse() {
+        return new ResponseBuilder().setStatusCode(200).setContentType(ContentType.JSON).setBody(body).build();
+    }
+
+    @Benchmark
+    public void jsonPathPerField(Blackhole blackhole) {
+        Response response = freshResponse();
+        blackhole.consume(response.getBody().jsonPath().get("id"));
+        blackhole.consume(response.getBody().jsonPath().get("name"));
+        blackhole.consume(response.getBody().jsonPath().get("author"));
+    }
+
+    @Benchmark
+    public void jsonPathOnce(Blackhole blackhole) {
+        JsonPath jsonPath = freshResponse().jsonPath();
+        blackhole.consume(jsonPath.get("id"));
+        blackhole.consume(jsonPath.get("name"));
+        blackhole.consume(jsonPath.get("author"));
+    }
+
+    @Benchmark
+    public void parsedResponse(Blackhole blackhole) {
+        ParsedResponse parsed = ParsedResponse.of(freshResponse());
+        blackhole.consume(parsed.get("id"));
+        blackhole.consume(parsed.get("name"));
+        blackhole.consume(parsed.get("author"));
+    }
+}
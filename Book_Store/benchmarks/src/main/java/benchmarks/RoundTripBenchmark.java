@@ -0,0 +1,91 @@
+package benchmarks;
+
+import api.AsyncBooksApi;
+import api.BooksApi;
+import api.ParsedResponse;
+import api.UserApi;
+import base.ConnectionPool;
+import io.restassured.RestAssured;
+import io.restassured.response.Response;
+import models.Book;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import stub.BookStoreStub;
+
+import java.net.http.HttpResponse;
+import java.util.HashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Full BooksApi round trips through RestAssured and the shared connection pool against the embedded
+ * {@link BookStoreStub} with no artificial latency, so what is measured is the client stack. The *Async variants
+ * make the same calls through {@link AsyncBooksApi} (-Dhttp.version picks its protocol) for a direct comparison.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RoundTripBenchmark {
+
+    private BookStoreStub stub;
+    private String accessToken;
+    private HashMap<String, Object> bookDetails;
+    private Book book;
+    private AsyncBooksApi asyncApi;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        stub = new BookStoreStub(0, 0, TimeUnit.HOURS.toMillis(1)).start(0);
+        RestAssured.baseURI = stub.baseUrl();
+        RestAssured.config = ConnectionPool.restAssuredConfig();
+
+        String email = UserApi.generateEmailAndPassword(10) + "@gmail.com";
+        String password = UserApi.generateEmailAndPassword(8);
+        UserApi.signUp(email, password);
+        accessToken = "Bearer " + UserApi.login(email, password).jsonPath().get("access_token");
+
+        book = new Book("Project Hail Mary", "Andy Weir", 2021L, "A lone astronaut must save humanity.");
+        bookDetails = new HashMap<>();
+        bookDetails.put("createdBookId", ParsedResponse.of(BooksApi.addNewBook(book, accessToken)).get("id"));
+        asyncApi = AsyncBooksApi.fromSystemProperties(stub.baseUrl());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        asyncApi.close();
+        ConnectionPool.shutdown();
+        stub.close();
+    }
+
+    @Benchmark
+    public Response getBookDetailsById() {
+        return BooksApi.getBookDetailsById(bookDetails, accessToken);
+    }
+
+    @Benchmark
+    public Response addNewBook() {
+        return BooksApi.addNewBook(book, accessToken);
+    }
+
+    @Benchmark
+    public HttpResponse<byte[]> getBookDetailsByIdAsync() {
+        return asyncApi.getBookDetailsById(bookDetails.get("createdBookId"), accessToken).join();
+    }
+
+    @Benchmark
+    public HttpResponse<byte[]> addNewBookAsync() {
+        return asyncApi.addNewBook(book, accessToken).join();
+    }
+}
@@ -0,0 +1,141 @@
+package api;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import config.ConfigReader;
+import constants.BookStoreEndPoints;
+import io.restassured.RestAssured;
+import metrics.EndpointLatencies;
+import models.Book;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The {@link BooksApi} operations on the non-blocking JDK client: each call returns as soon as the request is
+ * queued, and completes on one of a few client threads, so thousands of requests can be outstanding without a
+ * thread each. With HTTP/2 (the default) the client negotiates it through ALPN or an h2c upgrade and multiplexes
+ * concurrent requests over one connection; a server that only speaks HTTP/1.1 gets pooled keep-alive connections.
+ *
+ * Latencies are recorded in {@link EndpointLatencies} under the same keys as the RestAssured calls, and created
+ * books are registered with {@link BookSweeper#shared()}.
+ */
+public class AsyncBooksApi {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final String BOOKS = "/" + BookStoreEndPoints.ADD_NEW_BOOK;
+
+    private final HttpClient httpClient;
+    private final ExecutorService executor;
+    private final URI books;
+
+    public AsyncBooksApi(String baseUrl, HttpClient.Version version, int threads) {
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "async-books-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.httpClient = HttpClient.newBuilder()
+                .version(version)
+                .executor(executor)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+        this.books = URI.create(baseUrl).resolve(BookStoreEndPoints.ADD_NEW_BOOK);
+    }
+
+    /**
+     * Against RestAssured.baseURI, with -Dhttp.version (HTTP_2 or HTTP_1_1, default HTTP_2) and -Dhttp.asyncThreads
+     * completion threads (default one per core).
+     */
+    public static AsyncBooksApi fromSystemProperties() {
+        return fromSystemProperties(RestAssured.baseURI);
+    }
+
+    public static AsyncBooksApi fromSystemProperties(String baseUrl) {
+        return new AsyncBooksApi(baseUrl,
+                HttpClient.Version.valueOf(ConfigReader.snapshot().getString("http.version", "HTTP_2").trim().toUpperCase()),
+                ConfigReader.snapshot().getInt("http.asyncThreads", Runtime.getRuntime().availableProcessors()));
+    }
+
+    public HttpClient.Version version() {
+        return httpClient.version();
+    }
+
+    public CompletableFuture<HttpResponse<byte[]>> addNewBook(Book book, String accessToken) {
+        return send(request(books, accessToken).POST(HttpRequest.BodyPublishers.ofByteArray(BookPayloads.toJson(book))), BOOKS)
+                .thenApply(response -> {
+                    if (response.statusCode() == 200) {
+                        BookSweeper.shared().track(idOf(response), accessToken);
+                    }
+                    return response;
+                });
+    }
+
+    public CompletableFuture<HttpResponse<byte[]>> editTheBook(Object bookId, Book book, String accessToken) {
+        return send(request(byId(bookId), accessToken).PUT(HttpRequest.BodyPublishers.ofByteArray(BookPayloads.toJson(book))),
+                BookStoreEndPoints.BY_BOOK_ID);
+    }
+
+    public CompletableFuture<HttpResponse<byte[]>> getBookDetailsById(Object bookId, String accessToken) {
+        return send(request(byId(bookId), accessToken).GET(), BookStoreEndPoints.BY_BOOK_ID);
+    }
+
+    public CompletableFuture<HttpResponse<byte[]>> getAllBooks(String accessToken) {
+        return send(request(books, accessToken).GET(), BOOKS);
+    }
+
+    public CompletableFuture<HttpResponse<byte[]>> deleteTheBookById(Object bookId, String accessToken) {
+        return send(request(byId(bookId), accessToken).DELETE(), BookStoreEndPoints.BY_BOOK_ID)
+                .thenApply(response -> {
+                    if (response.statusCode() == 200 || response.statusCode() == 404) {
+                        BookSweeper.shared().untrack(bookId);
+                    }
+                    return response;
+                });
+    }
+
+    /**
+     * The "id" field of a JSON response body, or null when there is none.
+     */
+    public static Object idOf(HttpResponse<byte[]> response) {
+        try {
+            JsonNode id = MAPPER.readTree(response.body()).get("id");
+            return id == null ? null : id.isIntegralNumber() ? id.numberValue() : id.asText();
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /** Stops the completion threads; the client's connections close once idle. */
+    public void close() {
+        executor.shutdown();
+    }
+
+    private CompletableFuture<HttpResponse<byte[]>> send(HttpRequest.Builder request, String endpoint) {
+        HttpRequest built = request.build();
+        long start = System.nanoTime();
+        return httpClient.sendAsync(built, HttpResponse.BodyHandlers.ofByteArray())
+                .whenComplete((response, error) -> EndpointLatencies.record(built.method(), endpoint, System.nanoTime() - start));
+    }
+
+    private URI byId(Object bookId) {
+        return books.resolve(String.valueOf(bookId));
+    }
+
+    private static HttpRequest.Builder request(URI uri, String accessToken) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(uri)
+                .header("Content-Type", "application/json")
+                .timeout(Duration.ofSeconds(30));
+        if (accessToken != null) builder.header("Authorization", accessToken);
+        return builder;
+    }
+}
@@ -0,0 +1,258 @@
+package api;
+
+import config.ConfigReader;
+import config.ConfigSnapshot;
+import io.restassured.RestAssured;
+import io.restassured.filter.Filter;
+import io.restassured.filter.FilterContext;
+import io.restassured.response.Response;
+import io.restassured.specification.FilterableRequestSpecification;
+import io.restassured.specification.FilterableResponseSpecification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Optional read-through cache in front of {@code GET /books/{book_id}}, bounded to {@code maxEntries} books
+ * (least recently used go first) that stay fresh for {@code ttl}. Every request goes through it as a RestAssured
+ * filter, so {@link BooksApi} callers need no changes:
+ * <ul>
+ *   <li>a fresh entry read with the same Authorization header is answered without a request;</li>
+ *   <li>an expired entry, or one read with another token, is revalidated with If-None-Match/If-Modified-Since
+ *   when the service gave an ETag or Last-Modified, and a 304 serves the cached copy again;</li>
+ *   <li>PUT and DELETE on a book drop its entry, both before they are sent and once they have completed.</li>
+ * </ul>
+ * Every invalidation also bumps the book's generation, and a read only stores what it fetched if the generation is
+ * still the one it started with, so a GET that overlapped a write cannot put the old copy back afterwards.
+ * It is installed ahead of every other filter, so a hit never reaches the latency histograms or the wire.
+ * Enabled with -Dcache.maxEntries (0, off) and -Dcache.ttlMillis (30000).
+ */
+public class BookCache implements Filter {
+
+    private static final Logger LOG = LoggerFactory.getLogger(BookCache.class);
+    // Generations are kept per stripe of ids, so they take fixed memory however many books are written; ids that
+    // share a stripe only cost each other the odd skipped store
+    private static final int GENERATION_STRIPES = 1024;
+    private static volatile BookCache active;
+
+    private final int maxEntries;
+    private final long ttlNanos;
+    private final Map<String, Entry> entries;
+    private final long[] generations = new long[GENERATION_STRIPES];
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder notModified = new LongAdder();
+    private final LongAdder modified = new LongAdder();
+    private final LongAdder unchangedRefetches = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder bytesSaved = new LongAdder();
+    private final LongAdder bytesConditionalGetWouldSave = new LongAdder();
+
+    private static final class Entry {
+        final Response response;
+        final byte[] body;
+        final String authorization;
+        final String etag;
+        final String lastModified;
+        final long storedAt;
+
+        Entry(Response response, String authorization, long storedAt) {
+            this.response = response;
+            this.body = response.asByteArray();
+            this.authorization = authorization;
+            this.etag = response.getHeader("ETag");
+            this.lastModified = response.getHeader("Last-Modified");
+            this.storedAt = storedAt;
+        }
+
+        Entry(Entry revalidated, String authorization, long storedAt) {
+            this.response = revalidated.response;
+            this.body = revalidated.body;
+            this.authorization = authorization;
+            this.etag = revalidated.etag;
+            this.lastModified = revalidated.lastModified;
+            this.storedAt = storedAt;
+        }
+
+        boolean canRevalidate() {
+            return etag != null || lastModified != null;
+        }
+    }
+
+    public BookCache(int maxEntries, long ttlMillis) {
+        if (maxEntries < 1) {
+            throw new IllegalArgumentException("A book cache needs room for at least one entry");
+        }
+        this.maxEntries = maxEntries;
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMillis);
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                if (size() > maxEntries) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /** The installed cache, or null when caching is off. */
+    public static BookCache active() {
+        return active;
+    }
+
+    /** Installs a cache when -Dcache.maxEntries is above 0; does nothing otherwise. */
+    public static void installFromConfig() {
+        ConfigSnapshot config = ConfigReader.snapshot();
+        int maxEntries = config.getInt("cache.maxEntries", 0);
+        if (maxEntries > 0) {
+            install(new BookCache(maxEntries, config.getLong("cache.ttlMillis", 30_000L)));
+        }
+    }
+
+    /** Puts {@code cache} in front of every RestAssured filter, replacing any cache installed before. */
+    public static synchronized void install(BookCache cache) {
+        List<Filter> filters = new ArrayList<>(List.of(cache));
+        RestAssured.filters().stream().filter(filter -> !(filter instanceof BookCache)).forEach(filters::add);
+        RestAssured.replaceFiltersWith(filters);
+        active = cache;
+        LOG.info("Caching book reads: {} entries, TTL {} ms", cache.maxEntries, TimeUnit.NANOSECONDS.toMillis(cache.ttlNanos));
+    }
+
+    public static synchronized void uninstall() {
+        List<Filter> filters = new ArrayList<>(RestAssured.filters());
+        filters.removeIf(filter -> filter instanceof BookCache);
+        RestAssured.replaceFiltersWith(filters);
+        active = null;
+    }
+
+    public BookCacheStats getStats() {
+        return new BookCacheStats(hits.sum(), misses.sum(), notModified.sum(), modified.sum(), unchangedRefetches.sum(),
+                invalidations.sum(), evictions.sum(), bytesSaved.sum(), bytesConditionalGetWouldSave.sum());
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    @Override
+    public Response filter(FilterableRequestSpecification requestSpec, FilterableResponseSpecification responseSpec, FilterContext ctx) {
+        if (!requestSpec.getUserDefinedPath().endsWith("/books/{book_id}")) {
+            return ctx.next(requestSpec, responseSpec);
+        }
+        String id = String.valueOf(requestSpec.getPathParams().get("book_id"));
+        switch (requestSpec.getMethod()) {
+            case "GET":
+                return read(id, requestSpec, responseSpec, ctx);
+            case "PUT":
+            case "DELETE":
+                // Before, so nothing stale is served while the write is in flight; after, in case a read that
+                // started before the write stored the old copy in the meantime
+                invalidate(id);
+                try {
+                    return ctx.next(requestSpec, responseSpec);
+                } finally {
+                    invalidate(id);
+                }
+            default:
+                return ctx.next(requestSpec, responseSpec);
+        }
+    }
+
+    private Response read(String id, FilterableRequestSpecification requestSpec, FilterableResponseSpecification responseSpec, FilterContext ctx) {
+        String authorization = requestSpec.getHeaders().getValue("Authorization");
+        Entry entry;
+        long generation;
+        synchronized (entries) {
+            entry = entries.get(id);
+            generation = generations[stripe(id)];
+        }
+        long now = System.nanoTime();
+        if (entry == null) {
+            misses.increment();
+            return store(id, generation, authorization, ctx.next(requestSpec, responseSpec));
+        }
+        // The same caller reading a fresh copy; another token must be checked by the service first
+        if (now - entry.storedAt < ttlNanos && Objects.equals(authorization, entry.authorization)) {
+            hits.increment();
+            bytesSaved.add(entry.body.length);
+            return entry.response;
+        }
+        if (!entry.canRevalidate()) {
+            Response response = ctx.next(requestSpec, responseSpec);
+            if (response.getStatusCode() == 200 && Arrays.equals(response.asByteArray(), entry.body)) {
+                unchangedRefetches.increment();
+                bytesConditionalGetWouldSave.add(entry.body.length);
+            } else {
+                misses.increment();
+            }
+            return store(id, generation, authorization, response);
+        }
+
+        if (entry.etag != null) {
+            requestSpec.header("If-None-Match", entry.etag);
+        }
+        if (entry.lastModified != null) {
+            requestSpec.header("If-Modified-Since", entry.lastModified);
+        }
+        Response response = ctx.next(requestSpec, responseSpec);
+        if (response.getStatusCode() == 304) {
+            notModified.increment();
+            bytesSaved.add(entry.body.length);
+            put(id, generation, new Entry(entry, authorization, System.nanoTime()));
+            return entry.response;
+        }
+        if (response.getStatusCode() == 200) {
+            modified.increment();
+        } else {
+            misses.increment();
+        }
+        return store(id, generation, authorization, response);
+    }
+
+    private Response store(String id, long generation, String authorization, Response response) {
+        if (response.getStatusCode() == 200) {
+            put(id, generation, new Entry(response, authorization, System.nanoTime()));
+        } else if (response.getStatusCode() == 404) {
+            invalidate(id);
+        }
+        return response;
+    }
+
+    /**
+     * Stores {@code entry} unless {@code id} was invalidated since {@code generation} was read.
+     */
+    private void put(String id, long generation, Entry entry) {
+        synchronized (entries) {
+            if (generations[stripe(id)] == generation) {
+                entries.put(id, entry);
+            }
+        }
+    }
+
+    public void invalidate(String id) {
+        synchronized (entries) {
+            generations[stripe(id)]++;
+            if (entries.remove(id) != null) {
+                invalidations.increment();
+            }
+        }
+    }
+
+    private static int stripe(String id) {
+        return (id.hashCode() & 0x7fffffff) % GENERATION_STRIPES;
+    }
+}
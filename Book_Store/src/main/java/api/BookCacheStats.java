@@ -0,0 +1,35 @@
+package api;
+
+import lombok.Value;
+
+/**
+ * Counters of a {@link BookCache} at one moment. {@code unchangedRefetches} are expired entries the service sent
+ * again byte for byte because it gave no ETag or Last-Modified to revalidate with; with conditional GET support
+ * each of those would have been a bodiless 304, saving {@code bytesConditionalGetWouldSave}.
+ */
+@Value
+public class BookCacheStats {
+
+    long hits;
+    long misses;
+    long notModified;
+    long modified;
+    long unchangedRefetches;
+    long invalidations;
+    long evictions;
+    long bytesSaved;
+    long bytesConditionalGetWouldSave;
+
+    /** Reads answered without a response body from the service: fresh hits plus 304s. */
+    public double getHitRatio() {
+        long reads = hits + misses + notModified + modified + unchangedRefetches;
+        return reads == 0 ? 0 : (double) (hits + notModified) / reads;
+    }
+
+    public String summary() {
+        return String.format("hits %d, misses %d, 304s %d, modified %d, unchanged refetches %d, invalidations %d, evictions %d, "
+                        + "hit ratio %.1f%%, bytes saved %d, bytes conditional GETs would save %d",
+                hits, misses, notModified, modified, unchangedRefetches, invalidations, evictions,
+                getHitRatio() * 100, bytesSaved, bytesConditionalGetWouldSave);
+    }
+}
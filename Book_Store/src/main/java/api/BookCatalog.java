@@ -0,0 +1,67 @@
+package api;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import io.restassured.response.Response;
+import models.Book;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Walks the {@code books/} array one element at a time with a Jackson {@link JsonParser}, so only the current
+ * book is ever held in memory. {@link #streamAllBooks} reads straight off the socket through the shared RestAssured
+ * client, which leaves that one response unbuffered (see {@link base.ConnectionPool#STREAM_RESPONSE_HEADER}).
+ */
+public class BookCatalog {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final ObjectReader BOOK_READER = MAPPER.readerFor(Book.class);
+
+    /**
+     * Streams every book in the catalog to {@code consumer} and returns how many were seen.
+     */
+    public static long streamAllBooks(String accessToken, Consumer<Book> consumer) {
+        Response response = BooksApi.streamAllBooks(accessToken);
+        try (InputStream body = response.asInputStream()) {
+            if (response.getStatusCode() != 200) {
+                throw new IllegalStateException("Fetching all books failed with status " + response.getStatusCode());
+            }
+            return scan(body, consumer);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to stream all books", e);
+        }
+    }
+
+    public static long scan(InputStream json, Consumer<Book> consumer) {
+        long count = 0;
+        try (JsonParser parser = MAPPER.getFactory().createParser(json)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new IllegalStateException("Expected a JSON array of books but found " + parser.currentToken());
+            }
+            while (parser.nextToken() == JsonToken.START_OBJECT) {
+                consumer.accept(BOOK_READER.readValue(parser));
+                count++;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to parse the books catalog", e);
+        }
+        return count;
+    }
+
+    /**
+     * Names from {@code expectedNames} that do not appear in the catalog, found in a single pass.
+     */
+    public static Set<String> missingNames(InputStream json, Collection<String> expectedNames) {
+        Set<String> missing = new HashSet<>(expectedNames);
+        scan(json, book -> missing.remove(book.getName()));
+        return missing;
+    }
+}
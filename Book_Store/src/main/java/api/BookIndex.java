@@ -0,0 +1,73 @@
+package api;
+
+import models.Book;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * In-memory lookup of a scanned catalog by id, name and author. Summaries are dropped unless asked for, since
+ * they dominate the size of each book and membership checks never need them.
+ */
+public class BookIndex implements Consumer<Book> {
+
+    private final boolean keepSummaries;
+    private final Map<String, Book> byId = new HashMap<>();
+    private final Map<String, List<Book>> byName = new HashMap<>();
+    private final Map<String, List<Book>> byAuthor = new HashMap<>();
+    private int size;
+
+    public BookIndex() {
+        this(false);
+    }
+
+    public BookIndex(boolean keepSummaries) {
+        this.keepSummaries = keepSummaries;
+    }
+
+    @Override
+    public void accept(Book book) {
+        if (!keepSummaries) {
+            book.setBookSummary(null);
+        }
+        if (book.getId() != null) {
+            byId.put(book.getId().toString(), book);
+        }
+        byName.computeIfAbsent(book.getName(), key -> new ArrayList<>(1)).add(book);
+        byAuthor.computeIfAbsent(book.getAuthor(), key -> new ArrayList<>(1)).add(book);
+        size++;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public Book byId(Object id) {
+        return byId.get(String.valueOf(id));
+    }
+
+    public List<Book> byName(String name) {
+        return byName.getOrDefault(name, List.of());
+    }
+
+    public List<Book> byAuthor(String author) {
+        return byAuthor.getOrDefault(author, List.of());
+    }
+
+    public boolean containsName(String name) {
+        return byName.containsKey(name);
+    }
+
+    public boolean containsAuthor(String author) {
+        return byAuthor.containsKey(author);
+    }
+
+    public List<String> missingNames(Collection<String> expectedNames) {
+        return expectedNames.stream().filter(name -> !byName.containsKey(name)).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,97 @@
+package api;
+
+import io.restassured.filter.Filter;
+import io.restassured.filter.FilterContext;
+import io.restassured.response.Response;
+import io.restassured.specification.FilterableRequestSpecification;
+import io.restassured.specification.FilterableResponseSpecification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+/**
+ * Remembers every book this JVM created and has not yet deleted, together with the token that created it, so
+ * {@link #sweep()} can remove them all at the end of a run. As a RestAssured filter it sees every
+ * {@code POST books/} and {@code DELETE /books/{book_id}} made through {@link BooksApi}; {@link BulkBooks} reports
+ * its own. Once {@link #sweepOnExit()} has been called a shutdown hook sweeps whatever is left, so an aborted run
+ * still cleans up after itself.
+ */
+public class BookSweeper implements Filter {
+
+    private static final Logger LOG = LoggerFactory.getLogger(BookSweeper.class);
+    private static final BookSweeper SHARED = new BookSweeper();
+
+    private final Map<String, String> tokenById = new ConcurrentHashMap<>();
+    private final AtomicBoolean hookInstalled = new AtomicBoolean();
+
+    public static BookSweeper shared() {
+        return SHARED;
+    }
+
+    public void track(Object id, String accessToken) {
+        if (id != null) {
+            tokenById.put(id.toString(), accessToken == null ? "" : accessToken);
+        }
+    }
+
+    public void untrack(Object id) {
+        if (id != null) {
+            tokenById.remove(id.toString());
+        }
+    }
+
+    public int tracked() {
+        return tokenById.size();
+    }
+
+    public void sweepOnExit() {
+        if (hookInstalled.compareAndSet(false, true)) {
+            Runtime.getRuntime().addShutdownHook(new Thread(this::sweep, "book-sweeper"));
+        }
+    }
+
+    /**
+     * Deletes every tracked book, batched per token, and returns how many are still left afterwards.
+     */
+    public int sweep() {
+        if (tokenById.isEmpty()) {
+            return 0;
+        }
+        Map<String, List<String>> idsByToken = tokenById.entrySet().stream()
+                .collect(Collectors.groupingBy(Map.Entry::getValue,
+                        Collectors.mapping(Map.Entry::getKey, Collectors.toCollection(ArrayList::new))));
+        int swept = 0;
+        for (Map.Entry<String, List<String>> batch : idsByToken.entrySet()) {
+            String accessToken = batch.getKey().isEmpty() ? null : batch.getKey();
+            for (BulkResult result : new BulkBooks(accessToken).deleteAll(batch.getValue().stream())) {
+                if (result.isSuccess()) {
+                    swept++;
+                } else {
+                    LOG.warn("Could not sweep book {}: {}", result.getId(), result.getError());
+                }
+            }
+        }
+        LOG.info("Swept {} books left behind by this run, {} remaining", swept, tokenById.size());
+        return tokenById.size();
+    }
+
+    @Override
+    public Response filter(FilterableRequestSpecification requestSpec, FilterableResponseSpecification responseSpec, FilterContext ctx) {
+        Response response = ctx.next(requestSpec, responseSpec);
+        String method = requestSpec.getMethod();
+        String path = requestSpec.getUserDefinedPath();
+        if ("POST".equals(method) && path.endsWith("/books/") && response.getStatusCode() == 200) {
+            track(ParsedResponse.of(response).get("id"), requestSpec.getHeaders().getValue("Authorization"));
+        } else if ("DELETE".equals(method) && path.endsWith("/books/{book_id}")
+                && (response.getStatusCode() == 200 || response.getStatusCode() == 404)) {
+            untrack(requestSpec.getPathParams().get("book_id"));
+        }
+        return response;
+    }
+}
@@ -1,9 +1,13 @@
 package api;
 
+import base.ConnectionPool;
 import constants.BookStoreEndPoints;
+import io.restassured.RestAssured;
+import io.restassured.config.DecoderConfig;
 import io.restassured.http.ContentType;
 import io.restassured.response.Response;
 import io.restassured.specification.RequestSpecification;
+import models.Book;
 
 import java.util.Collections;
 import java.util.HashMap;
@@ -13,47 +17,113 @@ import static io.restassured.RestAssured.given;
 
 public class BooksApi {
 
+    /** -Dhttp.compression, used by every call that does not pass a {@link Compression} of its own. */
+    private static final Compression DEFAULT_COMPRESSION = Compression.fromSystemProperty();
 
-    public static Response addNewBook(HashMap<String,Object> bookDetails, String accessToken) {
+    private static RequestSpecification request(String accessToken) {
+        return request(accessToken, DEFAULT_COMPRESSION);
+    }
+
+    private static RequestSpecification request(String accessToken, Compression compression) {
         RequestSpecification request = given().contentType(ContentType.JSON);
         if (accessToken != null) request.header("Authorization", accessToken);
+        if (!compression.isAcceptGzip()) {
+            // RestAssured asks for gzip and deflate whenever it has decoders for them, whatever the headers say
+            request.config(RestAssured.config().decoderConfig(DecoderConfig.decoderConfig().noContentDecoders()))
+                    .header("Accept-Encoding", "identity");
+        }
+        return request;
+    }
+
+    private static RequestSpecification body(RequestSpecification request, byte[] body) {
+        return body(request, body, DEFAULT_COMPRESSION);
+    }
+
+    private static RequestSpecification body(RequestSpecification request, byte[] body, Compression compression) {
+        // Sent plain; the connection pool compresses it once the filters have seen it
+        if (compression.isGzipRequests()) request.header("Content-Encoding", "gzip");
+        return request.body(body);
+    }
+
+    public static Response addNewBook(HashMap<String,Object> bookDetails, String accessToken) {
+        RequestSpecification request = request(accessToken);
 
         if (!bookDetails.isEmpty()) {
-            request.body("{\"name\":\"" + bookDetails.get("bookName") + "\",\"author\":\"" + bookDetails.get("author") + "\",\"published_year\":\"" + bookDetails.get("published_year") + "\",\"book_summary\":\"" + bookDetails.get("book_summary") + "\"}");
+            body(request, BookPayloads.toJson(bookDetails));
         }
 
         return request.post(BookStoreEndPoints.ADD_NEW_BOOK).then().extract().response();
     }
 
+    public static Response addNewBook(Book book, String accessToken) {
+        return addNewBook(book, accessToken, DEFAULT_COMPRESSION);
+    }
+
+    public static Response addNewBook(Book book, String accessToken, Compression compression) {
+        RequestSpecification request = request(accessToken, compression);
+
+        return body(request, BookPayloads.toJson(book), compression).post(BookStoreEndPoints.ADD_NEW_BOOK).then().extract().response();
+    }
+
     public static Response editTheBook(HashMap<String,Object> bookDetails, String accessToken) {
-        RequestSpecification request = given().contentType(ContentType.JSON);
-        if (accessToken != null) request.header("Authorization", accessToken);
+        RequestSpecification request = request(accessToken);
 
         if (!bookDetails.isEmpty()) {
-            request.body("{\"name\":\"" + bookDetails.get("bookName") + "\",\"author\":\"" + bookDetails.get("author") + "\",\"published_year\":\"" + bookDetails.get("published_year") + "\",\"book_summary\":\"" + bookDetails.get("book_summary") + "\"}");
+            body(request, BookPayloads.toJson(bookDetails));
         }
 
         return request.pathParam("book_id", bookDetails.get("createdBookId")).put(BookStoreEndPoints.BY_BOOK_ID).then().extract().response();
     }
 
+    public static Response editTheBook(Object bookId, Book book, String accessToken) {
+        return editTheBook(bookId, book, accessToken, DEFAULT_COMPRESSION);
+    }
+
+    public static Response editTheBook(Object bookId, Book book, String accessToken, Compression compression) {
+        RequestSpecification request = request(accessToken, compression);
+
+        return body(request, BookPayloads.toJson(book), compression).pathParam("book_id", bookId).put(BookStoreEndPoints.BY_BOOK_ID).then().extract().response();
+    }
+
     public static Response getBookDetailsById(HashMap<String,Object> bookDetails, String accessToken) {
-        RequestSpecification request = given().contentType(ContentType.JSON);
-        if (accessToken != null) request.header("Authorization", accessToken);
+        RequestSpecification request = request(accessToken);
 
         return request.pathParam("book_id", bookDetails.get("createdBookId")).get(BookStoreEndPoints.BY_BOOK_ID).then().extract().response();
     }
 
+    public static Response getBookDetailsById(Object bookId, String accessToken) {
+        return getBookDetailsById(bookId, accessToken, DEFAULT_COMPRESSION);
+    }
+
+    public static Response getBookDetailsById(Object bookId, String accessToken, Compression compression) {
+        RequestSpecification request = request(accessToken, compression);
+
+        return request.pathParam("book_id", bookId).get(BookStoreEndPoints.BY_BOOK_ID).then().extract().response();
+    }
+
     public static List<Response> getAllBooks(String accessToken) {
-        RequestSpecification request = given().contentType(ContentType.JSON);
-        if (accessToken != null) request.header("Authorization", accessToken);
+        return getAllBooks(accessToken, DEFAULT_COMPRESSION);
+    }
+
+    public static List<Response> getAllBooks(String accessToken, Compression compression) {
+        RequestSpecification request = request(accessToken, compression);
 
         Response response = request.get(BookStoreEndPoints.ADD_NEW_BOOK).then().extract().response();
         return Collections.singletonList(response);
     }
 
+    /**
+     * The catalog with its body left on the socket: read it through {@code asInputStream()} and close that stream,
+     * which returns the connection to the pool.
+     */
+    public static Response streamAllBooks(String accessToken) {
+        RequestSpecification request = request(accessToken).header(ConnectionPool.STREAM_RESPONSE_HEADER, "true");
+
+        return request.get(BookStoreEndPoints.GET_ALL_BOOKS).then().extract().response();
+    }
+
     public static Response deleteTheBookById(String id, String accessToken) {
-        RequestSpecification request = given().contentType(ContentType.JSON);
-        if (accessToken != null) request.header("Authorization", accessToken);
+        RequestSpecification request = request(accessToken);
 
         return request.pathParam("book_id", id).delete(BookStoreEndPoints.BY_BOOK_ID).then().extract().response();
     }
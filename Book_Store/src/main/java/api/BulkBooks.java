@@ -0,0 +1,185 @@
+package api;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import config.ConfigReader;
+import constants.BookStoreEndPoints;
+import io.restassured.RestAssured;
+import models.Book;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.URI;
+import java.net.http.HttpConnectTimeoutException;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Creates or deletes books in bulk over the asynchronous JDK client, keeping at most {@code maxInFlight} requests
+ * outstanding. The input stream is pulled only as permits free up, so a lazily generated stream of 100k books never
+ * sits in memory. Deletes are retried with exponential backoff on any transport failure and on 429/502/503/504.
+ * Adds are retried only when the server cannot have created the book: the connection was never made, or it answered
+ * 429/503. A timeout or a 502/504 may come after the book was stored, and retrying it would leave a duplicate behind.
+ * Every item gets a {@link BulkResult}, returned in input order.
+ *
+ * Defaults come from -Dbulk.maxInFlight (64) and -Dbulk.maxAttempts (3). Books created here are registered with
+ * {@link BookSweeper#shared()}.
+ */
+public class BulkBooks {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final long BASE_BACKOFF_MILLIS = 100;
+    private static final HttpClient HTTP_CLIENT = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(10))
+            .build();
+
+    private final String accessToken;
+    private final int maxInFlight;
+    private final int maxAttempts;
+
+    public BulkBooks(String accessToken) {
+        this(accessToken, ConfigReader.snapshot().getBulkMaxInFlight(), ConfigReader.snapshot().getBulkMaxAttempts());
+    }
+
+    public BulkBooks(String accessToken, int maxInFlight, int maxAttempts) {
+        this.accessToken = accessToken;
+        this.maxInFlight = maxInFlight;
+        this.maxAttempts = maxAttempts;
+    }
+
+    public List<BulkResult> addAll(Stream<Book> books) {
+        URI uri = URI.create(RestAssured.baseURI).resolve(BookStoreEndPoints.ADD_NEW_BOOK);
+        return pipeline(books, false, book -> request(uri).POST(HttpRequest.BodyPublishers.ofByteArray(BookPayloads.toJson(book))).build(),
+                (index, book, response, attempts) -> {
+                    if (response.statusCode() != 200) {
+                        return failure(index, null, response, attempts);
+                    }
+                    Object id = idOf(response.body());
+                    BookSweeper.shared().track(id, accessToken);
+                    return new BulkResult(index, 200, id, null, attempts);
+                });
+    }
+
+    /**
+     * Deletes every id in {@code ids}. A 404 counts as success, since the book is gone either way.
+     */
+    public List<BulkResult> deleteAll(Stream<?> ids) {
+        URI books = URI.create(RestAssured.baseURI).resolve(BookStoreEndPoints.ADD_NEW_BOOK);
+        return pipeline(ids, true, id -> request(books.resolve(String.valueOf(id))).DELETE().build(),
+                (index, id, response, attempts) -> {
+                    int status = response.statusCode();
+                    if (status != 200 && status != 404) {
+                        return failure(index, id, response, attempts);
+                    }
+                    BookSweeper.shared().untrack(id);
+                    return new BulkResult(index, status, id, null, attempts);
+                });
+    }
+
+    private <T> List<BulkResult> pipeline(Stream<T> items, boolean idempotent, Function<T, HttpRequest> toRequest, Outcome<T> outcome) {
+        Semaphore permits = new Semaphore(maxInFlight);
+        // Only finished results are kept, not a future per item
+        Queue<BulkResult> results = new ConcurrentLinkedQueue<>();
+        Iterator<T> iterator = items.iterator();
+        try {
+            for (int index = 0; iterator.hasNext(); index++) {
+                T item = iterator.next();
+                permits.acquire();
+                int itemIndex = index;
+                AtomicInteger attempts = new AtomicInteger();
+                send(toRequest.apply(item), idempotent, attempts)
+                        .handle((response, error) -> {
+                            if (error != null) {
+                                return new BulkResult(itemIndex, 0, null, error.toString(), attempts.get());
+                            }
+                            return outcome.of(itemIndex, item, response, attempts.get());
+                        })
+                        .whenComplete((result, error) -> {
+                            results.add(result != null ? result
+                                    : new BulkResult(itemIndex, 0, null, String.valueOf(error), attempts.get()));
+                            permits.release();
+                        });
+            }
+            permits.acquire(maxInFlight);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while submitting bulk requests", e);
+        }
+        List<BulkResult> ordered = new ArrayList<>(results);
+        ordered.sort(Comparator.comparingInt(BulkResult::getIndex));
+        return ordered;
+    }
+
+    private CompletableFuture<HttpResponse<byte[]>> send(HttpRequest request, boolean idempotent, AtomicInteger attempts) {
+        int attempt = attempts.incrementAndGet();
+        return HTTP_CLIENT.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray())
+                .handle((response, error) -> {
+                    boolean retryable = error != null ? isRetryable(error, idempotent) : isRetryable(response.statusCode(), idempotent);
+                    if (!retryable || attempt >= maxAttempts) {
+                        return error != null
+                                ? CompletableFuture.<HttpResponse<byte[]>>failedFuture(error)
+                                : CompletableFuture.completedFuture(response);
+                    }
+                    Executor backoff = CompletableFuture.delayedExecutor(BASE_BACKOFF_MILLIS << (attempt - 1), TimeUnit.MILLISECONDS);
+                    return CompletableFuture.supplyAsync(() -> request, backoff).thenCompose(retry -> send(retry, idempotent, attempts));
+                })
+                .thenCompose(next -> next);
+    }
+
+    private static boolean isRetryable(int status, boolean idempotent) {
+        return status == 429 || status == 503 || (idempotent && (status == 502 || status == 504));
+    }
+
+    /**
+     * A request that failed before the connection was made never reached the server, so even an add is safe to send
+     * again; any later failure may have hit the server already.
+     */
+    private static boolean isRetryable(Throwable error, boolean idempotent) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        return idempotent || cause instanceof ConnectException || cause instanceof HttpConnectTimeoutException;
+    }
+
+    private HttpRequest.Builder request(URI uri) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(uri)
+                .header("Content-Type", "application/json")
+                .timeout(Duration.ofSeconds(30));
+        if (accessToken != null) builder.header("Authorization", accessToken);
+        return builder;
+    }
+
+    private static BulkResult failure(int index, Object id, HttpResponse<byte[]> response, int attempts) {
+        int status = response.statusCode();
+        return new BulkResult(index, status, id, "HTTP " + status + ": " + new String(response.body(), StandardCharsets.UTF_8), attempts);
+    }
+
+    private static Object idOf(byte[] body) {
+        try {
+            JsonNode id = MAPPER.readTree(body).get("id");
+            return id == null ? null : id.isIntegralNumber() ? id.numberValue() : id.asText();
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private interface Outcome<T> {
+        BulkResult of(int index, T item, HttpResponse<byte[]> response, int attempts);
+    }
+}
@@ -0,0 +1,21 @@
+package api;
+
+import lombok.Value;
+
+/**
+ * Outcome of one item in a {@link BulkBooks} operation. {@code status} is 0 when no response was received, and
+ * {@code id} is the created book's id for adds and the requested id for deletes.
+ */
+@Value
+public class BulkResult {
+
+    int index;
+    int status;
+    Object id;
+    String error;
+    int attempts;
+
+    public boolean isSuccess() {
+        return error == null;
+    }
+}
@@ -0,0 +1,36 @@
+package api;
+
+import config.ConfigReader;
+
+import java.util.Locale;
+
+/**
+ * Which bodies {@link BooksApi} compresses, chosen per run with -Dhttp.compression. Request bodies are gzipped by the
+ * shared client's connection pool (see {@link base.ConnectionPool}), after every RestAssured filter has seen them
+ * in plain form; responses are decoded by RestAssured.
+ */
+public enum Compression {
+
+    /** Nothing compressed either way: no Content-Encoding on requests, Accept-Encoding: identity. */
+    IDENTITY,
+    /** RestAssured's default: plain request bodies, gzip or deflate accepted for responses. */
+    RESPONSES,
+    /** Request bodies sent with Content-Encoding: gzip, and gzip accepted for responses. */
+    GZIP;
+
+    public boolean isGzipRequests() {
+        return this == GZIP;
+    }
+
+    public boolean isAcceptGzip() {
+        return this != IDENTITY;
+    }
+
+    public static Compression parse(String name) {
+        return valueOf(name.trim().toUpperCase(Locale.ROOT));
+    }
+
+    public static Compression fromSystemProperty() {
+        return parse(ConfigReader.snapshot().getString("http.compression", RESPONSES.name()));
+    }
+}
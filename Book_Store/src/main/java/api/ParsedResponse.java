@@ -0,0 +1,134 @@
+package api;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.MissingNode;
+import io.restassured.response.Response;
+import models.Book;
+import org.testng.Assert;
+
+import java.io.IOException;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Parses a response body once into a Jackson tree and serves every field lookup from it, instead of going
+ * through {@code jsonPath()} (Groovy GPath) for each assertion. Recently parsed trees are remembered per
+ * {@link Response}, so the filters and the caller that each wrap the same response share one parse.
+ */
+public class ParsedResponse {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    // Direct-mapped by identity hash and lock-free: a slot taken by another response just means parsing again
+    private static final int RECENT_SLOTS = 256;
+    private static final AtomicReferenceArray<Parsed> RECENT = new AtomicReferenceArray<>(RECENT_SLOTS);
+
+    private final Response response;
+    private JsonNode json;
+
+    private ParsedResponse(Response response) {
+        this.response = response;
+    }
+
+    public static ParsedResponse of(Response response) {
+        return new ParsedResponse(response);
+    }
+
+    public Response response() {
+        return response;
+    }
+
+    public int statusCode() {
+        return response.getStatusCode();
+    }
+
+    public JsonNode json() {
+        if (json != null) {
+            return json;
+        }
+        int slot = System.identityHashCode(response) & (RECENT_SLOTS - 1);
+        Parsed recent = RECENT.get(slot);
+        if (recent != null && recent.get() == response) {
+            json = recent.json;
+            return json;
+        }
+        byte[] body = response.asByteArray();
+        try {
+            json = body.length == 0 ? MissingNode.getInstance() : MAPPER.readTree(body);
+        } catch (IOException e) {
+            throw new RuntimeException("Response body is not valid JSON: " + response.asString(), e);
+        }
+        RECENT.set(slot, new Parsed(response, json));
+        return json;
+    }
+
+    /**
+     * Top-level field as a plain Java value (Integer/Long/Double, String, Boolean), or the node itself for
+     * objects and arrays; null when absent.
+     */
+    public Object get(String field) {
+        JsonNode node = json().get(field);
+        if (node == null || node.isNull()) return null;
+        if (node.isNumber()) return node.numberValue();
+        if (node.isTextual()) return node.textValue();
+        if (node.isBoolean()) return node.booleanValue();
+        return node;
+    }
+
+    public Book asBook() {
+        try {
+            return MAPPER.treeToValue(json(), Book.class);
+        } catch (IOException e) {
+            throw new RuntimeException("Response body is not a book: " + response.asString(), e);
+        }
+    }
+
+    /**
+     * Compares every field of {@code expected} in one pass and reports all mismatches together. A null field is
+     * expected to be null or absent in the response too; fields that should not be checked at all are named in
+     * {@code unchecked} by their JSON name ("id", "name", "author", "published_year", "book_summary").
+     */
+    public void assertMatches(Book expected, String... unchecked) {
+        List<String> skipped = Arrays.asList(unchecked);
+        List<String> mismatches = new ArrayList<>();
+        compare(mismatches, skipped, "id", "Book id", expected.getId());
+        compare(mismatches, skipped, "name", "Book name", expected.getName());
+        compare(mismatches, skipped, "author", "Author name", expected.getAuthor());
+        compare(mismatches, skipped, "published_year", "Published year", expected.getPublishedYear());
+        compare(mismatches, skipped, "book_summary", "Book summary", expected.getBookSummary());
+        if (!mismatches.isEmpty()) {
+            Assert.fail(String.join("; ", mismatches));
+        }
+    }
+
+    private void compare(List<String> mismatches, List<String> skipped, String field, String label, Object expected) {
+        if (skipped.contains(field)) return;
+        Object actual = get(field);
+        boolean equal;
+        if (expected == null || actual == null) {
+            equal = expected == actual;
+        } else if (expected instanceof Number && actual instanceof Number) {
+            equal = ((Number) expected).longValue() == ((Number) actual).longValue();
+        } else {
+            equal = Objects.equals(String.valueOf(expected), String.valueOf(actual));
+        }
+        if (!equal) {
+            mismatches.add(label + " mismatch: expected [" + expected + "] but found [" + actual + "]");
+        }
+    }
+
+    /** A tree and the response it came from, which the entry does not keep alive. */
+    private static final class Parsed extends WeakReference<Response> {
+
+        final JsonNode json;
+
+        Parsed(Response response, JsonNode json) {
+            super(response);
+            this.json = json;
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package auth;
+
+import lombok.Value;
+
+@Value
+public class Identity {
+
+    String email;
+    String password;
+}
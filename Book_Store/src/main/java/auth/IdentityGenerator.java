@@ -0,0 +1,41 @@
+package auth;
+
+import java.security.SecureRandom;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Collision-free identities without a shared hot spot: each email is a per-JVM run id plus a sequence number,
+ * and threads claim sequence numbers in blocks so the shared counter is touched once per {@value #BLOCK_SIZE}
+ * identities. Passwords come from {@link ThreadLocalRandom}.
+ */
+public class IdentityGenerator {
+
+    private static final int BLOCK_SIZE = 1024;
+    private static final char[] PASSWORD_CHARS = "ABCDEFGHIJKLMNOPQRSTUVWXYZ1234567890".toCharArray();
+    private static final String RUN_ID = Long.toString(new SecureRandom().nextLong() & Long.MAX_VALUE, 36);
+    private static final AtomicLong NEXT_BLOCK = new AtomicLong();
+    private static final ThreadLocal<long[]> BLOCK = ThreadLocal.withInitial(() -> new long[]{0, 0});
+
+    public static Identity next() {
+        return new Identity(nextEmail(), password(8));
+    }
+
+    public static String nextEmail() {
+        long[] block = BLOCK.get();
+        if (block[0] == block[1]) {
+            block[0] = NEXT_BLOCK.getAndIncrement() * BLOCK_SIZE;
+            block[1] = block[0] + BLOCK_SIZE;
+        }
+        return "u" + RUN_ID + "x" + Long.toString(block[0]++, 36) + "@gmail.com";
+    }
+
+    public static String password(int length) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        char[] password = new char[length];
+        for (int i = 0; i < length; i++) {
+            password[i] = PASSWORD_CHARS[random.nextInt(PASSWORD_CHARS.length)];
+        }
+        return new String(password);
+    }
+}
@@ -0,0 +1,168 @@
+package auth;
+
+import api.UserApi;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import config.ConfigReader;
+import io.restassured.response.Response;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiFunction;
+
+/**
+ * Logs each identity in once and hands out its cached "Bearer ..." token to any number of threads.
+ * Reads are a single map lookup; concurrent misses for the same identity share one login. Tokens that are
+ * still being used are refreshed in the background shortly before they expire.
+ *
+ * Expiry is taken from the JWT "exp" claim, falling back to -Dauth.defaultTtlSeconds for opaque tokens.
+ */
+public class TokenProvider {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final TokenProvider SHARED = new TokenProvider(TokenProvider::loginForAccessToken,
+            TimeUnit.SECONDS.toMillis(ConfigReader.snapshot().getLong("auth.defaultTtlSeconds", 900L)),
+            TimeUnit.SECONDS.toMillis(ConfigReader.snapshot().getLong("auth.refreshAheadSeconds", 60L)));
+
+    private final Map<String, CachedToken> tokens = new ConcurrentHashMap<>();
+    private final Map<String, CompletableFuture<CachedToken>> inFlight = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService refresher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "token-refresher");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final BiFunction<String, String, String> login;
+    private final long defaultTtlMillis;
+    private final long refreshAheadMillis;
+
+    public TokenProvider(BiFunction<String, String, String> login, long defaultTtlMillis, long refreshAheadMillis) {
+        this.login = login;
+        this.defaultTtlMillis = defaultTtlMillis;
+        this.refreshAheadMillis = refreshAheadMillis;
+    }
+
+    public static TokenProvider shared() {
+        return SHARED;
+    }
+
+    public String bearerToken(String email, String password) {
+        long now = System.currentTimeMillis();
+        CachedToken cached = tokens.get(email);
+        if (cached == null || cached.isExpired(now)) {
+            cached = loginOnce(email, password);
+            // The token was issued while logging in, so this access has to be stamped after it
+            now = System.currentTimeMillis();
+        }
+        // Only touch the shared field about once a second so hot identities don't bounce its cache line
+        if (now - cached.lastAccessMillis > 1_000) {
+            cached.lastAccessMillis = now;
+        }
+        return cached.bearer;
+    }
+
+    public void invalidate(String email) {
+        tokens.remove(email);
+    }
+
+    public void shutdown() {
+        refresher.shutdownNow();
+        tokens.clear();
+    }
+
+    private CachedToken loginOnce(String email, String password) {
+        CompletableFuture<CachedToken> pending = new CompletableFuture<>();
+        CompletableFuture<CachedToken> existing = inFlight.putIfAbsent(email, pending);
+        if (existing != null) {
+            return existing.join();
+        }
+        try {
+            CachedToken cached = tokens.get(email);
+            if (cached == null || cached.isExpired(System.currentTimeMillis())) {
+                cached = fetch(email, password);
+            }
+            pending.complete(cached);
+            return cached;
+        } catch (RuntimeException e) {
+            pending.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(email, pending);
+        }
+    }
+
+    private CachedToken fetch(String email, String password) {
+        String accessToken = login.apply(email, password);
+        long issuedAt = System.currentTimeMillis();
+        long expiresAt = expiryOf(accessToken, issuedAt + defaultTtlMillis);
+        CachedToken cached = new CachedToken("Bearer " + accessToken, password, expiresAt, issuedAt);
+        tokens.put(email, cached);
+        scheduleRefresh(email, cached);
+        return cached;
+    }
+
+    private void scheduleRefresh(String email, CachedToken cached) {
+        long delay = Math.max(0, cached.expiresAtMillis - refreshAheadMillis - System.currentTimeMillis());
+        refresher.schedule(() -> refresh(email, cached), delay, TimeUnit.MILLISECONDS);
+    }
+
+    private void refresh(String email, CachedToken previous) {
+        // Identities nobody asked for since the last login are left to expire rather than kept alive forever
+        if (tokens.get(email) != previous || previous.lastAccessMillis < previous.issuedAtMillis) {
+            return;
+        }
+        try {
+            fetch(email, previous.password);
+        } catch (RuntimeException e) {
+            // Keep serving the old token; the first read after it expires logs in synchronously
+        }
+    }
+
+    private static long expiryOf(String accessToken, long fallback) {
+        String[] parts = accessToken.split("\\.");
+        if (parts.length != 3) {
+            return fallback;
+        }
+        try {
+            JsonNode claims = MAPPER.readTree(new String(Base64.getUrlDecoder().decode(parts[1]), StandardCharsets.UTF_8));
+            return claims.has("exp") ? TimeUnit.SECONDS.toMillis(claims.get("exp").asLong()) : fallback;
+        } catch (IOException | IllegalArgumentException e) {
+            return fallback;
+        }
+    }
+
+    private static String loginForAccessToken(String email, String password) {
+        Response response = UserApi.login(email, password);
+        String accessToken = response.jsonPath().get("access_token");
+        if (response.getStatusCode() != 200 || accessToken == null) {
+            throw new RuntimeException("Login failed for " + email + " with status " + response.getStatusCode());
+        }
+        return accessToken;
+    }
+
+    private static class CachedToken {
+
+        private final String bearer;
+        private final String password;
+        private final long expiresAtMillis;
+        private final long issuedAtMillis;
+        private volatile long lastAccessMillis;
+
+        private CachedToken(String bearer, String password, long expiresAtMillis, long issuedAtMillis) {
+            this.bearer = bearer;
+            this.password = password;
+            this.expiresAtMillis = expiresAtMillis;
+            this.issuedAtMillis = issuedAtMillis;
+        }
+
+        private boolean isExpired(long now) {
+            return now >= expiresAtMillis;
+        }
+    }
+}
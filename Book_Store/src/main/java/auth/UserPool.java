@@ -0,0 +1,146 @@
+package auth;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import config.ConfigReader;
+import constants.BookStoreEndPoints;
+import io.restassured.RestAssured;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Accounts signed up ahead of time so tests and virtual users don't each pay for a signup. {@link #provision}
+ * creates them in parallel through the asynchronous JDK client, bounded by -Dusers.provisionConcurrency
+ * in-flight requests; {@link #lease()} and {@link #release} are a lock-free queue poll and offer.
+ *
+ * The shared pool is filled at suite start when -Dusers.poolSize is set.
+ */
+public class UserPool {
+
+    private static final Logger LOG = LoggerFactory.getLogger(UserPool.class);
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final int MAX_ATTEMPTS = 3;
+    private static final UserPool SHARED = new UserPool(ConfigReader.snapshot().getUsersProvisionConcurrency());
+
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(10))
+            .build();
+    private final Queue<Identity> available = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger provisioned = new AtomicInteger();
+    private final int concurrency;
+
+    public UserPool(int concurrency) {
+        this.concurrency = concurrency;
+    }
+
+    public static UserPool shared() {
+        return SHARED;
+    }
+
+    /**
+     * Signs up {@code count} new accounts and adds them to the pool. Returns how many were created; failures are
+     * retried with a fresh identity and logged if they still fail.
+     */
+    public int provision(int count) {
+        URI signUpUri = URI.create(RestAssured.baseURI).resolve(BookStoreEndPoints.SING_UP);
+        Semaphore inFlight = new Semaphore(concurrency);
+        AtomicInteger created = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+        long start = System.nanoTime();
+        try {
+            for (int i = 0; i < count; i++) {
+                inFlight.acquire();
+                signUp(signUpUri, IdentityGenerator.next(), MAX_ATTEMPTS).whenComplete((identity, error) -> {
+                    if (identity != null) {
+                        available.offer(identity);
+                        created.incrementAndGet();
+                    } else {
+                        failed.incrementAndGet();
+                    }
+                    inFlight.release();
+                });
+            }
+            inFlight.acquire(concurrency);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while provisioning users", e);
+        }
+        provisioned.addAndGet(created.get());
+        LOG.info("Provisioned {} users in {} ms ({} failed)", created.get(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), failed.get());
+        return created.get();
+    }
+
+    /**
+     * Takes an account out of the pool, signing a new one up on the spot when the pool has run dry.
+     */
+    public Identity lease() {
+        Identity identity = available.poll();
+        if (identity != null) {
+            return identity;
+        }
+        URI signUpUri = URI.create(RestAssured.baseURI).resolve(BookStoreEndPoints.SING_UP);
+        identity = signUp(signUpUri, IdentityGenerator.next(), MAX_ATTEMPTS).join();
+        if (identity == null) {
+            throw new IllegalStateException("Pool is empty and signing up a new user failed");
+        }
+        provisioned.incrementAndGet();
+        return identity;
+    }
+
+    public void release(Identity identity) {
+        available.offer(identity);
+    }
+
+    public int available() {
+        return available.size();
+    }
+
+    public int provisioned() {
+        return provisioned.get();
+    }
+
+    /** Completes with the identity once it is signed up, or with null after {@code attemptsLeft} failures. */
+    private CompletableFuture<Identity> signUp(URI signUpUri, Identity identity, int attemptsLeft) {
+        HttpRequest request = HttpRequest.newBuilder(signUpUri)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(signUpBody(identity)))
+                .build();
+        return httpClient.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                .handle((response, error) -> {
+                    if (response != null && response.statusCode() == 200) {
+                        return CompletableFuture.completedFuture(identity);
+                    }
+                    if (attemptsLeft > 1) {
+                        return signUp(signUpUri, IdentityGenerator.next(), attemptsLeft - 1);
+                    }
+                    LOG.warn("Signing up {} failed: {}", identity.getEmail(),
+                            error != null ? error.toString() : "status " + response.statusCode());
+                    return CompletableFuture.<Identity>completedFuture(null);
+                })
+                .thenCompose(next -> next);
+    }
+
+    private static byte[] signUpBody(Identity identity) {
+        try {
+            return MAPPER.writeValueAsBytes(Map.of("email", identity.getEmail(), "password", identity.getPassword()));
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -1,29 +1,178 @@
 package base;
 
+import api.BookCache;
+import api.BookSweeper;
+import auth.UserPool;
 import config.ConfigReader;
 
+import io.qameta.allure.Allure;
 import io.restassured.http.ContentType;
 import static io.restassured.RestAssured.config;
 
-import org.testng.annotations.BeforeSuite;
+import logging.LogMode;
+import logging.RequestLog;
+import metrics.BaselineComparison;
+import metrics.BaselineMode;
+import metrics.EndpointLatencies;
+import metrics.LatencyBaseline;
+import metrics.LatencyFilter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.testng.annotations.AfterTest;
+import org.testng.annotations.BeforeTest;
+import replay.CaptureFilter;
+import stub.BookStoreStub;
 
 import io.restassured.RestAssured;
 import io.restassured.builder.RequestSpecBuilder;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Map;
+
 
 public class BaseSetupApi {
 
-    @BeforeSuite
+    private static final Logger LOG = LoggerFactory.getLogger(BaseSetupApi.class);
+    private static final Path LATENCY_REPORT = Paths.get("target", "performance", "endpoint-latencies.json");
+
+    private static BookStoreStub stub;
+    private static ServiceHealth health;
+
+    @BeforeTest(alwaysRun = true)
     public static void setUp() {
-        String env= ConfigReader.get("env");
-        if (env.equalsIgnoreCase("prod")) {
-            RestAssured.baseURI = ConfigReader.get("prodUrl");
+        installLatencyFilter();
+        RequestLog.install(LogMode.fromSystemProperty());
+        if (ConfigReader.snapshot().getBoolean("bulk.sweep", true)) {
+            installSweeper();
+        }
+        if (ConfigReader.snapshot().getBoolean("stub.enabled", false)) {
+            stub = BookStoreStub.fromSystemProperties().start();
+            RestAssured.baseURI = stub.baseUrl();
         } else {
-            RestAssured.baseURI = ConfigReader.get("url");
+            RestAssured.baseURI = ConfigReader.snapshot().getBaseUrl();
         }
+        RestAssured.config = ConnectionPool.restAssuredConfig();
         RestAssured.requestSpecification = new RequestSpecBuilder()
                 .setContentType(ContentType.JSON)
                 .build();
+        String captureFile = ConfigReader.snapshot().get("capture.file");
+        if (captureFile != null) {
+            try {
+                CaptureFilter.start(Paths.get(captureFile));
+            } catch (IOException e) {
+                throw new RuntimeException("Failed to open capture log " + captureFile, e);
+            }
+        }
+        BookCache.installFromConfig();
+        int poolSize = ConfigReader.snapshot().getUsersPoolSize();
+        if (poolSize > 0) {
+            UserPool.shared().provision(poolSize);
+        }
+        awaitService();
+        // Measuring starts with the tests: the account provisioning above is not part of the run
+        EndpointLatencies.reset();
+    }
+
+    /**
+     * Waits until the service's health endpoint answers, warms every endpoint up with -Dwarmup.iterations (3)
+     * untimed passes, then keeps checking health in the background. -Dhealth.gate=false skips all of it.
+     */
+    public static void awaitService() {
+        if (!ConfigReader.snapshot().getBoolean("health.gate", true)) {
+            return;
+        }
+        health = ServiceHealth.fromSystemProperties(RestAssured.baseURI);
+        health.awaitReady();
+        WarmUp.run(ConfigReader.snapshot().getInt("warmup.iterations", 3));
+        health.startMonitoring();
+    }
+
+    public static void installLatencyFilter() {
+        if (!RestAssured.filters().contains(LatencyFilter.INSTANCE)) {
+            RestAssured.filters(LatencyFilter.INSTANCE);
+        }
+        EndpointLatencies.reset();
+    }
+
+    /**
+     * Tracks every book created through RestAssured so the suite, or a shutdown hook if it aborts, can delete them.
+     */
+    public static void installSweeper() {
+        if (!RestAssured.filters().contains(BookSweeper.shared())) {
+            RestAssured.filters(BookSweeper.shared());
+        }
+        BookSweeper.shared().sweepOnExit();
+    }
+
+    @AfterTest(alwaysRun = true)
+    public static void exportLatencies() {
+        String json = EndpointLatencies.export(LATENCY_REPORT);
+        Allure.addAttachment("Endpoint latencies", "application/json", json, ".json");
+        // Taken before the sweep so its deletes don't count towards the run
+        Map<String, Object> summary = EndpointLatencies.summary();
+        if (health != null) {
+            health.stopMonitoring();
+            health = null;
+        }
+        BookCache cache = BookCache.active();
+        if (cache != null) {
+            String stats = cache.getStats().summary();
+            LOG.info("Book cache: {}", stats);
+            Allure.addAttachment("Book cache", "text/plain", stats, ".txt");
+            BookCache.uninstall();
+        }
+        CaptureFilter.stop();
+        BookSweeper.shared().sweep();
+        ConnectionPool.shutdown();
+        if (stub != null) {
+            stub.close();
+            stub = null;
+        }
+        // Leaves the tests that run after this one with RestAssured's defaults rather than this setup's filters
+        RestAssured.reset();
+        checkBaseline(summary);
+    }
 
+    /**
+     * Records or enforces the latency baseline according to -Dperf.baseline. A regression fails the suite with the
+     * diff, which is also attached to the Allure report, and so does a missing baseline under -Dperf.requireBaseline.
+     * The suite's request counts and wall time change whenever a test does, so only p99 is judged here.
+     */
+    public static void checkBaseline(Map<String, Object> summary) {
+        BaselineComparison comparison = compareWithBaseline(summary, LatencyBaseline.fromSystemProperties().withoutThroughput());
+        if (comparison != null) {
+            Allure.addAttachment("Latency baseline diff", "text/markdown", comparison.toMarkdown(), ".md");
+            assertWithinBaseline(comparison);
+        }
+    }
+
+    /**
+     * Records {@code summary} as the baseline or compares it against the baseline, according to -Dperf.baseline. Null
+     * when nothing was compared; a missing baseline under -Dperf.requireBaseline fails instead.
+     */
+    public static BaselineComparison compareWithBaseline(Map<String, Object> summary, LatencyBaseline baseline) {
+        BaselineMode mode = BaselineMode.fromSystemProperty();
+        if (mode == BaselineMode.RECORD) {
+            baseline.record(summary);
+        } else if (mode == BaselineMode.COMPARE) {
+            if (baseline.exists()) {
+                return baseline.compare(summary);
+            }
+            if (ConfigReader.snapshot().getBoolean("perf.requireBaseline", false)) {
+                throw new AssertionError("No latency baseline at " + baseline.getFile()
+                        + "; record one with -Dperf.baseline=record and commit it");
+            }
+            LOG.warn("No latency baseline at {}, skipping the comparison; record one with -Dperf.baseline=record", baseline.getFile());
+        }
+        return null;
+    }
+
+    public static void assertWithinBaseline(BaselineComparison comparison) {
+        if (comparison.hasRegressions()) {
+            throw new AssertionError("Endpoint performance regressed against the baseline:\n" + comparison.toMarkdown());
+        }
+        LOG.info("Endpoint performance within tolerance of the baseline:\n{}", comparison.toMarkdown());
     }
 }
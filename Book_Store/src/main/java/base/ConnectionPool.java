@@ -0,0 +1,221 @@
+package base;
+
+import config.ConfigReader;
+import config.ConfigSnapshot;
+import io.restassured.config.HttpClientConfig;
+import io.restassured.config.RestAssuredConfig;
+import metrics.WireBytes;
+import org.apache.http.Header;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpEntityEnclosingRequest;
+import org.apache.http.HttpRequest;
+import org.apache.http.HttpRequestInterceptor;
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpResponseInterceptor;
+import org.apache.http.client.HttpClient;
+import org.apache.http.entity.ByteArrayEntity;
+import org.apache.http.entity.HttpEntityWrapper;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.DefaultHttpClient;
+import org.apache.http.impl.conn.PoolingClientConnectionManager;
+import org.apache.http.impl.conn.SchemeRegistryFactory;
+import org.apache.http.params.BasicHttpParams;
+import org.apache.http.params.HttpConnectionParams;
+import org.apache.http.params.HttpParams;
+import org.apache.http.protocol.HttpContext;
+import org.apache.http.util.EntityUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * One keep-alive connection pool shared by every RestAssured request in the JVM.
+ * RestAssured 5 still drives Apache HttpClient 4 through {@link DefaultHttpClient}, so the pool is the
+ * (deprecated but thread-safe) {@link PoolingClientConnectionManager}.
+ *
+ * Request bodies sent with Content-Encoding: gzip are compressed here, and body bytes are counted in
+ * {@link WireBytes}. Response bodies are buffered, except for requests that carry {@link #STREAM_RESPONSE_HEADER}.
+ *
+ * Tunable with -Dhttp.maxPerRoute, -Dhttp.maxTotal, -Dhttp.keepAliveSeconds, -Dhttp.connectTimeoutMillis,
+ * -Dhttp.socketTimeoutMillis and -Dhttp.staleCheck.
+ */
+@SuppressWarnings("deprecation")
+public class ConnectionPool {
+
+    /**
+     * Marks a request whose response body is read straight off the socket through {@code Response.asInputStream()}.
+     * The header is stripped before the request is sent. The caller must close that stream, which is what hands the
+     * connection back to the pool, and filters must not read the body of such a response.
+     */
+    public static final String STREAM_RESPONSE_HEADER = "X-Stream-Response";
+
+    private static final String STREAMED = "bookstore.streamResponse";
+
+    private static volatile DefaultHttpClient sharedClient;
+
+    public static RestAssuredConfig restAssuredConfig() {
+        return RestAssuredConfig.config().httpClient(HttpClientConfig.httpClientConfig()
+                .reuseHttpClientInstance()
+                .httpClientFactory(ConnectionPool::sharedClient));
+    }
+
+    public static HttpClient sharedClient() {
+        DefaultHttpClient client = sharedClient;
+        if (client == null) {
+            synchronized (ConnectionPool.class) {
+                client = sharedClient;
+                if (client == null) {
+                    client = createClient();
+                    sharedClient = client;
+                }
+            }
+        }
+        return client;
+    }
+
+    public static void shutdown() {
+        synchronized (ConnectionPool.class) {
+            if (sharedClient != null) {
+                sharedClient.getConnectionManager().shutdown();
+                sharedClient = null;
+            }
+        }
+    }
+
+    private static DefaultHttpClient createClient() {
+        ConfigSnapshot config = ConfigReader.snapshot();
+        int maxPerRoute = config.getHttpMaxPerRoute();
+        int maxTotal = config.getHttpMaxTotal();
+        long keepAliveMillis = TimeUnit.SECONDS.toMillis(config.getHttpKeepAliveSeconds());
+
+        PoolingClientConnectionManager connectionManager = new PoolingClientConnectionManager(
+                SchemeRegistryFactory.createDefault(), keepAliveMillis, TimeUnit.MILLISECONDS);
+        connectionManager.setDefaultMaxPerRoute(maxPerRoute);
+        connectionManager.setMaxTotal(maxTotal);
+
+        HttpParams params = new BasicHttpParams();
+        HttpConnectionParams.setConnectionTimeout(params, config.getHttpConnectTimeoutMillis());
+        HttpConnectionParams.setSoTimeout(params, config.getHttpSocketTimeoutMillis());
+        HttpConnectionParams.setStaleCheckingEnabled(params, config.isHttpStaleCheck());
+        HttpConnectionParams.setTcpNoDelay(params, true);
+
+        DefaultHttpClient client = new DefaultHttpClient(connectionManager, params);
+        // Honour the server's Keep-Alive timeout when it sends one, otherwise cap idle reuse at keepAliveMillis
+        client.setKeepAliveStrategy((response, context) -> {
+            long serverKeepAlive = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context);
+            return serverKeepAlive > 0 ? Math.min(serverKeepAlive, keepAliveMillis) : keepAliveMillis;
+        });
+        // First, so the protocol interceptors that follow compute Content-Length from the compressed body
+        client.addRequestInterceptor(new RequestBodyInterceptor(), 0);
+        client.addRequestInterceptor(new StreamMarkerInterceptor(), 0);
+        client.addResponseInterceptor(new BufferingInterceptor());
+        return client;
+    }
+
+    /**
+     * Takes {@link #STREAM_RESPONSE_HEADER} off the request and remembers it for {@link BufferingInterceptor}.
+     */
+    private static class StreamMarkerInterceptor implements HttpRequestInterceptor {
+
+        @Override
+        public void process(HttpRequest request, HttpContext context) {
+            if (request.containsHeader(STREAM_RESPONSE_HEADER)) {
+                request.removeHeaders(STREAM_RESPONSE_HEADER);
+                context.setAttribute(STREAMED, Boolean.TRUE);
+            }
+        }
+    }
+
+    /**
+     * RestAssured never releases a reused client's connection, which drains the pool after maxPerRoute requests.
+     * Consuming the stream here hands the connection back. A streamed response keeps its socket stream, counted
+     * as it is read, and its connection goes back when the caller closes that stream.
+     */
+    private static class BufferingInterceptor implements HttpResponseInterceptor {
+
+        @Override
+        public void process(HttpResponse response, HttpContext context) throws IOException {
+            HttpEntity entity = response.getEntity();
+            if (entity != null && context.getAttribute(STREAMED) != null) {
+                response.setEntity(new CountingEntity(entity));
+            } else if (entity != null && !entity.isRepeatable()) {
+                byte[] body = EntityUtils.toByteArray(entity);
+                WireBytes.recordReceived(body.length);
+                ByteArrayEntity buffered = new ByteArrayEntity(body);
+                buffered.setContentType(entity.getContentType());
+                buffered.setContentEncoding(entity.getContentEncoding());
+                response.setEntity(buffered);
+            } else if (entity != null) {
+                WireBytes.recordReceived(Math.max(0, entity.getContentLength()));
+            }
+        }
+    }
+
+    private static class CountingEntity extends HttpEntityWrapper {
+
+        CountingEntity(HttpEntity entity) {
+            super(entity);
+        }
+
+        @Override
+        public InputStream getContent() throws IOException {
+            return new FilterInputStream(super.getContent()) {
+
+                @Override
+                public int read() throws IOException {
+                    int b = super.read();
+                    if (b >= 0) WireBytes.recordReceived(1);
+                    return b;
+                }
+
+                @Override
+                public int read(byte[] buffer, int offset, int length) throws IOException {
+                    int read = super.read(buffer, offset, length);
+                    if (read > 0) WireBytes.recordReceived(read);
+                    return read;
+                }
+            };
+        }
+    }
+
+    /**
+     * Gzips the body of a request that declares Content-Encoding: gzip but still carries plain bytes, which is how
+     * {@link api.BooksApi} sends them so RestAssured filters, request logs and captures all see readable JSON.
+     * The body is buffered rather than streamed because the service needs a Content-Length.
+     */
+    private static class RequestBodyInterceptor implements HttpRequestInterceptor {
+
+        @Override
+        public void process(HttpRequest request, HttpContext context) throws IOException {
+            if (!(request instanceof HttpEntityEnclosingRequest)) {
+                return;
+            }
+            HttpEntityEnclosingRequest enclosing = (HttpEntityEnclosingRequest) request;
+            HttpEntity entity = enclosing.getEntity();
+            if (entity == null) {
+                return;
+            }
+            Header encoding = request.getFirstHeader("Content-Encoding");
+            if (encoding != null && "gzip".equalsIgnoreCase(encoding.getValue())) {
+                byte[] body = EntityUtils.toByteArray(entity);
+                // 0x1f8b starts every gzip stream and can't start a JSON document
+                if (body.length < 2 || body[0] != (byte) 0x1f || body[1] != (byte) 0x8b) {
+                    ByteArrayOutputStream compressed = new ByteArrayOutputStream(Math.max(64, body.length / 4));
+                    try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+                        gzip.write(body);
+                    }
+                    body = compressed.toByteArray();
+                }
+                ByteArrayEntity gzipped = new ByteArrayEntity(body);
+                gzipped.setContentType(entity.getContentType());
+                enclosing.setEntity(gzipped);
+                entity = gzipped;
+            }
+            WireBytes.recordSent(Math.max(0, entity.getContentLength()));
+        }
+    }
+}
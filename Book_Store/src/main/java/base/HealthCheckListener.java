@@ -0,0 +1,20 @@
+package base;
+
+import org.testng.IInvokedMethod;
+import org.testng.IInvokedMethodListener;
+import org.testng.ITestResult;
+
+/**
+ * Fails every test that would start after the service was marked unhealthy by {@link ServiceHealth}, with the
+ * reason, instead of letting each one time out against a dead service.
+ */
+public class HealthCheckListener implements IInvokedMethodListener {
+
+    @Override
+    public void beforeInvocation(IInvokedMethod method, ITestResult testResult) {
+        ServiceHealth health = ServiceHealth.monitored();
+        if (method.isTestMethod() && health != null) {
+            health.assertHealthy();
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package base;
+
+import config.ConfigReader;
+import config.ConfigSnapshot;
+import constants.BookStoreEndPoints;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Readiness and liveness of the service through its {@code health} endpoint. {@link #awaitReady()} polls with
+ * exponential backoff until the service answers 200; {@link #startMonitoring()} then checks it in the background
+ * and, after -Dhealth.unhealthyAfter consecutive failed checks, marks it unhealthy for the rest of the run so
+ * tests and load runners can stop instead of piling up failures against a dead service.
+ *
+ * Checks go through their own JDK client, so they never show up in the endpoint latencies or the request log.
+ */
+public class ServiceHealth {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ServiceHealth.class);
+    private static final long INITIAL_BACKOFF_MILLIS = 100;
+    private static final long MAX_BACKOFF_MILLIS = 5_000;
+
+    private static volatile ServiceHealth monitored;
+
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+    private final URI healthUri;
+    private final Duration readyTimeout;
+    private final Duration interval;
+    private final int unhealthyAfter;
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+    private volatile String unhealthyReason;
+    private ScheduledExecutorService scheduler;
+
+    public ServiceHealth(String baseUrl, Duration readyTimeout, Duration interval, int unhealthyAfter) {
+        this.healthUri = URI.create(baseUrl).resolve(BookStoreEndPoints.HEALTH_CHECK);
+        this.readyTimeout = readyTimeout;
+        this.interval = interval;
+        this.unhealthyAfter = unhealthyAfter;
+    }
+
+    /**
+     * -Dhealth.timeoutSeconds (60) to become ready, a check every -Dhealth.intervalSeconds (10, 0 disables
+     * monitoring) and -Dhealth.unhealthyAfter (3) consecutive failures before giving up on the service.
+     */
+    public static ServiceHealth fromSystemProperties(String baseUrl) {
+        ConfigSnapshot config = ConfigReader.snapshot();
+        return new ServiceHealth(baseUrl,
+                Duration.ofSeconds(config.getLong("health.timeoutSeconds", 60L)),
+                Duration.ofSeconds(config.getLong("health.intervalSeconds", 10L)),
+                config.getInt("health.unhealthyAfter", 3));
+    }
+
+    /** The instance currently monitoring the service, or null when nothing is. */
+    public static ServiceHealth monitored() {
+        return monitored;
+    }
+
+    /**
+     * Blocks until the health endpoint answers 200, and throws once the ready timeout has passed without it.
+     */
+    public void awaitReady() {
+        long start = System.nanoTime();
+        long deadline = start + readyTimeout.toNanos();
+        long backoffMillis = INITIAL_BACKOFF_MILLIS;
+        int attempts = 1;
+        String reason;
+        while ((reason = probe()) != null) {
+            if (System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(backoffMillis) > deadline) {
+                throw new IllegalStateException("Service at " + healthUri + " not ready after " + readyTimeout.getSeconds()
+                        + " s and " + attempts + " checks: " + reason);
+            }
+            LOG.info("Waiting for {} ({}), next check in {} ms", healthUri, reason, backoffMillis);
+            try {
+                Thread.sleep(backoffMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for " + healthUri, e);
+            }
+            backoffMillis = Math.min(backoffMillis * 2, MAX_BACKOFF_MILLIS);
+            attempts++;
+        }
+        LOG.info("Service ready at {} after {} ms", healthUri, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    public synchronized void startMonitoring() {
+        if (interval.isZero() || scheduler != null) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "health-monitor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::check, interval.toMillis(), interval.toMillis(), TimeUnit.MILLISECONDS);
+        monitored = this;
+    }
+
+    public synchronized void stopMonitoring() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+        if (monitored == this) {
+            monitored = null;
+        }
+    }
+
+    public boolean isHealthy() {
+        return unhealthyReason == null;
+    }
+
+    public void assertHealthy() {
+        String reason = unhealthyReason;
+        if (reason != null) {
+            throw new IllegalStateException("Service at " + healthUri + " became unhealthy: " + reason);
+        }
+    }
+
+    void check() {
+        String reason = probe();
+        if (reason == null) {
+            consecutiveFailures.set(0);
+            return;
+        }
+        int failures = consecutiveFailures.incrementAndGet();
+        LOG.warn("Health check {} failed ({} in a row): {}", healthUri, failures, reason);
+        // Once unhealthy the run is over; a service that comes back mid-run has already skewed every measurement
+        if (failures >= unhealthyAfter && unhealthyReason == null) {
+            unhealthyReason = reason + " on " + failures + " consecutive checks";
+            LOG.error("Service at {} is unhealthy: {}", healthUri, unhealthyReason);
+        }
+    }
+
+    /** Null when the service answered 200, otherwise why not. */
+    private String probe() {
+        HttpRequest request = HttpRequest.newBuilder(healthUri).timeout(Duration.ofSeconds(5)).GET().build();
+        try {
+            int status = httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+            return status == 200 ? null : "status " + status;
+        } catch (IOException e) {
+            return e.toString();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return "interrupted";
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package base;
+
+import api.BooksApi;
+import api.ParsedResponse;
+import auth.Identity;
+import auth.TokenProvider;
+import auth.UserPool;
+import metrics.EndpointLatencies;
+import models.Book;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Untimed passes over every book endpoint before measuring starts, so the first recorded latencies are not paying
+ * for service cold start, JIT compilation on either side or connection setup. Its own requests are not recorded,
+ * while latencies other threads record meanwhile are kept, and every book it adds it deletes again.
+ */
+public class WarmUp {
+
+    private static final Logger LOG = LoggerFactory.getLogger(WarmUp.class);
+
+    public static void run(int iterations) {
+        if (iterations <= 0) {
+            return;
+        }
+        long start = System.nanoTime();
+        Identity identity = UserPool.shared().lease();
+        try {
+            EndpointLatencies.untimed(() -> {
+                String accessToken = TokenProvider.shared().bearerToken(identity.getEmail(), identity.getPassword());
+                for (int i = 0; i < iterations; i++) {
+                    Book book = new Book("Warm-up Book " + i, "Warm-up Author " + i, 2000L + i, "Warm-up summary " + i);
+                    Object id = ParsedResponse.of(BooksApi.addNewBook(book, accessToken)).get("id");
+                    BooksApi.getAllBooks(accessToken);
+                    if (id != null) {
+                        BooksApi.getBookDetailsById(id, accessToken);
+                        BooksApi.editTheBook(id, book, accessToken);
+                        BooksApi.deleteTheBookById(String.valueOf(id), accessToken);
+                    }
+                }
+            });
+        } finally {
+            UserPool.shared().release(identity);
+        }
+        LOG.info("Warmed up with {} passes in {} ms", iterations, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+}
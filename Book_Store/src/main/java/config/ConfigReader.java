@@ -1,28 +1,100 @@
 package config;
 
-import java.io.FileInputStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Properties;
 
+/**
+ * Loads the {@link ConfigSnapshot} on first use. The environment comes from -Denv or BOOKSTORE_ENV (QA by
+ * default), and its application-&lt;ENV&gt;.properties is read from -Dconfig.dir (src/test/envConfiguration) or,
+ * failing that, from envConfiguration/ on the classpath.
+ *
+ * System properties set after the first read are not seen; pass them on the command line or through surefire.
+ */
 public class ConfigReader {
 
-    private static final Properties properties = new Properties();
+    private static final Logger LOG = LoggerFactory.getLogger(ConfigReader.class);
+    private static final String ENV_PREFIX = "BOOKSTORE_";
 
-    public static void setUp()
-    {
-        String configFilePath="src/test/envConfiguration/application-QA.properties";
-        try (InputStream input = ConfigReader.class.getClassLoader().getResourceAsStream(configFilePath)) {
-            if (input == null) {
-                throw new RuntimeException("Properties file not found: " + configFilePath);
-            }
-            properties.load(input);
-        } catch (IOException e) {
-            throw new RuntimeException("Failed to load properties file: " + configFilePath, e);
-        }
+    private static final class Holder {
+        static final ConfigSnapshot SNAPSHOT = load(System.getenv(), System.getProperties());
+    }
+
+    public static ConfigSnapshot snapshot() {
+        return Holder.SNAPSHOT;
+    }
+
+    /** Loads the snapshot now rather than on first use. */
+    public static void setUp() {
+        snapshot();
     }
 
     public static String get(String key) {
-        return properties.getProperty(key);
+        return snapshot().get(key);
+    }
+
+    /** Resolves a snapshot from the given layers instead of this process's, without caching it. */
+    public static ConfigSnapshot load(Map<String, String> environmentVariables, Properties systemProperties) {
+        // Keyed by normalised name and filled in precedence order, so a system property replaces the
+        // environment variable spelling the same setting
+        Map<String, String> overrides = new LinkedHashMap<>();
+        environmentVariables.forEach((name, value) -> {
+            if (name.startsWith(ENV_PREFIX)) {
+                overrides.put(ConfigSnapshot.normalize(name.substring(ENV_PREFIX.length())), value);
+            }
+        });
+        systemProperties.stringPropertyNames()
+                .forEach(name -> overrides.put(ConfigSnapshot.normalize(name), systemProperties.getProperty(name)));
+
+        String envName = overrides.get("env");
+        Environment environment = envName == null ? Environment.QA : Environment.fromName(envName);
+        Path dir = Paths.get(overrides.getOrDefault("configdir", "src/test/envConfiguration"));
+
+        Map<String, String> values = new HashMap<>();
+        readProperties(environment, dir, envName != null)
+                .forEach((key, value) -> values.put(ConfigSnapshot.normalize(key.toString()), value.toString()));
+        values.putAll(overrides);
+        values.put("env", environment.name());
+
+        ConfigSnapshot snapshot = new ConfigSnapshot(environment, values);
+        LOG.info("Configuration for {}: base URL {}, log mode {}", environment, snapshot.getBaseUrl(), snapshot.getLogMode());
+        return snapshot;
+    }
+
+    private static Properties readProperties(Environment environment, Path dir, boolean required) {
+        Properties properties = new Properties();
+        Path file = dir.resolve(environment.fileName());
+        try {
+            if (Files.isRegularFile(file)) {
+                try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+                    properties.load(reader);
+                }
+                return properties;
+            }
+            try (InputStream input = ConfigReader.class.getClassLoader().getResourceAsStream("envConfiguration/" + environment.fileName())) {
+                if (input != null) {
+                    properties.load(input);
+                    return properties;
+                }
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to load properties file: " + file, e);
+        }
+        if (required) {
+            throw new RuntimeException("Properties file not found: " + file);
+        }
+        LOG.warn("No {} found in {} or on the classpath, using defaults and overrides only", environment.fileName(), dir);
+        return properties;
     }
 }
@@ -0,0 +1,116 @@
+package config;
+
+import logging.LogMode;
+import lombok.Getter;
+
+import java.util.Collections;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Every setting of a run, resolved once and never changed afterwards: the environment's properties file, overlaid
+ * by BOOKSTORE_* environment variables, overlaid by system properties. Keys are matched loosely, so
+ * {@code http.maxPerRoute}, {@code -Dhttp.maxperroute} and {@code BOOKSTORE_HTTP_MAX_PER_ROUTE} are the same setting.
+ *
+ * The settings read on hot paths are parsed into fields up front; the rest are parsed from the frozen map on each
+ * call. Either way, nothing can change underneath a reader.
+ */
+@Getter
+public final class ConfigSnapshot {
+
+    @Getter(lombok.AccessLevel.NONE)
+    private final Map<String, String> values;
+
+    private final Environment environment;
+    private final String baseUrl;
+
+    private final int httpMaxPerRoute;
+    private final int httpMaxTotal;
+    private final long httpKeepAliveSeconds;
+    private final int httpConnectTimeoutMillis;
+    private final int httpSocketTimeoutMillis;
+    private final boolean httpStaleCheck;
+
+    private final LogMode logMode;
+    private final int logBufferSize;
+    private final int logSampleRate;
+
+    private final int usersPoolSize;
+    private final int usersProvisionConcurrency;
+    private final int bulkMaxInFlight;
+    private final int bulkMaxAttempts;
+
+    private final double loadRate;
+    private final int loadUsers;
+    private final int loadMaxInFlight;
+
+    ConfigSnapshot(Environment environment, Map<String, String> rawValues) {
+        Map<String, String> normalized = new TreeMap<>();
+        rawValues.forEach((key, value) -> normalized.put(normalize(key), value.trim()));
+        this.values = Collections.unmodifiableMap(normalized);
+        this.environment = environment;
+        this.baseUrl = getString(environment == Environment.PROD ? "prodUrl" : "url", "http://127.0.0.1:8000/");
+
+        this.httpMaxPerRoute = getInt("http.maxPerRoute", 50);
+        this.httpMaxTotal = getInt("http.maxTotal", Math.max(httpMaxPerRoute, 200));
+        this.httpKeepAliveSeconds = getLong("http.keepAliveSeconds", 30L);
+        this.httpConnectTimeoutMillis = getInt("http.connectTimeoutMillis", 5_000);
+        this.httpSocketTimeoutMillis = getInt("http.socketTimeoutMillis", 30_000);
+        this.httpStaleCheck = getBoolean("http.staleCheck", true);
+
+        this.logMode = LogMode.valueOf(getString("log.mode", LogMode.FAILURES.name()).toUpperCase(Locale.ROOT));
+        this.logBufferSize = getInt("log.bufferSize", 1024);
+        this.logSampleRate = getInt("log.sampleRate", 100);
+
+        this.usersPoolSize = getInt("users.poolSize", 0);
+        this.usersProvisionConcurrency = getInt("users.provisionConcurrency", 64);
+        this.bulkMaxInFlight = getInt("bulk.maxInFlight", 64);
+        this.bulkMaxAttempts = getInt("bulk.maxAttempts", 3);
+
+        this.loadRate = getDouble("load.rate", 100);
+        this.loadUsers = getInt("load.users", 100);
+        this.loadMaxInFlight = getInt("load.maxInFlight", 1_000);
+    }
+
+    static String normalize(String key) {
+        StringBuilder normalized = new StringBuilder(key.length());
+        for (int i = 0; i < key.length(); i++) {
+            char c = key.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                normalized.append(Character.toLowerCase(c));
+            }
+        }
+        return normalized.toString();
+    }
+
+    /** The raw value, or null when no layer sets it. */
+    public String get(String key) {
+        return values.get(normalize(key));
+    }
+
+    public String getString(String key, String defaultValue) {
+        String value = get(key);
+        return value == null || value.isEmpty() ? defaultValue : value;
+    }
+
+    public int getInt(String key, int defaultValue) {
+        String value = get(key);
+        return value == null || value.isEmpty() ? defaultValue : Integer.parseInt(value);
+    }
+
+    public long getLong(String key, long defaultValue) {
+        String value = get(key);
+        return value == null || value.isEmpty() ? defaultValue : Long.parseLong(value);
+    }
+
+    public double getDouble(String key, double defaultValue) {
+        String value = get(key);
+        return value == null || value.isEmpty() ? defaultValue : Double.parseDouble(value);
+    }
+
+    public boolean getBoolean(String key, boolean defaultValue) {
+        String value = get(key);
+        return value == null || value.isEmpty() ? defaultValue : Boolean.parseBoolean(value);
+    }
+}
@@ -0,0 +1,18 @@
+package config;
+
+/**
+ * The deployment a run targets; each has its own application-&lt;NAME&gt;.properties.
+ */
+public enum Environment {
+    QA,
+    STAGE,
+    PROD;
+
+    public static Environment fromName(String name) {
+        return valueOf(name.trim().toUpperCase());
+    }
+
+    public String fileName() {
+        return "application-" + name() + ".properties";
+    }
+}
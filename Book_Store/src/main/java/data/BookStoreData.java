@@ -1,21 +1,30 @@
 package data;
 
-import io.restassured.response.Response;
+import models.Book;
 
+import java.util.ArrayList;
 import java.util.List;
 import lombok.Data;
 
+/**
+ * What one flow carries from one step to the next: the account, the token, and the book it expects to find. Only
+ * values extracted from responses are kept, never the responses themselves, so a body becomes garbage as soon as
+ * the step that verified it returns and thousands of concurrent flows cost a few hundred bytes each.
+ *
+ * Not thread-safe: each flow (a test class instance, or one virtual user) owns its own instance.
+ */
 @Data
 public class BookStoreData {
 
     private String validEmailUsed;
     private String validPasswordUsed;
     private String accessToken;
-    private Response signUpResponse;
-    private Response logInResponse;
-    private Response addBookResponse;
-    private Response editBookResponse;
-    private Response getBookDetailsById;
-    private List<Response> fetchAllBooks;
-    private Response deleteBookResponse;
+    /** The book the flow created, with its id, as the service is expected to return it now. */
+    private Book expectedBook;
+    /** Names of every book the flow added, for checking the all-books listing. */
+    private final List<String> addedBookNames = new ArrayList<>();
+
+    public Object getCreatedBookId() {
+        return expectedBook == null ? null : expectedBook.getId();
+    }
 }
@@ -0,0 +1,129 @@
+package flow;
+
+import api.BookCatalog;
+import api.BookIndex;
+import api.BooksApi;
+import api.ParsedResponse;
+import api.UserApi;
+import auth.Identity;
+import auth.IdentityGenerator;
+import io.restassured.response.Response;
+import models.Book;
+import org.testng.Assert;
+
+/**
+ * The Bookstore API flows as dependency graphs for {@link FlowScheduler}, with the checks the priority-ordered
+ * BooksApiTest used to make; that test now runs {@link #crud()} and reports each step as its own result. Get by id
+ * and fetch all read the book back after the edit, so they check that the edit persisted, and run side by side.
+ */
+public class BookStoreFlows {
+
+    /**
+     * signup -> {signup again, signup with a new password, signup without an email, login -> add -> edit ->
+     * {get by id, fetch all} -> delete -> get deleted}
+     */
+    public static Flow crud() {
+        return Flow.named("crud")
+                .step("signUp", BookStoreFlows::signUp)
+                .step("signUpAgain", BookStoreFlows::signUpAgain, "signUp")
+                .step("signUpWithNewPassword", BookStoreFlows::signUpWithNewPassword, "signUp")
+                .step("signUpWithoutEmail", BookStoreFlows::signUpWithoutEmail, "signUp")
+                .step("login", BookStoreFlows::login, "signUp")
+                .step("addNewBook", BookStoreFlows::addNewBook, "login")
+                .step("editTheBook", BookStoreFlows::editTheBook, "addNewBook")
+                .step("getBookDetailsById", BookStoreFlows::getBookDetailsById, "editTheBook")
+                .step("fetchAllBooks", BookStoreFlows::fetchAllBooks, "editTheBook")
+                .step("deleteTheBookById", BookStoreFlows::deleteTheBookById, "getBookDetailsById", "fetchAllBooks")
+                .step("getDeletedBook", BookStoreFlows::getDeletedBook, "deleteTheBookById");
+    }
+
+    private static void signUp(FlowContext context) {
+        Identity identity = IdentityGenerator.next();
+        Response response = UserApi.signUp(identity.getEmail(), identity.getPassword());
+        Assert.assertEquals(response.getStatusCode(), 200, "Sign up expected status code mismatch");
+        Assert.assertEquals(ParsedResponse.of(response).get("message"), "User created successfully", "User is not created");
+        context.put("identity", identity);
+    }
+
+    private static void signUpAgain(FlowContext context) {
+        Identity identity = context.require("identity");
+        assertAlreadyRegistered(UserApi.signUp(identity.getEmail(), identity.getPassword()));
+    }
+
+    private static void signUpWithNewPassword(FlowContext context) {
+        // Rejected, so the account keeps the password login uses
+        Identity identity = context.require("identity");
+        assertAlreadyRegistered(UserApi.signUp(identity.getEmail(), UserApi.generateEmailAndPassword(8)));
+    }
+
+    private static void signUpWithoutEmail(FlowContext context) {
+        // A null email goes out as the string "null", which the first such signup against a fresh service registers
+        UserApi.signUp(null, UserApi.generateEmailAndPassword(8));
+        assertAlreadyRegistered(UserApi.signUp(null, UserApi.generateEmailAndPassword(8)));
+    }
+
+    private static void assertAlreadyRegistered(Response response) {
+        Assert.assertEquals(response.getStatusCode(), 400, "Sign up expected status code mismatch");
+        Assert.assertEquals(ParsedResponse.of(response).get("detail"), "Email already registered", "Expected error message mismatch");
+    }
+
+    private static void login(FlowContext context) {
+        Identity identity = context.require("identity");
+        ParsedResponse body = ParsedResponse.of(UserApi.login(identity.getEmail(), identity.getPassword()));
+        Assert.assertEquals(body.statusCode(), 200, "Login expected status code mismatch");
+        Object token = body.get("access_token");
+        Assert.assertNotNull(token, "Token is not generated after login");
+        Assert.assertEquals(body.get("token_type"), "bearer", "Token generated type is not bearer");
+        context.put("accessToken", "Bearer " + token);
+    }
+
+    private static void addNewBook(FlowContext context) {
+        long uniqueId = System.nanoTime();
+        Book book = new Book("Flow Book " + uniqueId, "Flow Author " + uniqueId, 1900L + uniqueId % 125, "Flow summary " + uniqueId);
+        ParsedResponse body = ParsedResponse.of(BooksApi.addNewBook(book, context.<String>require("accessToken")));
+        Assert.assertEquals(body.statusCode(), 200, "Add book expected status code mismatch");
+        Object id = body.get("id");
+        Assert.assertNotNull(id, "Unique id is not generated");
+        book.setId(id);
+        body.assertMatches(book);
+        context.put("book", book);
+    }
+
+    private static void editTheBook(FlowContext context) {
+        Book book = context.require("book");
+        Book edited = new Book(book.getId(), "Flow Book edited " + book.getId(), book.getAuthor(), book.getPublishedYear(), book.getBookSummary());
+        Response response = BooksApi.editTheBook(book.getId(), edited, context.<String>require("accessToken"));
+        Assert.assertEquals(response.getStatusCode(), 200, "Edit book expected status code mismatch");
+        Assert.assertEquals(response.getStatusLine(), "HTTP/1.1 200 OK", "Response line is not as expected for 200");
+        ParsedResponse.of(response).assertMatches(edited);
+        context.put("edited", edited);
+    }
+
+    private static void getBookDetailsById(FlowContext context) {
+        Book edited = context.require("edited");
+        ParsedResponse body = ParsedResponse.of(BooksApi.getBookDetailsById(edited.getId(), context.<String>require("accessToken")));
+        Assert.assertEquals(body.statusCode(), 200, "Get book expected status code mismatch");
+        body.assertMatches(edited);
+    }
+
+    private static void fetchAllBooks(FlowContext context) {
+        Book edited = context.require("edited");
+        BookIndex index = new BookIndex();
+        BookCatalog.streamAllBooks(context.<String>require("accessToken"), index);
+        Assert.assertTrue(index.containsName(edited.getName()), "Book name " + edited.getName() + " not found in all books");
+    }
+
+    private static void deleteTheBookById(FlowContext context) {
+        Book book = context.require("book");
+        Response response = BooksApi.deleteTheBookById(String.valueOf(book.getId()), context.<String>require("accessToken"));
+        Assert.assertEquals(response.getStatusCode(), 200, "Delete book expected status code mismatch");
+        Assert.assertEquals(response.getStatusLine(), "HTTP/1.1 200 OK", "Response line is not as expected");
+        Assert.assertEquals(ParsedResponse.of(response).get("message"), "Book deleted successfully", "Book not deleted yet");
+    }
+
+    private static void getDeletedBook(FlowContext context) {
+        Book book = context.require("book");
+        ParsedResponse body = ParsedResponse.of(BooksApi.getBookDetailsById(book.getId(), context.<String>require("accessToken")));
+        Assert.assertEquals(body.get("detail"), "Book not found", "Book details should not be fetched for deleted");
+    }
+}
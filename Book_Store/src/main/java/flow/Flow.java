@@ -0,0 +1,51 @@
+package flow;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * A set of steps with explicit data dependencies, e.g. signup -> login -> add -> {edit, get, fetch all} -> delete.
+ * Dependencies must be declared before the steps that use them, which also rules out cycles.
+ */
+public class Flow {
+
+    private final String name;
+    private final Map<String, Step> steps = new LinkedHashMap<>();
+
+    private Flow(String name) {
+        this.name = name;
+    }
+
+    public static Flow named(String name) {
+        return new Flow(name);
+    }
+
+    public Flow step(String stepName, Consumer<FlowContext> action, String... dependsOn) {
+        if (steps.containsKey(stepName)) {
+            throw new IllegalArgumentException("Flow '" + name + "' already has a step '" + stepName + "'");
+        }
+        List<String> dependencies = new ArrayList<>();
+        for (String dependency : dependsOn) {
+            if (!steps.containsKey(dependency)) {
+                throw new IllegalArgumentException("Step '" + stepName + "' depends on '" + dependency
+                        + "', which is not declared before it in flow '" + name + "'");
+            }
+            dependencies.add(dependency);
+        }
+        steps.put(stepName, new Step(stepName, Collections.unmodifiableList(dependencies), action));
+        return this;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /** In declaration order, so every step comes after its dependencies. */
+    public List<Step> getSteps() {
+        return List.copyOf(steps.values());
+    }
+}
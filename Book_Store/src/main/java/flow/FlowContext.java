@@ -0,0 +1,33 @@
+package flow;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The values one flow instance passes from step to step. Every flow run by {@link FlowScheduler} gets its own, so
+ * concurrent flows never see each other's data; parallel branches of the same flow may read and write it at once.
+ */
+public class FlowContext {
+
+    private final Map<String, Object> values = new ConcurrentHashMap<>();
+
+    public void put(String key, Object value) {
+        values.put(key, value);
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T get(String key) {
+        return (T) values.get(key);
+    }
+
+    /**
+     * As {@link #get}, but fails the step when an upstream step did not provide the value.
+     */
+    public <T> T require(String key) {
+        T value = get(key);
+        if (value == null) {
+            throw new IllegalStateException("No '" + key + "' in the flow context; is the step producing it a dependency?");
+        }
+        return value;
+    }
+}
@@ -0,0 +1,33 @@
+package flow;
+
+import lombok.Value;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * The step results of one flow instance, in the flow's declaration order.
+ */
+@Value
+public class FlowResult {
+
+    String flow;
+    int instance;
+    List<StepResult> steps;
+
+    public boolean isSuccess() {
+        return steps.stream().allMatch(step -> step.getStatus() == StepResult.Status.PASSED);
+    }
+
+    public List<StepResult> failures() {
+        return steps.stream().filter(step -> step.getStatus() == StepResult.Status.FAILED).collect(Collectors.toList());
+    }
+
+    @Override
+    public String toString() {
+        return flow + "#" + instance + " " + steps.stream()
+                .map(step -> step.getStep() + "=" + step.getStatus()
+                        + (step.getError() != null ? " (" + step.getError().getMessage() + ")" : ""))
+                .collect(Collectors.joining(", ", "[", "]"));
+    }
+}
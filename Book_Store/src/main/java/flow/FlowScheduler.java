@@ -0,0 +1,105 @@
+package flow;
+
+import config.ConfigReader;
+import load.FlowStats;
+import load.VirtualThreads;
+import logging.RequestLog;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+
+/**
+ * Runs flows as dependency graphs instead of priority-ordered chains: a step starts as soon as every step it depends
+ * on has passed, so independent branches of one flow and all steps of independent flows run concurrently. Each flow
+ * instance gets a fresh {@link FlowContext}. When a step fails, the steps depending on it are skipped and the rest of
+ * the flow carries on.
+ *
+ * Steps run on virtual threads where available, or on -Dflow.threads platform threads when that is set. No step
+ * blocks a thread waiting for another, so a small fixed pool cannot deadlock. Each step records its exchanges in a
+ * {@link RequestLog} scope below that of the thread that started the flow, so a failing test still finds them.
+ */
+public class FlowScheduler implements AutoCloseable {
+
+    private final ExecutorService executor;
+    private final FlowStats stats = new FlowStats();
+
+    public FlowScheduler(ExecutorService executor) {
+        this.executor = executor;
+    }
+
+    public static FlowScheduler fromSystemProperties() {
+        int threads = ConfigReader.snapshot().getInt("flow.threads", 0);
+        return new FlowScheduler(threads > 0 ? Executors.newFixedThreadPool(threads) : VirtualThreads.newExecutor());
+    }
+
+    /** Latency and errors per step name across every flow this scheduler has run. */
+    public FlowStats getStats() {
+        return stats;
+    }
+
+    public List<FlowResult> run(Flow flow, int instances) {
+        return runAll(Collections.nCopies(instances, flow));
+    }
+
+    /**
+     * Starts every flow at once and waits for all of them; results are in input order.
+     */
+    public List<FlowResult> runAll(List<Flow> flows) {
+        List<CompletableFuture<FlowResult>> results = new ArrayList<>();
+        for (int i = 0; i < flows.size(); i++) {
+            results.add(start(flows.get(i), i));
+        }
+        return results.stream().map(CompletableFuture::join).collect(Collectors.toList());
+    }
+
+    private CompletableFuture<FlowResult> start(Flow flow, int instance) {
+        FlowContext context = new FlowContext();
+        String scope = RequestLog.scope() + "/" + flow.getName() + "#" + instance;
+        Map<String, CompletableFuture<StepResult>> started = new HashMap<>();
+        List<CompletableFuture<StepResult>> inOrder = new ArrayList<>();
+        for (Step step : flow.getSteps()) {
+            List<CompletableFuture<StepResult>> dependencies = step.getDependsOn().stream().map(started::get).collect(Collectors.toList());
+            String stepScope = scope + "/" + step.getName();
+            CompletableFuture<StepResult> result = CompletableFuture.allOf(dependencies.toArray(new CompletableFuture[0]))
+                    .thenApplyAsync(ignored -> dependencies.stream().allMatch(dependency -> dependency.join().getStatus() == StepResult.Status.PASSED)
+                            ? execute(step, context, stepScope)
+                            : new StepResult(step.getName(), StepResult.Status.SKIPPED, 0, null, stepScope), executor);
+            started.put(step.getName(), result);
+            inOrder.add(result);
+        }
+        return CompletableFuture.allOf(inOrder.toArray(new CompletableFuture[0])).thenApply(ignored -> {
+            FlowResult flowResult = new FlowResult(flow.getName(), instance,
+                    inOrder.stream().map(CompletableFuture::join).collect(Collectors.toList()));
+            if (flowResult.isSuccess()) {
+                stats.flowCompleted();
+            }
+            return flowResult;
+        });
+    }
+
+    private StepResult execute(Step step, FlowContext context, String scope) {
+        long start = System.nanoTime();
+        try {
+            RequestLog.runInScope(scope, () -> step.getAction().accept(context));
+            long elapsed = System.nanoTime() - start;
+            stats.record(step.getName(), elapsed, true);
+            return new StepResult(step.getName(), StepResult.Status.PASSED, elapsed, null, scope);
+        } catch (RuntimeException | AssertionError e) {
+            long elapsed = System.nanoTime() - start;
+            stats.record(step.getName(), elapsed, false);
+            return new StepResult(step.getName(), StepResult.Status.FAILED, elapsed, e, scope);
+        }
+    }
+
+    @Override
+    public void close() {
+        executor.shutdown();
+    }
+}
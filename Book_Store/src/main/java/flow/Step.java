@@ -0,0 +1,18 @@
+package flow;
+
+import lombok.Value;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * One named action of a {@link Flow} and the steps whose results it needs. A step fails by throwing, typically
+ * an AssertionError from TestNG's {@code Assert}.
+ */
+@Value
+public class Step {
+
+    String name;
+    List<String> dependsOn;
+    Consumer<FlowContext> action;
+}
@@ -0,0 +1,20 @@
+package flow;
+
+import lombok.Value;
+
+/**
+ * What happened to one step of one flow instance. {@code error} is set for FAILED steps only; a SKIPPED step did
+ * not run because a step it depends on did not pass. {@code logScope} is the {@link logging.RequestLog} scope the
+ * step's exchanges were recorded under.
+ */
+@Value
+public class StepResult {
+
+    public enum Status { PASSED, FAILED, SKIPPED }
+
+    String step;
+    Status status;
+    long elapsedNanos;
+    Throwable error;
+    String logScope;
+}
@@ -0,0 +1,35 @@
+package load;
+
+import config.ConfigReader;
+import config.ConfigSnapshot;
+import lombok.Value;
+
+import java.time.Duration;
+
+@Value
+public class ArrivalRateConfig {
+
+    String baseUrl;
+    double ratePerSecond;
+    Duration duration;
+    OperationMix mix;
+    int seedBooks;
+    int maxInFlight;
+    ClientStack client;
+
+    /**
+     * -Dload.baseUrl, -Dload.rate (operations per second), -Dload.durationSeconds, -Dload.mix, -Dload.seedBooks
+     * -Dload.maxInFlight and -Dload.client
+     */
+    public static ArrivalRateConfig fromSystemProperties() {
+        ConfigSnapshot config = ConfigReader.snapshot();
+        return new ArrivalRateConfig(
+                config.getString("load.baseUrl", config.getBaseUrl()),
+                config.getLoadRate(),
+                Duration.ofSeconds(config.getLong("load.durationSeconds", 60L)),
+                OperationMix.parse(config.getString("load.mix", OperationMix.DEFAULT)),
+                config.getInt("load.seedBooks", 100),
+                config.getLoadMaxInFlight(),
+                ClientStack.fromSystemProperty());
+    }
+}
@@ -0,0 +1,217 @@
+package load;
+
+import api.AsyncBooksApi;
+import api.BookSweeper;
+import api.BulkBooks;
+import api.BulkResult;
+import auth.Identity;
+import auth.TokenProvider;
+import auth.UserPool;
+import base.BaseSetupApi;
+import base.ConnectionPool;
+import io.restassured.response.Response;
+import metrics.BaselineComparison;
+import metrics.EndpointLatencies;
+import metrics.LatencyBaseline;
+import models.Book;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import stub.BookStoreStub;
+
+import java.net.http.HttpResponse;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Open-model load generator: operations are started at a fixed arrival rate whether or not earlier ones have
+ * finished, each on its own (virtual) thread, with the operation drawn from a weighted {@link OperationMix}.
+ *
+ * Response time is measured from the moment an operation was <em>scheduled</em> to start, not from when it
+ * actually started, so time spent queued behind a stalled server or a saturated client (including waiting for one
+ * of the {@code maxInFlight} slots) is counted instead of silently omitted. Service time, measured from the actual
+ * start, is kept alongside; the gap between the two is the coordinated omission a closed-loop runner would hide.
+ *
+ * With {@link ClientStack#ASYNC} operations go through {@link AsyncBooksApi} instead: the scheduling thread only
+ * issues requests and a few client threads complete them, so the same rates can be compared across both stacks.
+ */
+public class ArrivalRateRunner {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ArrivalRateRunner.class);
+
+    private final ArrivalRateConfig config;
+    private final UserPool userPool;
+    private final FlowStats responseTimes = new FlowStats();
+    private final FlowStats serviceTimes = new FlowStats();
+    private volatile long scheduleStart;
+
+    public ArrivalRateRunner(ArrivalRateConfig config) {
+        this(config, UserPool.shared());
+    }
+
+    public ArrivalRateRunner(ArrivalRateConfig config, UserPool userPool) {
+        this.config = config;
+        this.userPool = userPool;
+    }
+
+    /** Latency from each operation's scheduled start, corrected for coordinated omission. */
+    public FlowStats getResponseTimes() {
+        return responseTimes;
+    }
+
+    /** Latency from each operation's actual start. */
+    public FlowStats getServiceTimes() {
+        return serviceTimes;
+    }
+
+    /** Seconds since the first operation was scheduled, leaving out seeding; 0 before then. */
+    public double elapsedSeconds() {
+        long start = scheduleStart;
+        return start == 0 ? 0 : (System.nanoTime() - start) / 1e9;
+    }
+
+    public void run() throws InterruptedException {
+        Identity identity = userPool.lease();
+        try {
+            OperationContext context = new OperationContext(identity, seedBooks(identity));
+            schedule(context);
+            LoadRunner.assertHealthy();
+        } finally {
+            userPool.release(identity);
+        }
+    }
+
+    private List<Object> seedBooks(Identity identity) {
+        String accessToken = TokenProvider.shared().bearerToken(identity.getEmail(), identity.getPassword());
+        List<BulkResult> seeded = new BulkBooks(accessToken).addAll(IntStream.range(0, config.getSeedBooks())
+                .mapToObj(i -> new Book("Seed Book " + i, "Seed Author " + i, 2000L + i % 25, "Seed summary " + i)));
+        List<Object> ids = seeded.stream().filter(BulkResult::isSuccess).map(BulkResult::getId).collect(Collectors.toList());
+        if (ids.isEmpty()) {
+            throw new IllegalStateException("Seeding books failed: " + seeded.get(0).getError());
+        }
+        return ids;
+    }
+
+    private void schedule(OperationContext context) throws InterruptedException {
+        double intervalNanos = TimeUnit.SECONDS.toNanos(1) / config.getRatePerSecond();
+        long operations = (long) (config.getDuration().getSeconds() * config.getRatePerSecond());
+        Semaphore inFlight = new Semaphore(config.getMaxInFlight());
+        if (config.getClient() == ClientStack.ASYNC) {
+            scheduleAsync(context, intervalNanos, operations, inFlight);
+            return;
+        }
+        ExecutorService executor = VirtualThreads.newExecutor();
+
+        long start = System.nanoTime();
+        scheduleStart = start;
+        for (long i = 0; i < operations; i++) {
+            // Derived from i rather than accumulated, so rounding never drifts the schedule
+            long intendedStart = start + (long) (i * intervalNanos);
+            LoadRunner.parkUntil(intendedStart);
+            if (!LoadRunner.healthy()) {
+                break;
+            }
+            inFlight.acquire();
+            Operation operation = config.getMix().pick();
+            executor.execute(() -> {
+                long actualStart = System.nanoTime();
+                boolean success = false;
+                try {
+                    Response response = operation.call(context);
+                    success = response.getStatusCode() == 200;
+                    if (response.getStatusCode() == 401) {
+                        context.invalidateToken();
+                    }
+                } catch (RuntimeException e) {
+                    LOG.debug("{} failed", operation.stepName(), e);
+                } finally {
+                    long end = System.nanoTime();
+                    responseTimes.record(operation.stepName(), end - intendedStart, success);
+                    serviceTimes.record(operation.stepName(), end - actualStart, success);
+                    inFlight.release();
+                }
+            });
+        }
+        executor.shutdown();
+        if (!executor.awaitTermination(5, TimeUnit.MINUTES)) {
+            executor.shutdownNow();
+        }
+    }
+
+    private void scheduleAsync(OperationContext context, double intervalNanos, long operations, Semaphore inFlight)
+            throws InterruptedException {
+        AsyncBooksApi api = AsyncBooksApi.fromSystemProperties(config.getBaseUrl());
+        try {
+            long start = System.nanoTime();
+            scheduleStart = start;
+            for (long i = 0; i < operations; i++) {
+                long intendedStart = start + (long) (i * intervalNanos);
+                LoadRunner.parkUntil(intendedStart);
+                if (!LoadRunner.healthy()) {
+                    break;
+                }
+                inFlight.acquire();
+                Operation operation = config.getMix().pick();
+                long actualStart = System.nanoTime();
+                CompletableFuture<HttpResponse<byte[]>> call;
+                try {
+                    call = operation.callAsync(context, api);
+                } catch (RuntimeException e) {
+                    call = CompletableFuture.failedFuture(e);
+                }
+                call.whenComplete((response, error) -> {
+                    long end = System.nanoTime();
+                    boolean success = response != null && response.statusCode() == 200;
+                    if (response != null && response.statusCode() == 401) {
+                        context.invalidateToken();
+                    } else if (error != null) {
+                        LOG.debug("{} failed", operation.stepName(), error);
+                    }
+                    responseTimes.record(operation.stepName(), end - intendedStart, success);
+                    serviceTimes.record(operation.stepName(), end - actualStart, success);
+                    inFlight.release();
+                });
+            }
+            // Every permit back means every operation has completed
+            if (!inFlight.tryAcquire(config.getMaxInFlight(), 5, TimeUnit.MINUTES)) {
+                LOG.warn("Gave up waiting for {} operations still in flight", config.getMaxInFlight() - inFlight.availablePermits());
+            }
+        } finally {
+            api.close();
+        }
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        ArrivalRateConfig config = ArrivalRateConfig.fromSystemProperties();
+        BookStoreStub stub = LoadRunner.prepareClient(config.getBaseUrl());
+        BaseSetupApi.installSweeper();
+
+        LOG.info("Starting arrival-rate run: {} ops/s for {}, mix {}, max in flight {}, client {}, virtual threads: {}",
+                config.getRatePerSecond(), config.getDuration(), config.getMix(), config.getMaxInFlight(), config.getClient(),
+                VirtualThreads.isSupported());
+        ArrivalRateRunner runner = new ArrivalRateRunner(config);
+        runner.run();
+        double elapsedSeconds = runner.elapsedSeconds();
+        LOG.info("Arrival-rate run finished in {} s\nResponse time (from scheduled start):\n{}\nService time (from actual start):\n{}",
+                String.format("%.1f", elapsedSeconds), runner.getResponseTimes().summary(elapsedSeconds),
+                runner.getServiceTimes().summary(elapsedSeconds));
+        LOG.info("Endpoint latencies:\n{}", EndpointLatencies.export(Paths.get("target", "performance", "arrival-rate-endpoint-latencies.json")));
+        // A fixed arrival rate offers the same load every run, so throughput is judged along with p99
+        BaselineComparison comparison = BaseSetupApi.compareWithBaseline(EndpointLatencies.summary(), LatencyBaseline.fromSystemProperties());
+        LoadRunner.logCacheStats();
+        BookSweeper.shared().sweep();
+        LoadRunner.stopMonitoring();
+        ConnectionPool.shutdown();
+        if (stub != null) {
+            stub.close();
+        }
+        if (comparison != null) {
+            BaseSetupApi.assertWithinBaseline(comparison);
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package load;
+
+import config.ConfigReader;
+
+/**
+ * Which HTTP client an {@link ArrivalRateRunner} drives the API with, chosen per run with -Dload.client.
+ */
+public enum ClientStack {
+
+    /** Blocking {@code BooksApi} calls through RestAssured, one (virtual) thread per operation in flight. */
+    RESTASSURED,
+    /** Non-blocking {@code AsyncBooksApi} calls; a handful of client threads serve every operation in flight. */
+    ASYNC;
+
+    public static ClientStack fromSystemProperty() {
+        return valueOf(ConfigReader.snapshot().getString("load.client", RESTASSURED.name()).trim().toUpperCase());
+    }
+}
@@ -0,0 +1,33 @@
+package load;
+
+import config.ConfigReader;
+import config.ConfigSnapshot;
+import lombok.Value;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+@Value
+public class ContentionConfig {
+
+    String baseUrl;
+    int books;
+    List<Integer> threadSteps;
+    Duration stepDuration;
+
+    /**
+     * -Dload.baseUrl, -Dcontention.books (hot book count), -Dcontention.threads (comma-separated writer counts,
+     * one step each) and -Dcontention.stepSeconds
+     */
+    public static ContentionConfig fromSystemProperties() {
+        ConfigSnapshot config = ConfigReader.snapshot();
+        return new ContentionConfig(
+                config.getString("load.baseUrl", config.getBaseUrl()),
+                config.getInt("contention.books", 4),
+                Arrays.stream(config.getString("contention.threads", "1,4,16,64").split(","))
+                        .map(String::trim).map(Integer::valueOf).collect(Collectors.toList()),
+                Duration.ofSeconds(config.getLong("contention.stepSeconds", 10L)));
+    }
+}
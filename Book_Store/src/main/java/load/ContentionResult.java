@@ -0,0 +1,25 @@
+package load;
+
+import lombok.Value;
+
+/**
+ * One contention step: {@code threads} writers editing {@code books} books for the step's duration.
+ */
+@Value
+public class ContentionResult {
+
+    int threads;
+    int books;
+    long writes;
+    long errors;
+    double throughputPerSecond;
+    double p50Ms;
+    double p99Ms;
+    int lostUpdates;
+    int tornWrites;
+    int unknownStates;
+
+    public boolean isConsistent() {
+        return lostUpdates == 0 && tornWrites == 0 && unknownStates == 0;
+    }
+}
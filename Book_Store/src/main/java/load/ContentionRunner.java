@@ -0,0 +1,171 @@
+package load;
+
+import api.BookSweeper;
+import api.BooksApi;
+import api.ParsedResponse;
+import auth.Identity;
+import auth.TokenProvider;
+import auth.UserPool;
+import base.BaseSetupApi;
+import base.ConnectionPool;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import io.restassured.response.Response;
+import models.Book;
+import org.HdrHistogram.Histogram;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import stub.BookStoreStub;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Stress mode for the write path: for each configured writer count, that many threads call
+ * {@link BooksApi#editTheBook(Object, Book, String)} on the same few books as fast as they can, then every book is
+ * read back and judged against the writes made to it (see {@link WriteHistory}). Throughput and latency per step
+ * show whether edits scale with writers or serialise on the server; the verdicts show whether any were lost.
+ */
+public class ContentionRunner {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ContentionRunner.class);
+    private static final ObjectMapper MAPPER = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+    private static final String EDIT = "editTheBook";
+
+    private final ContentionConfig config;
+    private final UserPool userPool;
+
+    public ContentionRunner(ContentionConfig config) {
+        this(config, UserPool.shared());
+    }
+
+    public ContentionRunner(ContentionConfig config, UserPool userPool) {
+        this.config = config;
+        this.userPool = userPool;
+    }
+
+    public List<ContentionResult> run() throws InterruptedException {
+        Identity identity = userPool.lease();
+        try {
+            List<ContentionResult> results = new ArrayList<>();
+            for (int threads : config.getThreadSteps()) {
+                ContentionResult result = runStep(identity, threads);
+                LOG.info("{} writers on {} books: {} edits/s, p50 {} ms, p99 {} ms, {} errors, {} lost updates, {} torn writes",
+                        threads, result.getBooks(), String.format("%.1f", result.getThroughputPerSecond()), result.getP50Ms(),
+                        result.getP99Ms(), result.getErrors(), result.getLostUpdates(), result.getTornWrites());
+                results.add(result);
+            }
+            return results;
+        } finally {
+            userPool.release(identity);
+        }
+    }
+
+    private ContentionResult runStep(Identity identity, int threads) throws InterruptedException {
+        Map<Object, WriteHistory> histories = new HashMap<>();
+        for (int i = 0; i < config.getBooks(); i++) {
+            Book book = new Book("Contended seed " + i, "Contention Author", 2000L, "Contended seed " + i);
+            Object id = ParsedResponse.of(BooksApi.addNewBook(book, token(identity))).get("id");
+            if (id == null) {
+                throw new IllegalStateException("Seeding contended book " + i + " failed");
+            }
+            histories.put(id, new WriteHistory("Contended " + id));
+        }
+        Object[] ids = histories.keySet().toArray();
+        FlowStats stats = new FlowStats();
+
+        long start = System.nanoTime();
+        long deadline = start + config.getStepDuration().toNanos();
+        ExecutorService executor = VirtualThreads.newExecutor();
+        for (int writer = 0; writer < threads; writer++) {
+            executor.execute(() -> {
+                while (System.nanoTime() < deadline && LoadRunner.healthy()) {
+                    Object id = ids[ThreadLocalRandom.current().nextInt(ids.length)];
+                    edit(identity, id, histories.get(id), stats);
+                }
+            });
+        }
+        executor.shutdown();
+        if (!executor.awaitTermination(config.getStepDuration().plusMinutes(1).toMillis(), TimeUnit.MILLISECONDS)) {
+            executor.shutdownNow();
+        }
+        double elapsedSeconds = (System.nanoTime() - start) / 1e9;
+
+        Map<WriteHistory.Verdict, Integer> verdicts = new HashMap<>();
+        for (Object id : ids) {
+            ParsedResponse current = ParsedResponse.of(BooksApi.getBookDetailsById(id, token(identity)));
+            WriteHistory.Verdict verdict = histories.get(id).judge(String.valueOf(current.get("name")), String.valueOf(current.get("book_summary")));
+            if (verdict != WriteHistory.Verdict.CONSISTENT) {
+                LOG.warn("Book {} ended up as '{}': {}", id, current.get("name"), verdict);
+            }
+            verdicts.merge(verdict, 1, Integer::sum);
+            BooksApi.deleteTheBookById(String.valueOf(id), token(identity));
+        }
+
+        Histogram latencies = stats.getLatencies().get(EDIT);
+        long writes = latencies == null ? 0 : latencies.getTotalCount();
+        return new ContentionResult(threads, ids.length, writes, stats.getErrors(EDIT), writes / elapsedSeconds,
+                latencies == null ? 0 : latencies.getValueAtPercentile(50) / 1000.0,
+                latencies == null ? 0 : latencies.getValueAtPercentile(99) / 1000.0,
+                verdicts.getOrDefault(WriteHistory.Verdict.LOST_UPDATE, 0),
+                verdicts.getOrDefault(WriteHistory.Verdict.TORN_WRITE, 0),
+                verdicts.getOrDefault(WriteHistory.Verdict.UNKNOWN, 0));
+    }
+
+    private void edit(Identity identity, Object id, WriteHistory history, FlowStats stats) {
+        // The marker goes into both name and summary, so a mix of two writes is detectable
+        String marker = history.nextMarker();
+        Book book = new Book(marker, "Contention Author", 2000L, marker);
+        long start = System.nanoTime();
+        boolean acknowledged = false;
+        try {
+            Response response = BooksApi.editTheBook(id, book, token(identity));
+            acknowledged = response.getStatusCode() == 200;
+            if (response.getStatusCode() == 401) {
+                TokenProvider.shared().invalidate(identity.getEmail());
+            }
+        } catch (RuntimeException e) {
+            LOG.debug("Edit of book {} failed", id, e);
+        } finally {
+            long end = System.nanoTime();
+            stats.record(EDIT, end - start, acknowledged);
+            history.record(marker, start, end, acknowledged);
+        }
+    }
+
+    private static String token(Identity identity) {
+        return TokenProvider.shared().bearerToken(identity.getEmail(), identity.getPassword());
+    }
+
+    public static void main(String[] args) throws InterruptedException, IOException {
+        ContentionConfig config = ContentionConfig.fromSystemProperties();
+        BookStoreStub stub = LoadRunner.prepareClient(config.getBaseUrl());
+        BaseSetupApi.installSweeper();
+
+        LOG.info("Starting contention run: {} books, writers {}, {} per step", config.getBooks(), config.getThreadSteps(), config.getStepDuration());
+        List<ContentionResult> results = new ContentionRunner(config).run();
+        Path report = Paths.get("target", "performance", "contention.json");
+        Files.createDirectories(report.getParent());
+        Files.writeString(report, MAPPER.writeValueAsString(results));
+        LOG.info("Contention results written to {}", report);
+
+        BookSweeper.shared().sweep();
+        LoadRunner.stopMonitoring();
+        ConnectionPool.shutdown();
+        if (stub != null) {
+            stub.close();
+        }
+        if (results.stream().anyMatch(result -> !result.isConsistent())) {
+            throw new IllegalStateException("Lost or torn updates detected: " + results);
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package load;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency (microseconds) and error counts per flow step, safe to record into from any number of threads.
+ */
+public class FlowStats {
+
+    private static final long MAX_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(5);
+
+    private final Map<String, Histogram> latencies = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> errors = new ConcurrentHashMap<>();
+    private final LongAdder completedFlows = new LongAdder();
+
+    public void record(String step, long elapsedNanos, boolean success) {
+        long micros = Math.min(TimeUnit.NANOSECONDS.toMicros(elapsedNanos), MAX_TRACKABLE_MICROS);
+        latencies.computeIfAbsent(step, key -> new ConcurrentHistogram(MAX_TRACKABLE_MICROS, 3)).recordValue(micros);
+        if (!success) {
+            errors.computeIfAbsent(step, key -> new LongAdder()).increment();
+        }
+    }
+
+    /** Folds in latencies and errors recorded elsewhere, e.g. by a worker JVM, for one step. */
+    public void add(String step, Histogram histogram, long errorCount) {
+        latencies.computeIfAbsent(step, key -> new ConcurrentHistogram(MAX_TRACKABLE_MICROS, 3)).add(histogram);
+        if (errorCount > 0) {
+            errors.computeIfAbsent(step, key -> new LongAdder()).add(errorCount);
+        }
+    }
+
+    public void flowCompleted() {
+        completedFlows.increment();
+    }
+
+    public long getCompletedFlows() {
+        return completedFlows.sum();
+    }
+
+    public Map<String, Histogram> getLatencies() {
+        return latencies;
+    }
+
+    public long getErrors(String step) {
+        LongAdder adder = errors.get(step);
+        return adder == null ? 0 : adder.sum();
+    }
+
+    public String summary(double elapsedSeconds) {
+        StringBuilder summary = new StringBuilder(String.format("%-16s %8s %7s %9s %9s %9s %9s %9s%n",
+                "step", "count", "errors", "req/s", "p50(ms)", "p90(ms)", "p99(ms)", "max(ms)"));
+        latencies.forEach((step, histogram) -> summary.append(String.format("%-16s %8d %7d %9.1f %9.2f %9.2f %9.2f %9.2f%n",
+                step,
+                histogram.getTotalCount(),
+                getErrors(step),
+                histogram.getTotalCount() / elapsedSeconds,
+                histogram.getValueAtPercentile(50) / 1000.0,
+                histogram.getValueAtPercentile(90) / 1000.0,
+                histogram.getValueAtPercentile(99) / 1000.0,
+                histogram.getMaxValue() / 1000.0)));
+        if (getCompletedFlows() > 0) {
+            summary.append(String.format("completed flows: %d (%.1f flows/s)%n", getCompletedFlows(), getCompletedFlows() / elapsedSeconds));
+        }
+        return summary.toString();
+    }
+}
@@ -0,0 +1,28 @@
+package load;
+
+import config.ConfigReader;
+import config.ConfigSnapshot;
+import lombok.Value;
+
+import java.time.Duration;
+
+@Value
+public class LoadConfig {
+
+    String baseUrl;
+    int users;
+    Duration rampUp;
+    Duration duration;
+
+    /**
+     * -Dload.baseUrl, -Dload.users, -Dload.rampUpSeconds and -Dload.durationSeconds
+     */
+    public static LoadConfig fromSystemProperties() {
+        ConfigSnapshot config = ConfigReader.snapshot();
+        return new LoadConfig(
+                config.getString("load.baseUrl", config.getBaseUrl()),
+                config.getLoadUsers(),
+                Duration.ofSeconds(config.getLong("load.rampUpSeconds", 10L)),
+                Duration.ofSeconds(config.getLong("load.durationSeconds", 60L)));
+    }
+}
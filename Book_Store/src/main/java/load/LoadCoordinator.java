@@ -0,0 +1,325 @@
+package load;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import config.ConfigReader;
+import config.ConfigSnapshot;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import stub.BookStoreStub;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Splits one arrival-rate run across several {@link LoadWorker} JVMs, on this machine or others, so the load is
+ * not capped by what a single client JVM can generate. Each worker gets an equal share of the rate, in-flight
+ * limit and seed books. While the run goes on, workers stream cumulative latency histograms back over a plain
+ * socket. At the end the coordinator adds their final histograms together, which gives exactly the percentiles
+ * one JVM would have recorded for the whole run.
+ */
+public class LoadCoordinator implements AutoCloseable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(LoadCoordinator.class);
+    private static final long MAX_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(5);
+    private static final ObjectMapper MAPPER = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+    /** Client-side settings a local worker inherits from the coordinator's command line. */
+    private static final List<String> FORWARDED_PREFIXES = List.of("http.", "log.", "health.", "warmup.", "auth.", "users.", "distributed.");
+
+    private final ArrivalRateConfig config;
+    private final int workers;
+    private final Duration connectTimeout;
+    private final ServerSocket server;
+    private final List<Process> localWorkers = new ArrayList<>();
+    private final Map<Integer, WorkerReport> latestReports = new ConcurrentHashMap<>();
+    private final FlowStats responseTimes = new FlowStats();
+    private final FlowStats serviceTimes = new FlowStats();
+    private final Map<String, Histogram> endpoints = new TreeMap<>();
+    private double elapsedSeconds;
+
+    /** Listens on loopback only, for workers on this machine. */
+    public LoadCoordinator(ArrivalRateConfig config, int workers, int port, Duration connectTimeout) throws IOException {
+        this(config, workers, InetAddress.getLoopbackAddress().getHostAddress(), port, connectTimeout);
+    }
+
+    /**
+     * @param bindAddress the interface workers connect to; the protocol has no authentication, so anything reachable
+     *                    there can join the run as a worker
+     */
+    public LoadCoordinator(ArrivalRateConfig config, int workers, String bindAddress, int port, Duration connectTimeout) throws IOException {
+        if (workers < 1) {
+            throw new IllegalArgumentException("At least one worker is needed, got " + workers);
+        }
+        this.config = config;
+        this.workers = workers;
+        this.connectTimeout = connectTimeout;
+        this.server = new ServerSocket();
+        server.bind(new InetSocketAddress(InetAddress.getByName(bindAddress), port));
+    }
+
+    /**
+     * -Ddistributed.workers (2), -Ddistributed.bindAddress (127.0.0.1), -Ddistributed.port (7070, 0 for any free
+     * port) and -Ddistributed.connectTimeoutSeconds (60) for workers to connect
+     */
+    public static LoadCoordinator fromSystemProperties(ArrivalRateConfig config) throws IOException {
+        ConfigSnapshot snapshot = ConfigReader.snapshot();
+        return new LoadCoordinator(config,
+                snapshot.getInt("distributed.workers", 2),
+                snapshot.getString("distributed.bindAddress", "127.0.0.1"),
+                snapshot.getInt("distributed.port", 7070),
+                Duration.ofSeconds(snapshot.getLong("distributed.connectTimeoutSeconds", 60L)));
+    }
+
+    public int port() {
+        return server.getLocalPort();
+    }
+
+    /** Latency from each operation's scheduled start, merged across workers. */
+    public FlowStats getResponseTimes() {
+        return responseTimes;
+    }
+
+    /** Latency from each operation's actual start, merged across workers. */
+    public FlowStats getServiceTimes() {
+        return serviceTimes;
+    }
+
+    /** Per-endpoint latencies recorded by the workers' RestAssured clients, merged. */
+    public Map<String, Histogram> getEndpoints() {
+        return endpoints;
+    }
+
+    /** The latest cumulative report from each worker; useful to watch progress from another thread. */
+    public Map<Integer, WorkerReport> getLatestReports() {
+        return latestReports;
+    }
+
+    public double getElapsedSeconds() {
+        return elapsedSeconds;
+    }
+
+    /**
+     * Starts {@code count} workers as child JVMs with this JVM's classpath, connected to the bound address, or over
+     * loopback when bound to every interface.
+     */
+    public void launchLocalWorkers(int count) throws IOException {
+        List<String> command = new ArrayList<>();
+        command.add(Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+        System.getProperties().stringPropertyNames().stream()
+                .filter(name -> FORWARDED_PREFIXES.stream().anyMatch(name::startsWith))
+                .sorted()
+                .forEach(name -> command.add("-D" + name + "=" + System.getProperty(name)));
+        command.addAll(List.of("-cp", System.getProperty("java.class.path"), LoadWorker.class.getName(), connectAddress(), String.valueOf(port())));
+        for (int i = 0; i < count; i++) {
+            localWorkers.add(new ProcessBuilder(command).inheritIO().start());
+        }
+    }
+
+    private String connectAddress() {
+        InetAddress bound = server.getInetAddress();
+        return bound.isAnyLocalAddress() ? InetAddress.getLoopbackAddress().getHostAddress() : bound.getHostAddress();
+    }
+
+    /**
+     * Waits for every worker to connect, hands out the shares, and returns once all final reports are in and
+     * merged. Throws if a worker failed or the connection to it broke.
+     */
+    public void run() throws IOException, InterruptedException {
+        List<Socket> sockets = acceptWorkers();
+        ExecutorService readers = Executors.newFixedThreadPool(workers);
+        try {
+            List<Future<WorkerReport>> finalReports = new ArrayList<>();
+            for (int i = 0; i < workers; i++) {
+                int worker = i;
+                Socket socket = sockets.get(i);
+                new WorkerAssignment(worker, workers, WorkerAssignment.share(config, workers))
+                        .writeTo(new DataOutputStream(new BufferedOutputStream(socket.getOutputStream())));
+                finalReports.add(readers.submit(() -> readReports(worker, socket)));
+            }
+            List<String> failures = new ArrayList<>();
+            for (Future<WorkerReport> future : finalReports) {
+                try {
+                    WorkerReport report = future.get();
+                    merge(report);
+                    if (report.getError() != null) {
+                        failures.add("worker " + (report.getWorker() + 1) + ": " + report.getError());
+                    }
+                } catch (ExecutionException e) {
+                    failures.add(e.getCause().toString());
+                }
+            }
+            if (!failures.isEmpty()) {
+                throw new IllegalStateException("Distributed run failed: " + failures);
+            }
+        } finally {
+            readers.shutdownNow();
+            for (Socket socket : sockets) {
+                socket.close();
+            }
+        }
+    }
+
+    private List<Socket> acceptWorkers() throws IOException {
+        List<Socket> sockets = new ArrayList<>();
+        long deadline = System.nanoTime() + connectTimeout.toNanos();
+        LOG.info("Waiting for {} workers on {}:{}", workers, server.getInetAddress().getHostAddress(), port());
+        while (sockets.size() < workers) {
+            long remainingMillis = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+            try {
+                if (remainingMillis <= 0) {
+                    throw new SocketTimeoutException();
+                }
+                server.setSoTimeout((int) remainingMillis);
+                Socket socket = server.accept();
+                socket.setTcpNoDelay(true);
+                socket.setSoTimeout((int) remainingMillis);
+                String hello = new DataInputStream(socket.getInputStream()).readUTF();
+                if (!LoadWorker.HELLO.equals(hello)) {
+                    LOG.warn("Ignoring connection from {} that is not a load worker", socket.getRemoteSocketAddress());
+                    socket.close();
+                    continue;
+                }
+                LOG.info("Worker {} connected from {}", sockets.size() + 1, socket.getRemoteSocketAddress());
+                sockets.add(socket);
+            } catch (SocketTimeoutException e) {
+                for (Socket socket : sockets) {
+                    socket.close();
+                }
+                throw new IllegalStateException("Only " + sockets.size() + " of " + workers + " workers connected within " + connectTimeout);
+            }
+        }
+        return sockets;
+    }
+
+    private WorkerReport readReports(int worker, Socket socket) throws IOException {
+        // Workers report every second or so once running, but seeding and warm-up come first
+        socket.setSoTimeout((int) config.getDuration().plusMinutes(5).toMillis());
+        DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+        while (true) {
+            WorkerReport report = WorkerReport.readFrom(in);
+            latestReports.put(worker, report);
+            LOG.debug("Worker {}: {} operations after {} s", worker + 1, operations(report.getResponseTimes()),
+                    String.format("%.1f", report.getElapsedSeconds()));
+            if (report.isDone()) {
+                return report;
+            }
+        }
+    }
+
+    private static long operations(FlowStats stats) {
+        return stats.getLatencies().values().stream().mapToLong(Histogram::getTotalCount).sum();
+    }
+
+    private synchronized void merge(WorkerReport report) {
+        report.getResponseTimes().getLatencies().forEach((step, histogram) ->
+                responseTimes.add(step, histogram, report.getResponseTimes().getErrors(step)));
+        report.getServiceTimes().getLatencies().forEach((step, histogram) ->
+                serviceTimes.add(step, histogram, report.getServiceTimes().getErrors(step)));
+        report.getEndpoints().forEach((endpoint, histogram) ->
+                endpoints.computeIfAbsent(endpoint, key -> new ConcurrentHistogram(MAX_TRACKABLE_MICROS, 3)).add(histogram));
+        elapsedSeconds = Math.max(elapsedSeconds, report.getElapsedSeconds());
+    }
+
+    /**
+     * The merged run as JSON: per step and per endpoint count, errors, throughput and p50/p90/p99/p99.9/max in
+     * milliseconds.
+     */
+    public String export(Path file) throws IOException {
+        Map<String, Object> steps = new TreeMap<>();
+        responseTimes.getLatencies().forEach((step, histogram) -> steps.put(step, stats(histogram, responseTimes.getErrors(step))));
+        Map<String, Object> endpointStats = new TreeMap<>();
+        endpoints.forEach((endpoint, histogram) -> endpointStats.put(endpoint, stats(histogram, 0)));
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("workers", workers);
+        summary.put("elapsedSeconds", elapsedSeconds);
+        summary.put("steps", steps);
+        summary.put("endpoints", endpointStats);
+        String json = MAPPER.writeValueAsString(summary);
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        Files.writeString(file, json);
+        return json;
+    }
+
+    private Map<String, Object> stats(Histogram histogram, long errors) {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("count", histogram.getTotalCount());
+        stats.put("errors", errors);
+        stats.put("throughputPerSecond", elapsedSeconds > 0 ? histogram.getTotalCount() / elapsedSeconds : 0);
+        stats.put("p50Ms", histogram.getValueAtPercentile(50) / 1000.0);
+        stats.put("p90Ms", histogram.getValueAtPercentile(90) / 1000.0);
+        stats.put("p99Ms", histogram.getValueAtPercentile(99) / 1000.0);
+        stats.put("p999Ms", histogram.getValueAtPercentile(99.9) / 1000.0);
+        stats.put("maxMs", histogram.getMaxValue() / 1000.0);
+        return stats;
+    }
+
+    /** Stops the server socket and any local workers still running. */
+    @Override
+    public void close() throws IOException {
+        server.close();
+        for (Process process : localWorkers) {
+            try {
+                if (!process.waitFor(30, TimeUnit.SECONDS)) {
+                    process.destroyForcibly();
+                }
+            } catch (InterruptedException e) {
+                process.destroyForcibly();
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * -Ddistributed.localWorkers (defaults to -Ddistributed.workers) starts that many workers on this machine; start
+     * the rest elsewhere with {@code LoadWorker <this host> <port>}. The rest of the run is configured like
+     * {@link ArrivalRateRunner}.
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        ArrivalRateConfig config = ArrivalRateConfig.fromSystemProperties();
+        BookStoreStub stub = ConfigReader.snapshot().getBoolean("stub.enabled", false) ? BookStoreStub.fromSystemProperties().start() : null;
+        if (stub != null) {
+            config = new ArrivalRateConfig(stub.baseUrl(), config.getRatePerSecond(), config.getDuration(), config.getMix(),
+                    config.getSeedBooks(), config.getMaxInFlight(), config.getClient());
+        }
+        try (LoadCoordinator coordinator = fromSystemProperties(config)) {
+            coordinator.launchLocalWorkers(ConfigReader.snapshot().getInt("distributed.localWorkers", coordinator.workers));
+            LOG.info("Starting distributed run: {} ops/s for {} across {} workers, mix {}",
+                    config.getRatePerSecond(), config.getDuration(), coordinator.workers, config.getMix());
+            coordinator.run();
+            LOG.info("Distributed run finished in {} s\nResponse time (from scheduled start):\n{}\nService time (from actual start):\n{}",
+                    String.format("%.1f", coordinator.getElapsedSeconds()),
+                    coordinator.getResponseTimes().summary(coordinator.getElapsedSeconds()),
+                    coordinator.getServiceTimes().summary(coordinator.getElapsedSeconds()));
+            LOG.info("Merged latencies:\n{}", coordinator.export(Paths.get("target", "performance", "distributed-latencies.json")));
+        } finally {
+            if (stub != null) {
+                stub.close();
+            }
+        }
+    }
+}
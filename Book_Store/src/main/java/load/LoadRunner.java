@@ -0,0 +1,141 @@
+package load;
+
+import api.BookCache;
+import auth.UserPool;
+import base.BaseSetupApi;
+import base.ConnectionPool;
+import base.ServiceHealth;
+import config.ConfigReader;
+import io.restassured.RestAssured;
+import io.restassured.builder.RequestSpecBuilder;
+import io.restassured.http.ContentType;
+import logging.LogMode;
+import logging.RequestLog;
+import metrics.EndpointLatencies;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import stub.BookStoreStub;
+
+import java.nio.file.Paths;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Closed-loop load generator: ramps up {@code users} virtual users evenly over {@code rampUp}, and each one
+ * signs in once and repeats its {@link UserFlow} back to back until {@code duration} has elapsed since the start
+ * of the run.
+ */
+public class LoadRunner {
+
+    private static final Logger LOG = LoggerFactory.getLogger(LoadRunner.class);
+
+    private final LoadConfig config;
+    private final FlowStats stats = new FlowStats();
+
+    public LoadRunner(LoadConfig config) {
+        this.config = config;
+    }
+
+    public FlowStats run() throws InterruptedException {
+        long start = System.nanoTime();
+        long deadline = start + config.getDuration().toNanos();
+        long rampStep = config.getUsers() > 1 ? config.getRampUp().toNanos() / config.getUsers() : 0;
+
+        ExecutorService executor = VirtualThreads.newExecutor();
+        for (int user = 0; user < config.getUsers(); user++) {
+            long startAt = start + user * rampStep;
+            executor.submit(() -> {
+                parkUntil(startAt);
+                UserFlow flow = new UserFlow(stats);
+                try {
+                    while (System.nanoTime() < deadline && healthy()) {
+                        flow.run();
+                    }
+                } finally {
+                    flow.release();
+                }
+            });
+        }
+        executor.shutdown();
+        if (!executor.awaitTermination(config.getDuration().plusMinutes(1).toMillis(), TimeUnit.MILLISECONDS)) {
+            executor.shutdownNow();
+        }
+        assertHealthy();
+        return stats;
+    }
+
+    /** False once the monitored service has been marked unhealthy, so runs stop early instead of hammering it. */
+    static boolean healthy() {
+        ServiceHealth health = ServiceHealth.monitored();
+        return health == null || health.isHealthy();
+    }
+
+    static void assertHealthy() {
+        ServiceHealth health = ServiceHealth.monitored();
+        if (health != null) {
+            health.assertHealthy();
+        }
+    }
+
+    /**
+     * Points RestAssured at {@code baseUrl}, or at an embedded stub when -Dstub.enabled is set (returned so the
+     * caller can close it), with the shared connection pool, latency recording and request log installed, once the
+     * service is ready and warmed up.
+     */
+    public static BookStoreStub prepareClient(String baseUrl) {
+        BookStoreStub stub = ConfigReader.snapshot().getBoolean("stub.enabled", false) ? BookStoreStub.fromSystemProperties().start() : null;
+        RestAssured.baseURI = stub != null ? stub.baseUrl() : baseUrl;
+        RestAssured.config = ConnectionPool.restAssuredConfig();
+        RestAssured.requestSpecification = new RequestSpecBuilder()
+                .setContentType(ContentType.JSON)
+                .build();
+        BaseSetupApi.installLatencyFilter();
+        RequestLog.install(LogMode.fromSystemProperty());
+        BookCache.installFromConfig();
+        BaseSetupApi.awaitService();
+        return stub;
+    }
+
+    public static void logCacheStats() {
+        BookCache cache = BookCache.active();
+        if (cache != null) {
+            LOG.info("Book cache: {}", cache.getStats().summary());
+        }
+    }
+
+    public static void stopMonitoring() {
+        ServiceHealth health = ServiceHealth.monitored();
+        if (health != null) {
+            health.stopMonitoring();
+        }
+    }
+
+    public static void parkUntil(long nanoTime) {
+        long remaining;
+        while ((remaining = nanoTime - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(remaining);
+        }
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        LoadConfig config = LoadConfig.fromSystemProperties();
+        BookStoreStub stub = prepareClient(config.getBaseUrl());
+
+        // Accounts are signed up before the clock starts so the ramp measures the flow, not registration
+        UserPool.shared().provision(config.getUsers());
+        LOG.info("Starting load run: {} users, ramp-up {}, duration {}, virtual threads: {}",
+                config.getUsers(), config.getRampUp(), config.getDuration(), VirtualThreads.isSupported());
+        long start = System.nanoTime();
+        FlowStats stats = new LoadRunner(config).run();
+        double elapsedSeconds = (System.nanoTime() - start) / 1e9;
+        LOG.info("Load run finished in {} s\n{}", String.format("%.1f", elapsedSeconds), stats.summary(elapsedSeconds));
+        LOG.info("Endpoint latencies:\n{}", EndpointLatencies.export(Paths.get("target", "performance", "load-endpoint-latencies.json")));
+        logCacheStats();
+        stopMonitoring();
+        ConnectionPool.shutdown();
+        if (stub != null) {
+            stub.close();
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package load;
+
+import api.BookSweeper;
+import base.BaseSetupApi;
+import base.ConnectionPool;
+import config.ConfigReader;
+import metrics.EndpointLatencies;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import stub.BookStoreStub;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.Socket;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One JVM's share of a distributed arrival-rate run. It connects to a {@link LoadCoordinator} and runs the
+ * {@link WorkerAssignment} it is given with an {@link ArrivalRateRunner}. Every -Ddistributed.reportMillis (1000)
+ * it sends a cumulative {@link WorkerReport} back, and a final one when its share is done.
+ *
+ * java -cp ... load.LoadWorker &lt;coordinator host&gt; &lt;port&gt;
+ */
+public class LoadWorker {
+
+    private static final Logger LOG = LoggerFactory.getLogger(LoadWorker.class);
+    static final String HELLO = "bookstore-load-worker/1";
+
+    private final String host;
+    private final int port;
+    private final long reportMillis;
+
+    public LoadWorker(String host, int port, long reportMillis) {
+        this.host = host;
+        this.port = port;
+        this.reportMillis = reportMillis;
+    }
+
+    public void run() throws IOException, InterruptedException {
+        try (Socket socket = new Socket(host, port)) {
+            socket.setTcpNoDelay(true);
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+            DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            out.writeUTF(HELLO);
+            out.flush();
+            WorkerAssignment assignment = WorkerAssignment.readFrom(in);
+            ArrivalRateConfig config = assignment.getConfig();
+            LOG.info("Worker {} of {}: {} ops/s for {} against {}", assignment.getWorker() + 1, assignment.getWorkers(),
+                    config.getRatePerSecond(), config.getDuration(), config.getBaseUrl());
+
+            BookStoreStub stub = LoadRunner.prepareClient(config.getBaseUrl());
+            BaseSetupApi.installSweeper();
+            ArrivalRateRunner runner = new ArrivalRateRunner(config);
+            ScheduledExecutorService reporter = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "worker-reporter");
+                thread.setDaemon(true);
+                return thread;
+            });
+            reporter.scheduleAtFixedRate(() -> send(out, report(assignment, runner, false, null)),
+                    reportMillis, reportMillis, TimeUnit.MILLISECONDS);
+            String error = null;
+            try {
+                runner.run();
+            } catch (RuntimeException e) {
+                LOG.error("Worker {} failed", assignment.getWorker() + 1, e);
+                error = e.toString();
+            } finally {
+                reporter.shutdown();
+                reporter.awaitTermination(1, TimeUnit.MINUTES);
+            }
+            send(out, report(assignment, runner, true, error));
+
+            BookSweeper.shared().sweep();
+            LoadRunner.stopMonitoring();
+            ConnectionPool.shutdown();
+            if (stub != null) {
+                stub.close();
+            }
+        }
+    }
+
+    private static WorkerReport report(WorkerAssignment assignment, ArrivalRateRunner runner, boolean done, String error) {
+        // Timed by the runner from its first scheduled operation, so seeding never dilutes throughput
+        return new WorkerReport(assignment.getWorker(), done, error, runner.elapsedSeconds(),
+                runner.getResponseTimes(), runner.getServiceTimes(), EndpointLatencies.getHistograms());
+    }
+
+    private static void send(DataOutputStream out, WorkerReport report) {
+        // The reporter thread and the final report share the stream
+        synchronized (out) {
+            try {
+                report.writeTo(out);
+            } catch (IOException e) {
+                throw new IllegalStateException("Lost the connection to the coordinator", e);
+            }
+        }
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        if (args.length != 2) {
+            throw new IllegalArgumentException("Usage: LoadWorker <coordinator host> <port>");
+        }
+        new LoadWorker(args[0], Integer.parseInt(args[1]), ConfigReader.snapshot().getLong("distributed.reportMillis", 1_000L)).run();
+    }
+}
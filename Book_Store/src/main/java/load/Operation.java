@@ -0,0 +1,121 @@
+package load;
+
+import api.AsyncBooksApi;
+import api.BooksApi;
+import api.ParsedResponse;
+import io.restassured.response.Response;
+import models.Book;
+
+import java.net.http.HttpResponse;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * The single API calls an {@link ArrivalRateRunner} mixes. Reads and edits target the books seeded before the run;
+ * adds feed a queue of books that deletes then drain, so the seeded catalog stays the same size.
+ */
+public enum Operation {
+
+    GET_BOOK("getBookDetailsById") {
+        @Override
+        Response call(OperationContext context) {
+            return BooksApi.getBookDetailsById(context.randomSeededId(), context.accessToken());
+        }
+
+        @Override
+        CompletableFuture<HttpResponse<byte[]>> callAsync(OperationContext context, AsyncBooksApi api) {
+            return api.getBookDetailsById(context.randomSeededId(), context.accessToken());
+        }
+    },
+    GET_ALL_BOOKS("getAllBooks") {
+        @Override
+        Response call(OperationContext context) {
+            return BooksApi.getAllBooks(context.accessToken()).get(0);
+        }
+
+        @Override
+        CompletableFuture<HttpResponse<byte[]>> callAsync(OperationContext context, AsyncBooksApi api) {
+            return api.getAllBooks(context.accessToken());
+        }
+    },
+    ADD_BOOK("addNewBook") {
+        @Override
+        Response call(OperationContext context) {
+            Response response = BooksApi.addNewBook(randomBook(), context.accessToken());
+            if (response.getStatusCode() == 200) {
+                context.added(ParsedResponse.of(response).get("id"));
+            }
+            return response;
+        }
+
+        @Override
+        CompletableFuture<HttpResponse<byte[]>> callAsync(OperationContext context, AsyncBooksApi api) {
+            return api.addNewBook(randomBook(), context.accessToken()).thenApply(response -> {
+                if (response.statusCode() == 200) {
+                    context.added(AsyncBooksApi.idOf(response));
+                }
+                return response;
+            });
+        }
+    },
+    EDIT_BOOK("editTheBook") {
+        @Override
+        Response call(OperationContext context) {
+            return BooksApi.editTheBook(context.randomSeededId(), randomBook(), context.accessToken());
+        }
+
+        @Override
+        CompletableFuture<HttpResponse<byte[]>> callAsync(OperationContext context, AsyncBooksApi api) {
+            return api.editTheBook(context.randomSeededId(), randomBook(), context.accessToken());
+        }
+    },
+    DELETE_BOOK("deleteTheBookById") {
+        @Override
+        Response call(OperationContext context) {
+            Object id = context.takeAdded();
+            // Nothing added yet to delete: add one so the delete still exercises the endpoint
+            if (id == null) {
+                id = ParsedResponse.of(BooksApi.addNewBook(randomBook(), context.accessToken())).get("id");
+            }
+            return BooksApi.deleteTheBookById(String.valueOf(id), context.accessToken());
+        }
+
+        @Override
+        CompletableFuture<HttpResponse<byte[]>> callAsync(OperationContext context, AsyncBooksApi api) {
+            Object id = context.takeAdded();
+            String accessToken = context.accessToken();
+            CompletableFuture<Object> target = id != null
+                    ? CompletableFuture.completedFuture(id)
+                    : api.addNewBook(randomBook(), accessToken).thenApply(AsyncBooksApi::idOf);
+            return target.thenCompose(bookId -> api.deleteTheBookById(bookId, accessToken));
+        }
+    };
+
+    private final String stepName;
+
+    Operation(String stepName) {
+        this.stepName = stepName;
+    }
+
+    public String stepName() {
+        return stepName;
+    }
+
+    public static Operation fromStepName(String stepName) {
+        for (Operation operation : values()) {
+            if (operation.stepName.equals(stepName)) {
+                return operation;
+            }
+        }
+        throw new IllegalArgumentException("Unknown operation '" + stepName + "'");
+    }
+
+    abstract Response call(OperationContext context);
+
+    abstract CompletableFuture<HttpResponse<byte[]>> callAsync(OperationContext context, AsyncBooksApi api);
+
+    private static Book randomBook() {
+        long n = ThreadLocalRandom.current().nextLong(1_000_000_000L);
+        return new Book("Rate Book " + n, "Rate Author " + n, 1900L + n % 125, "Rate summary " + n);
+    }
+}
@@ -0,0 +1,47 @@
+package load;
+
+import auth.Identity;
+import auth.TokenProvider;
+
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * State shared by every operation of one arrival-rate run: the account it runs as, the seeded book ids and the
+ * books added during the run that are waiting to be deleted.
+ */
+public class OperationContext {
+
+    private final Identity identity;
+    private final Object[] seededIds;
+    private final Queue<Object> added = new ConcurrentLinkedQueue<>();
+
+    public OperationContext(Identity identity, List<Object> seededIds) {
+        this.identity = identity;
+        this.seededIds = seededIds.toArray();
+    }
+
+    public String accessToken() {
+        return TokenProvider.shared().bearerToken(identity.getEmail(), identity.getPassword());
+    }
+
+    public void invalidateToken() {
+        TokenProvider.shared().invalidate(identity.getEmail());
+    }
+
+    Object randomSeededId() {
+        return seededIds[ThreadLocalRandom.current().nextInt(seededIds.length)];
+    }
+
+    void added(Object id) {
+        if (id != null) {
+            added.offer(id);
+        }
+    }
+
+    Object takeAdded() {
+        return added.poll();
+    }
+}
@@ -0,0 +1,69 @@
+package load;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Weighted choice of {@link Operation}s, parsed from "getBookDetailsById=80,editTheBook=10,...".
+ */
+public class OperationMix {
+
+    public static final String DEFAULT = "getBookDetailsById=80,editTheBook=10,addNewBook=5,deleteTheBookById=5";
+
+    private final Operation[] operations;
+    private final int[] cumulativeWeights;
+    private final Map<Operation, Integer> weights;
+
+    public OperationMix(Map<Operation, Integer> weights) {
+        this.weights = new EnumMap<>(weights);
+        this.operations = new Operation[weights.size()];
+        this.cumulativeWeights = new int[weights.size()];
+        int total = 0;
+        int i = 0;
+        for (Map.Entry<Operation, Integer> entry : this.weights.entrySet()) {
+            if (entry.getValue() <= 0) {
+                throw new IllegalArgumentException("Weight for " + entry.getKey().stepName() + " must be positive");
+            }
+            total += entry.getValue();
+            operations[i] = entry.getKey();
+            cumulativeWeights[i++] = total;
+        }
+        if (total == 0) {
+            throw new IllegalArgumentException("Operation mix is empty");
+        }
+    }
+
+    public static OperationMix parse(String mix) {
+        Map<Operation, Integer> weights = new EnumMap<>(Operation.class);
+        for (String entry : mix.split(",")) {
+            String[] parts = entry.trim().split("=");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Expected operation=weight but found '" + entry + "'");
+            }
+            weights.merge(Operation.fromStepName(parts[0].trim()), Integer.parseInt(parts[1].trim()), Integer::sum);
+        }
+        return new OperationMix(weights);
+    }
+
+    public Operation pick() {
+        int roll = ThreadLocalRandom.current().nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        for (int i = 0; i < cumulativeWeights.length; i++) {
+            if (roll < cumulativeWeights[i]) {
+                return operations[i];
+            }
+        }
+        throw new IllegalStateException("Unreachable: roll " + roll + " outside the mix");
+    }
+
+    public Map<Operation, Integer> getWeights() {
+        return weights;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder text = new StringBuilder();
+        weights.forEach((operation, weight) -> text.append(text.length() == 0 ? "" : ",").append(operation.stepName()).append('=').append(weight));
+        return text.toString();
+    }
+}
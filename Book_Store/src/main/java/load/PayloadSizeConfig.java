@@ -0,0 +1,35 @@
+package load;
+
+import api.Compression;
+import config.ConfigReader;
+import config.ConfigSnapshot;
+import lombok.Value;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+@Value
+public class PayloadSizeConfig {
+
+    String baseUrl;
+    /** book_summary lengths to sweep, in bytes. */
+    List<Integer> summaryBytes;
+    int iterations;
+    List<Compression> compressions;
+
+    /**
+     * -Dload.baseUrl, -Dpayload.sizes (comma-separated summary lengths in bytes), -Dpayload.iterations (books added,
+     * edited and catalog reads per step) and -Dpayload.compressions (comma-separated {@link Compression} modes)
+     */
+    public static PayloadSizeConfig fromSystemProperties() {
+        ConfigSnapshot config = ConfigReader.snapshot();
+        return new PayloadSizeConfig(
+                config.getString("load.baseUrl", config.getBaseUrl()),
+                Arrays.stream(config.getString("payload.sizes", "100,1000,10000,100000,1000000").split(","))
+                        .map(String::trim).map(Integer::valueOf).collect(Collectors.toList()),
+                config.getInt("payload.iterations", 10),
+                Arrays.stream(config.getString("payload.compressions", "identity,responses,gzip").split(","))
+                        .map(Compression::parse).collect(Collectors.toList()));
+    }
+}
@@ -0,0 +1,23 @@
+package load;
+
+import api.Compression;
+import lombok.Value;
+
+/**
+ * One operation at one summary size and compression mode. Byte and allocation figures are means per request:
+ * body bytes as counted by {@link metrics.WireBytes}, and bytes allocated by the calling thread.
+ */
+@Value
+public class PayloadSizeResult {
+
+    int summaryBytes;
+    Compression compression;
+    String operation;
+    long requests;
+    long errors;
+    double p50Ms;
+    double p99Ms;
+    long sentBytes;
+    long receivedBytes;
+    long allocatedBytes;
+}
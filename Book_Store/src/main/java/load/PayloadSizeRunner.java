@@ -0,0 +1,181 @@
+package load;
+
+import api.BookSweeper;
+import api.BooksApi;
+import api.Compression;
+import api.ParsedResponse;
+import auth.Identity;
+import auth.TokenProvider;
+import auth.UserPool;
+import base.BaseSetupApi;
+import base.ConnectionPool;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import io.restassured.response.Response;
+import metrics.WireBytes;
+import models.Book;
+import org.HdrHistogram.Histogram;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import stub.BookStoreStub;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.Supplier;
+
+/**
+ * Sweeps book_summary size across {@code addNewBook}, {@code editTheBook} and {@code getAllBooks}, once per
+ * {@link Compression} mode, and reports latency, body bytes on the wire and client allocation per request. Each step
+ * adds {@code iterations} books with summaries of the step's size, edits each one, reads the catalog
+ * {@code iterations} times and deletes the books again, so catalog reads carry {@code iterations} such books plus
+ * whatever else the target holds.
+ *
+ * Requests run one at a time on the calling thread, which is what makes the per-thread byte and allocation
+ * counters exact.
+ */
+public class PayloadSizeRunner {
+
+    private static final Logger LOG = LoggerFactory.getLogger(PayloadSizeRunner.class);
+    private static final ObjectMapper MAPPER = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+    private static final com.sun.management.ThreadMXBean THREADS = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    private static final String ADD = "addNewBook";
+    private static final String EDIT = "editTheBook";
+    private static final String GET_ALL = "getAllBooks";
+    private static final String[] WORDS = {"the", "a", "of", "and", "to", "in", "river", "winter", "letters", "city",
+            "her", "his", "long", "journey", "between", "two", "families", "after", "war", "quiet", "garden",
+            "old", "house", "secret", "years", "where", "nothing", "is", "what", "it", "seems", "north", "light"};
+
+    private final PayloadSizeConfig config;
+    private final UserPool userPool;
+
+    public PayloadSizeRunner(PayloadSizeConfig config) {
+        this(config, UserPool.shared());
+    }
+
+    public PayloadSizeRunner(PayloadSizeConfig config, UserPool userPool) {
+        this.config = config;
+        this.userPool = userPool;
+    }
+
+    public List<PayloadSizeResult> run() {
+        Identity identity = userPool.lease();
+        try {
+            List<PayloadSizeResult> results = new ArrayList<>();
+            for (int summaryBytes : config.getSummaryBytes()) {
+                for (Compression compression : config.getCompressions()) {
+                    for (PayloadSizeResult result : runStep(identity, summaryBytes, compression)) {
+                        LOG.info("{} B summaries, {}, {}: p50 {} ms, p99 {} ms, {} B sent, {} B received, {} B allocated per request, {} errors",
+                                summaryBytes, compression, result.getOperation(), result.getP50Ms(), result.getP99Ms(),
+                                result.getSentBytes(), result.getReceivedBytes(), result.getAllocatedBytes(), result.getErrors());
+                        results.add(result);
+                    }
+                }
+            }
+            return results;
+        } finally {
+            userPool.release(identity);
+        }
+    }
+
+    private List<PayloadSizeResult> runStep(Identity identity, int summaryBytes, Compression compression) {
+        Map<String, Step> steps = new LinkedHashMap<>();
+        Random random = new Random(summaryBytes);
+        List<Object> ids = new ArrayList<>();
+        try {
+            for (int i = 0; i < config.getIterations(); i++) {
+                Book book = new Book("Payload " + summaryBytes + " #" + i, "Payload Author", 2000L, summary(summaryBytes, random));
+                Response response = measure(steps, ADD, () -> BooksApi.addNewBook(book, token(identity), compression));
+                Object id = ParsedResponse.of(response).get("id");
+                if (id != null) {
+                    ids.add(id);
+                }
+            }
+            for (Object id : ids) {
+                Book book = new Book("Payload " + summaryBytes + " edited", "Payload Author", 2001L, summary(summaryBytes, random));
+                measure(steps, EDIT, () -> BooksApi.editTheBook(id, book, token(identity), compression));
+            }
+            for (int i = 0; i < config.getIterations(); i++) {
+                measure(steps, GET_ALL, () -> BooksApi.getAllBooks(token(identity), compression).get(0));
+            }
+        } finally {
+            ids.forEach(id -> BooksApi.deleteTheBookById(String.valueOf(id), token(identity)));
+        }
+
+        List<PayloadSizeResult> results = new ArrayList<>();
+        steps.forEach((operation, step) -> {
+            long requests = step.latencies.getTotalCount();
+            results.add(new PayloadSizeResult(summaryBytes, compression, operation, requests, step.errors,
+                    step.latencies.getValueAtPercentile(50) / 1000.0, step.latencies.getValueAtPercentile(99) / 1000.0,
+                    step.sent / requests, step.received / requests, step.allocated / requests));
+        });
+        return results;
+    }
+
+    private static final class Step {
+        final Histogram latencies = new Histogram(3);
+        long errors;
+        long sent;
+        long received;
+        long allocated;
+    }
+
+    private static Response measure(Map<String, Step> steps, String operation, Supplier<Response> request) {
+        Step step = steps.computeIfAbsent(operation, name -> new Step());
+        long sent = WireBytes.sent();
+        long received = WireBytes.received();
+        long allocated = THREADS.getCurrentThreadAllocatedBytes();
+        long start = System.nanoTime();
+        Response response = request.get();
+        step.latencies.recordValue((System.nanoTime() - start) / 1000);
+        step.allocated += THREADS.getCurrentThreadAllocatedBytes() - allocated;
+        step.sent += WireBytes.sent() - sent;
+        step.received += WireBytes.received() - received;
+        if (response.getStatusCode() != 200) {
+            step.errors++;
+        }
+        return response;
+    }
+
+    /** Prose-like text of exactly {@code bytes} ASCII characters, so compression ratios resemble real summaries. */
+    static String summary(int bytes, Random random) {
+        StringBuilder summary = new StringBuilder(bytes + 16);
+        while (summary.length() < bytes) {
+            summary.append(WORDS[random.nextInt(WORDS.length)]).append(random.nextInt(12) == 0 ? ". " : " ");
+        }
+        summary.setLength(bytes);
+        return summary.toString();
+    }
+
+    private static String token(Identity identity) {
+        return TokenProvider.shared().bearerToken(identity.getEmail(), identity.getPassword());
+    }
+
+    public static void main(String[] args) throws IOException {
+        PayloadSizeConfig config = PayloadSizeConfig.fromSystemProperties();
+        BookStoreStub stub = LoadRunner.prepareClient(config.getBaseUrl());
+        BaseSetupApi.installSweeper();
+
+        LOG.info("Starting payload size sweep: summaries of {} bytes, {} per step, compression {}",
+                config.getSummaryBytes(), config.getIterations(), config.getCompressions());
+        List<PayloadSizeResult> results = new PayloadSizeRunner(config).run();
+        Path report = Paths.get("target", "performance", "payload-sizes.json");
+        Files.createDirectories(report.getParent());
+        Files.writeString(report, MAPPER.writeValueAsString(results));
+        LOG.info("Payload size results written to {}", report);
+
+        BookSweeper.shared().sweep();
+        LoadRunner.stopMonitoring();
+        ConnectionPool.shutdown();
+        if (stub != null) {
+            stub.close();
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package load;
+
+import api.BooksApi;
+import api.ParsedResponse;
+import auth.Identity;
+import auth.TokenProvider;
+import auth.UserPool;
+import io.restassured.response.Response;
+import models.Book;
+
+import java.util.function.Supplier;
+
+/**
+ * One virtual user: leases an account from {@link UserPool} and logs in once, then each {@link #run()} is a pass
+ * through add -> edit -> get -> delete using the cached bearer token from {@link TokenProvider}.
+ */
+public class UserFlow {
+
+    private final FlowStats stats;
+    private final Identity identity;
+    private final String email;
+    private final String password;
+    private boolean loggedIn;
+
+    public UserFlow(FlowStats stats) {
+        this.stats = stats;
+        this.identity = UserPool.shared().lease();
+        this.email = identity.getEmail();
+        this.password = identity.getPassword();
+    }
+
+    public void run() {
+        if (!loggedIn) {
+            if (!timedLogin()) return;
+            loggedIn = true;
+        }
+        String accessToken = TokenProvider.shared().bearerToken(email, password);
+
+        long uniqueId = System.nanoTime();
+        Book book = new Book("Load Book " + uniqueId, "Load Author " + uniqueId, uniqueId, "Load summary " + uniqueId);
+
+        Response added = step("addNewBook", () -> BooksApi.addNewBook(book, accessToken));
+        if (added == null) return;
+        Object bookId = ParsedResponse.of(added).get("id");
+
+        book.setName("Load Book edited " + uniqueId);
+        if (step("editTheBook", () -> BooksApi.editTheBook(bookId, book, accessToken)) == null) return;
+        if (step("getBookDetailsById", () -> BooksApi.getBookDetailsById(bookId, accessToken)) == null) return;
+        if (step("deleteTheBookById", () -> BooksApi.deleteTheBookById(String.valueOf(bookId), accessToken)) == null) return;
+
+        stats.flowCompleted();
+    }
+
+    /** Hands the account back to the pool for the next virtual user. */
+    public void release() {
+        UserPool.shared().release(identity);
+    }
+
+    private boolean timedLogin() {
+        long start = System.nanoTime();
+        try {
+            TokenProvider.shared().bearerToken(email, password);
+            stats.record("login", System.nanoTime() - start, true);
+            return true;
+        } catch (RuntimeException e) {
+            stats.record("login", System.nanoTime() - start, false);
+            return false;
+        }
+    }
+
+    /**
+     * Returns the response, or null when the call failed and the rest of the flow should be skipped.
+     */
+    private Response step(String name, Supplier<Response> call) {
+        long start = System.nanoTime();
+        try {
+            Response response = call.get();
+            boolean success = response.getStatusCode() == 200;
+            stats.record(name, System.nanoTime() - start, success);
+            if (response.getStatusCode() == 401) {
+                TokenProvider.shared().invalidate(email);
+            }
+            return success ? response : null;
+        } catch (RuntimeException e) {
+            stats.record(name, System.nanoTime() - start, false);
+            return null;
+        }
+    }
+}
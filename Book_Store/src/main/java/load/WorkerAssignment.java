@@ -0,0 +1,57 @@
+package load;
+
+import lombok.Value;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.time.Duration;
+
+/**
+ * What the {@link LoadCoordinator} tells one {@link LoadWorker} to run: its index and an arrival-rate config
+ * already cut down to that worker's share of the total rate, in-flight limit and seed books.
+ */
+@Value
+public class WorkerAssignment {
+
+    int worker;
+    int workers;
+    ArrivalRateConfig config;
+
+    /** The share of {@code total} one of {@code workers} workers runs, so the shares add up to the whole run. */
+    public static ArrivalRateConfig share(ArrivalRateConfig total, int workers) {
+        return new ArrivalRateConfig(total.getBaseUrl(),
+                total.getRatePerSecond() / workers,
+                total.getDuration(),
+                total.getMix(),
+                Math.max(1, total.getSeedBooks() / workers),
+                Math.max(1, (total.getMaxInFlight() + workers - 1) / workers),
+                total.getClient());
+    }
+
+    void writeTo(DataOutputStream out) throws IOException {
+        out.writeInt(worker);
+        out.writeInt(workers);
+        out.writeUTF(config.getBaseUrl());
+        out.writeDouble(config.getRatePerSecond());
+        out.writeLong(config.getDuration().toMillis());
+        out.writeUTF(config.getMix().toString());
+        out.writeInt(config.getSeedBooks());
+        out.writeInt(config.getMaxInFlight());
+        out.writeUTF(config.getClient().name());
+        out.flush();
+    }
+
+    static WorkerAssignment readFrom(DataInputStream in) throws IOException {
+        int worker = in.readInt();
+        int workers = in.readInt();
+        ArrivalRateConfig config = new ArrivalRateConfig(in.readUTF(),
+                in.readDouble(),
+                Duration.ofMillis(in.readLong()),
+                OperationMix.parse(in.readUTF()),
+                in.readInt(),
+                in.readInt(),
+                ClientStack.valueOf(in.readUTF()));
+        return new WorkerAssignment(worker, workers, config);
+    }
+}
@@ -0,0 +1,98 @@
+package load;
+
+import lombok.Value;
+import org.HdrHistogram.Histogram;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.zip.DataFormatException;
+
+/**
+ * A worker's latencies so far, as sent to the {@link LoadCoordinator}. Every report is cumulative, so the
+ * coordinator only keeps the latest one per worker and merges the final ones. Each histogram travels in
+ * HdrHistogram's compressed encoding, typically a few hundred bytes no matter how many requests it counts.
+ */
+@Value
+public class WorkerReport {
+
+    int worker;
+    boolean done;
+    /** Why the worker gave up, or null. */
+    String error;
+    double elapsedSeconds;
+    FlowStats responseTimes;
+    FlowStats serviceTimes;
+    Map<String, Histogram> endpoints;
+
+    void writeTo(DataOutputStream out) throws IOException {
+        out.writeInt(worker);
+        out.writeBoolean(done);
+        out.writeUTF(error == null ? "" : error);
+        out.writeDouble(elapsedSeconds);
+        writeStats(out, responseTimes);
+        writeStats(out, serviceTimes);
+        out.writeInt(endpoints.size());
+        for (Map.Entry<String, Histogram> endpoint : endpoints.entrySet()) {
+            out.writeUTF(endpoint.getKey());
+            writeHistogram(out, endpoint.getValue());
+        }
+        out.flush();
+    }
+
+    static WorkerReport readFrom(DataInputStream in) throws IOException {
+        int worker = in.readInt();
+        boolean done = in.readBoolean();
+        String error = in.readUTF();
+        double elapsedSeconds = in.readDouble();
+        FlowStats responseTimes = readStats(in);
+        FlowStats serviceTimes = readStats(in);
+        Map<String, Histogram> endpoints = new TreeMap<>();
+        for (int i = in.readInt(); i > 0; i--) {
+            endpoints.put(in.readUTF(), readHistogram(in));
+        }
+        return new WorkerReport(worker, done, error.isEmpty() ? null : error, elapsedSeconds, responseTimes, serviceTimes, endpoints);
+    }
+
+    private static void writeStats(DataOutputStream out, FlowStats stats) throws IOException {
+        Map<String, Histogram> latencies = new TreeMap<>(stats.getLatencies());
+        out.writeInt(latencies.size());
+        for (Map.Entry<String, Histogram> step : latencies.entrySet()) {
+            out.writeUTF(step.getKey());
+            out.writeLong(stats.getErrors(step.getKey()));
+            writeHistogram(out, step.getValue());
+        }
+    }
+
+    private static FlowStats readStats(DataInputStream in) throws IOException {
+        FlowStats stats = new FlowStats();
+        for (int i = in.readInt(); i > 0; i--) {
+            String step = in.readUTF();
+            long errors = in.readLong();
+            stats.add(step, readHistogram(in), errors);
+        }
+        return stats;
+    }
+
+    private static void writeHistogram(DataOutputStream out, Histogram histogram) throws IOException {
+        // Recording may still be going on; encode a stable copy
+        Histogram copy = histogram.copy();
+        ByteBuffer buffer = ByteBuffer.allocate(copy.getNeededByteBufferCapacity());
+        int length = copy.encodeIntoCompressedByteBuffer(buffer);
+        out.writeInt(length);
+        out.write(buffer.array(), 0, length);
+    }
+
+    private static Histogram readHistogram(DataInputStream in) throws IOException {
+        byte[] encoded = new byte[in.readInt()];
+        in.readFully(encoded);
+        try {
+            return Histogram.decodeFromCompressedByteBuffer(ByteBuffer.wrap(encoded), 0);
+        } catch (DataFormatException e) {
+            throw new IOException("Corrupt histogram in worker report", e);
+        }
+    }
+}
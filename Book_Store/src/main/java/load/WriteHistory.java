@@ -0,0 +1,89 @@
+package load;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The writes made to one book during a contention run, keyed by the unique marker it carried in both its name
+ * and its summary, used to judge the state the book ends up in. Markers come from {@link #nextMarker()}, and every
+ * marker handed out must be {@link #record recorded}.
+ *
+ * Concurrent writes may be applied in any order, so the final state is not necessarily the write acknowledged
+ * last. It is only wrong if it is a write that was acknowledged before some other acknowledged write was even
+ * sent (that later write must then have been lost), or if its name and summary come from different writes.
+ * Writes that failed or timed out may or may not have been applied, so they are allowed as the final state but
+ * never count as superseding another.
+ *
+ * A write that ended before some acknowledged write started can only ever be judged a lost update, so it is
+ * dropped as soon as that happens; what is kept is the writes still in flight around the latest acknowledged one
+ * plus those never acknowledged. A dropped marker is still recognised by its number.
+ */
+public class WriteHistory {
+
+    public enum Verdict {
+        CONSISTENT,
+        /** A write acknowledged after the final state's write was sent has disappeared. */
+        LOST_UPDATE,
+        /** Fields of the final state come from different writes. */
+        TORN_WRITE,
+        /** The final state matches no write made during the run. */
+        UNKNOWN
+    }
+
+    private final Map<String, long[]> writesByMarker = new ConcurrentHashMap<>();
+    private final AtomicLong latestAcknowledgedStart = new AtomicLong(Long.MIN_VALUE);
+    private final AtomicLong issued = new AtomicLong();
+    private final String markerPrefix;
+
+    /**
+     * @param name identifies the book in its markers, which are {@code name + " #" + n}
+     */
+    public WriteHistory(String name) {
+        this.markerPrefix = name + " #";
+    }
+
+    public String nextMarker() {
+        return markerPrefix + issued.incrementAndGet();
+    }
+
+    /**
+     * @param acknowledged whether the service confirmed the write; unconfirmed writes get an open-ended window
+     */
+    public void record(String marker, long startNanos, long endNanos, boolean acknowledged) {
+        writesByMarker.put(marker, new long[]{startNanos, acknowledged ? endNanos : Long.MAX_VALUE});
+        if (acknowledged) {
+            long latest = latestAcknowledgedStart.accumulateAndGet(startNanos, Math::max);
+            // Anything that ended before the cutoff can only be a lost update, which judge tells from its number alone
+            writesByMarker.values().removeIf(write -> write[1] < latest);
+        }
+    }
+
+    /** Writes currently kept; recorded writes that were dropped as superseded are not counted. */
+    public int size() {
+        return writesByMarker.size();
+    }
+
+    public Verdict judge(String finalName, String finalSummary) {
+        long[] write = writesByMarker.get(finalName);
+        if (write == null && !issued(finalName)) {
+            return Verdict.UNKNOWN;
+        }
+        if (!finalName.equals(finalSummary)) {
+            return Verdict.TORN_WRITE;
+        }
+        return write == null || write[1] < latestAcknowledgedStart.get() ? Verdict.LOST_UPDATE : Verdict.CONSISTENT;
+    }
+
+    private boolean issued(String marker) {
+        if (!marker.startsWith(markerPrefix)) {
+            return false;
+        }
+        try {
+            long number = Long.parseLong(marker.substring(markerPrefix.length()));
+            return number > 0 && number <= issued.get();
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package logging;
+
+import io.restassured.http.Header;
+import io.restassured.http.Headers;
+import io.restassured.response.Response;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * One request/response exchange. The status, a few headers and the first {@link #MAX_BODY_CHARS} characters of
+ * each body are copied when the exchange completes, so a record never keeps the RestAssured response or the request
+ * body object alive; the text is only put together when the record is written out. A response body is cut from the
+ * bytes RestAssured already holds, so only its first {@link #MAX_BODY_CHARS} bytes are ever decoded. The body of a
+ * response streamed to its caller is not read.
+ */
+public class ExchangeRecord {
+
+    static final int MAX_BODY_CHARS = 2048;
+
+    private static final List<String> REQUEST_HEADERS = List.of("Content-Type", "Content-Encoding", "Accept");
+    private static final List<String> RESPONSE_HEADERS = List.of("Content-Type", "Content-Length", "Content-Encoding", "ETag");
+
+    final long sequence;
+    final String scope;
+    final long timestampMillis;
+    final String method;
+    final String endpoint;
+    final String uri;
+    final long elapsedMicros;
+    final boolean sampled;
+    private final String requestHeaders;
+    private final String requestBody;
+    private final int status;
+    private final String statusLine;
+    private final String responseHeaders;
+    private final String responseBody;
+
+    ExchangeRecord(long sequence, String scope, long timestampMillis, String method, String endpoint, String uri, long elapsedMicros,
+                   boolean sampled, Headers requestHeaders, Object requestBody, Response response, boolean responseStreamed) {
+        this.sequence = sequence;
+        this.scope = scope;
+        this.timestampMillis = timestampMillis;
+        this.method = method;
+        this.endpoint = endpoint;
+        this.uri = uri;
+        this.elapsedMicros = elapsedMicros;
+        this.sampled = sampled;
+        this.requestHeaders = select(requestHeaders, REQUEST_HEADERS);
+        this.requestBody = truncate(requestBody);
+        this.status = response == null ? -1 : response.getStatusCode();
+        this.statusLine = response == null ? null : response.getStatusLine();
+        this.responseHeaders = response == null ? null : select(response.getHeaders(), RESPONSE_HEADERS);
+        // A streamed body belongs to the caller; reading it here would buffer it
+        this.responseBody = response == null ? null : responseStreamed ? "(streamed, not recorded)" : truncate(response.asByteArray());
+    }
+
+    public String compact() {
+        return Instant.ofEpochMilli(timestampMillis) + " " + method + " " + endpoint + " -> "
+                + (status < 0 ? "no response" : status) + " in " + elapsedMicros / 1000.0 + " ms";
+    }
+
+    public String fullDetail() {
+        StringBuilder detail = new StringBuilder()
+                .append(Instant.ofEpochMilli(timestampMillis)).append('\n')
+                .append("--> ").append(method).append(' ').append(uri).append('\n')
+                .append(requestHeaders);
+        if (requestBody != null) detail.append(requestBody).append('\n');
+        if (status < 0) {
+            return detail.append("<-- no response after ").append(elapsedMicros / 1000.0).append(" ms\n").toString();
+        }
+        return detail.append("<-- ").append(statusLine).append(" (").append(elapsedMicros / 1000.0).append(" ms)\n")
+                .append(responseHeaders)
+                .append(responseBody).append('\n')
+                .toString();
+    }
+
+    private static String select(Headers headers, List<String> names) {
+        if (headers == null) return "";
+        StringBuilder selected = new StringBuilder();
+        for (String name : names) {
+            Header header = headers.get(name);
+            if (header != null) selected.append(header.getName()).append(": ").append(header.getValue()).append('\n');
+        }
+        return selected.toString();
+    }
+
+    private static String truncate(Object body) {
+        if (body == null) return null;
+        if (body instanceof byte[]) {
+            byte[] bytes = (byte[]) body;
+            return bytes.length <= MAX_BODY_CHARS ? new String(bytes, StandardCharsets.UTF_8)
+                    : new String(bytes, 0, MAX_BODY_CHARS, StandardCharsets.UTF_8) + "... (" + bytes.length + " bytes)";
+        }
+        String text = body.toString();
+        return text.length() <= MAX_BODY_CHARS ? text : text.substring(0, MAX_BODY_CHARS) + "... (" + text.length() + " chars)";
+    }
+}
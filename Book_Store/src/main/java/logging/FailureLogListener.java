@@ -0,0 +1,63 @@
+package logging;
+
+import org.testng.IInvokedMethod;
+import org.testng.IInvokedMethodListener;
+import org.testng.ITestResult;
+import reporting.AllureReporting;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Attaches the full detail of every exchange a failed test made to its Allure result. Runs as an
+ * invoked-method listener so the attachment lands before Allure closes the test case.
+ *
+ * Each test method runs in a {@link RequestLog} scope of its own, so exchanges made on other threads for it, e.g.
+ * by flow steps, are attached too. A test reporting on work done elsewhere can point the attachment at that work's
+ * scope by setting the {@link #LOG_SCOPE} attribute on its result.
+ */
+public class FailureLogListener implements IInvokedMethodListener {
+
+    /** Result attribute naming the {@link RequestLog} scope whose exchanges are attached on failure. */
+    public static final String LOG_SCOPE = "requestLog.scope";
+
+    private static final String PREVIOUS_SCOPE = "requestLog.previousScope";
+    private static final AtomicLong INVOCATIONS = new AtomicLong();
+
+    @Override
+    public void beforeInvocation(IInvokedMethod method, ITestResult testResult) {
+        if (!method.isTestMethod()) {
+            return;
+        }
+        String scope = testResult.getMethod().getQualifiedName() + "#" + INVOCATIONS.incrementAndGet();
+        testResult.setAttribute(LOG_SCOPE, scope);
+        String previous = RequestLog.enterScope(scope);
+        // Attributes cannot hold null; a missing one restores "no scope" all the same
+        if (previous != null) {
+            testResult.setAttribute(PREVIOUS_SCOPE, previous);
+        }
+    }
+
+    @Override
+    public void afterInvocation(IInvokedMethod method, ITestResult testResult) {
+        if (!method.isTestMethod()) {
+            return;
+        }
+        RequestLog.restoreScope((String) testResult.getAttribute(PREVIOUS_SCOPE));
+        Object scope = testResult.getAttribute(LOG_SCOPE);
+        if (testResult.getStatus() != ITestResult.FAILURE || scope == null) {
+            return;
+        }
+        List<ExchangeRecord> records = RequestLog.recent(scope.toString(), 0);
+        if (records.isEmpty()) {
+            return;
+        }
+        // One exchange at a time, so a test that made thousands of requests never builds them into one string
+        AllureReporting.attach("HTTP exchanges", "text/plain", ".txt", out -> {
+            for (ExchangeRecord record : records) {
+                out.write((record.fullDetail() + '\n').getBytes(StandardCharsets.UTF_8));
+            }
+        });
+    }
+}
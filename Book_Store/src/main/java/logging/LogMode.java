@@ -0,0 +1,21 @@
+package logging;
+
+import config.ConfigReader;
+
+/**
+ * How request/response traffic is logged, chosen per run with -Dlog.mode.
+ */
+public enum LogMode {
+
+    /** Full request and response on every call, synchronously to stdout (RestAssured's log().all()). */
+    ALL,
+    /** Compact records in memory; full detail is attached to the Allure report only for failed tests. */
+    FAILURES,
+    /** As FAILURES, and additionally one in -Dlog.sampleRate exchanges is logged in full in the background. */
+    SAMPLED,
+    OFF;
+
+    public static LogMode fromSystemProperty() {
+        return ConfigReader.snapshot().getLogMode();
+    }
+}
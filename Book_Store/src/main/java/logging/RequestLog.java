@@ -0,0 +1,146 @@
+package logging;
+
+import config.ConfigReader;
+import io.restassured.RestAssured;
+import io.restassured.filter.log.RequestLoggingFilter;
+import io.restassured.filter.log.ResponseLoggingFilter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Fixed-size, lock-free ring of the most recent exchanges. Writers claim a slot with one atomic increment and
+ * overwrite whatever was there; readers recognise overwritten slots by the record's own sequence number.
+ *
+ * Each record carries the scope it was made in: the thread's own unless one was entered, e.g. by
+ * {@link FailureLogListener} for each test, and handed on to other threads with {@link #runInScope}. A scope
+ * "a/b" is a child of "a", so looking up a test's scope also finds the exchanges of work it started elsewhere.
+ */
+public class RequestLog {
+
+    private static final Logger LOG = LoggerFactory.getLogger(RequestLog.class);
+
+    private static final int CAPACITY = Integer.highestOneBit(Math.max(2, ConfigReader.snapshot().getLogBufferSize()));
+    private static final int MASK = CAPACITY - 1;
+    private static final AtomicReferenceArray<ExchangeRecord> RING = new AtomicReferenceArray<>(CAPACITY);
+    private static final AtomicLong NEXT_SEQUENCE = new AtomicLong();
+
+    private static final RequestLoggingFilter ALL_REQUESTS = new RequestLoggingFilter();
+    private static final ResponseLoggingFilter ALL_RESPONSES = new ResponseLoggingFilter();
+
+    private static final ThreadLocal<String> SCOPE = new ThreadLocal<>();
+
+    private static volatile Thread sampleWriter;
+
+    /**
+     * Adds the filters for {@code mode} to RestAssured's global filters. Installing the same mode again adds nothing.
+     */
+    public static void install(LogMode mode) {
+        switch (mode) {
+            case ALL:
+                if (!RestAssured.filters().contains(ALL_REQUESTS)) {
+                    RestAssured.filters(ALL_REQUESTS, ALL_RESPONSES);
+                }
+                break;
+            case SAMPLED:
+                startSampleWriter();
+                // fall through
+            case FAILURES:
+                if (!RestAssured.filters().contains(RingBufferLogFilter.INSTANCE)) {
+                    RestAssured.filters(RingBufferLogFilter.INSTANCE);
+                }
+                RingBufferLogFilter.INSTANCE.setSampleRate(mode == LogMode.SAMPLED ? ConfigReader.snapshot().getLogSampleRate() : 0);
+                break;
+            case OFF:
+                break;
+        }
+    }
+
+    /** The scope exchanges made on this thread are recorded under. */
+    public static String scope() {
+        String scope = SCOPE.get();
+        return scope != null ? scope : "thread-" + Thread.currentThread().getId();
+    }
+
+    /** Records this thread's exchanges under {@code scope} until {@link #restoreScope}; returns the scope to restore. */
+    public static String enterScope(String scope) {
+        String previous = SCOPE.get();
+        SCOPE.set(scope);
+        return previous;
+    }
+
+    public static void restoreScope(String previous) {
+        if (previous == null) {
+            SCOPE.remove();
+        } else {
+            SCOPE.set(previous);
+        }
+    }
+
+    public static void runInScope(String scope, Runnable action) {
+        String previous = enterScope(scope);
+        try {
+            action.run();
+        } finally {
+            restoreScope(previous);
+        }
+    }
+
+    static long nextSequence() {
+        return NEXT_SEQUENCE.getAndIncrement();
+    }
+
+    static void append(ExchangeRecord record) {
+        RING.set((int) (record.sequence & MASK), record);
+    }
+
+    /**
+     * Exchanges made in {@code scope} or its child scopes at or after {@code sinceMillis} that are still in the ring,
+     * oldest first.
+     */
+    public static List<ExchangeRecord> recent(String scope, long sinceMillis) {
+        String children = scope + "/";
+        List<ExchangeRecord> records = new ArrayList<>();
+        for (int i = 0; i < CAPACITY; i++) {
+            ExchangeRecord record = RING.get(i);
+            if (record != null && record.timestampMillis >= sinceMillis
+                    && (record.scope.equals(scope) || record.scope.startsWith(children))) {
+                records.add(record);
+            }
+        }
+        records.sort(Comparator.comparingLong(record -> record.sequence));
+        return records;
+    }
+
+    private static synchronized void startSampleWriter() {
+        if (sampleWriter != null) return;
+        sampleWriter = new Thread(RequestLog::writeSamples, "request-log-sampler");
+        sampleWriter.setDaemon(true);
+        sampleWriter.start();
+    }
+
+    private static void writeSamples() {
+        long cursor = NEXT_SEQUENCE.get();
+        while (!Thread.currentThread().isInterrupted()) {
+            long end = NEXT_SEQUENCE.get();
+            // Anything older than one lap has been overwritten already
+            cursor = Math.max(cursor, end - CAPACITY);
+            for (; cursor < end; cursor++) {
+                ExchangeRecord record = RING.get((int) (cursor & MASK));
+                if (record != null && record.sequence == cursor && record.sampled) {
+                    LOG.info("Sampled exchange\n{}", record.fullDetail());
+                }
+            }
+            try {
+                Thread.sleep(200);
+            } catch (InterruptedException e) {
+                return;
+            }
+        }
+    }
+}
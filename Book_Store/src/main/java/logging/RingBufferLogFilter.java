@@ -0,0 +1,43 @@
+package logging;
+
+import base.ConnectionPool;
+import io.restassured.filter.Filter;
+import io.restassured.filter.FilterContext;
+import io.restassured.response.Response;
+import io.restassured.specification.FilterableRequestSpecification;
+import io.restassured.specification.FilterableResponseSpecification;
+
+import java.util.concurrent.TimeUnit;
+
+public class RingBufferLogFilter implements Filter {
+
+    public static final RingBufferLogFilter INSTANCE = new RingBufferLogFilter();
+
+    private volatile int sampleRate;
+
+    private RingBufferLogFilter() {
+    }
+
+    void setSampleRate(int sampleRate) {
+        this.sampleRate = sampleRate;
+    }
+
+    @Override
+    public Response filter(FilterableRequestSpecification requestSpec, FilterableResponseSpecification responseSpec, FilterContext ctx) {
+        long start = System.nanoTime();
+        long startMillis = System.currentTimeMillis();
+        Response response = null;
+        try {
+            response = ctx.next(requestSpec, responseSpec);
+            return response;
+        } finally {
+            long sequence = RequestLog.nextSequence();
+            int rate = sampleRate;
+            RequestLog.append(new ExchangeRecord(sequence, RequestLog.scope(), startMillis,
+                    requestSpec.getMethod(), requestSpec.getUserDefinedPath(), requestSpec.getURI(),
+                    TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start), rate > 0 && sequence % rate == 0,
+                    requestSpec.getHeaders(), requestSpec.getBody(), response,
+                    requestSpec.getHeaders().hasHeaderWithName(ConnectionPool.STREAM_RESPONSE_HEADER)));
+        }
+    }
+}
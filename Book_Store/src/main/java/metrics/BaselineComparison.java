@@ -0,0 +1,65 @@
+package metrics;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Result of {@link LatencyBaseline#compare}: a {@link BaselineDelta} per compared metric plus notes about endpoints
+ * that could not be compared. {@link #toMarkdown()} is what gets attached to the Allure report.
+ */
+public class BaselineComparison {
+
+    private final String baselineDescription;
+    private final List<BaselineDelta> deltas = new ArrayList<>();
+    private final List<String> notes = new ArrayList<>();
+
+    BaselineComparison(String baselineDescription) {
+        this.baselineDescription = baselineDescription;
+    }
+
+    void add(BaselineDelta delta) {
+        deltas.add(delta);
+    }
+
+    void note(String note) {
+        notes.add(note);
+    }
+
+    public List<BaselineDelta> getDeltas() {
+        return Collections.unmodifiableList(deltas);
+    }
+
+    public List<String> getNotes() {
+        return Collections.unmodifiableList(notes);
+    }
+
+    public List<BaselineDelta> regressions() {
+        return deltas.stream().filter(BaselineDelta::isRegressed).collect(Collectors.toList());
+    }
+
+    public boolean hasRegressions() {
+        return deltas.stream().anyMatch(BaselineDelta::isRegressed);
+    }
+
+    public String toMarkdown() {
+        StringBuilder out = new StringBuilder();
+        out.append("Compared against ").append(baselineDescription).append("\n\n");
+        out.append("| Endpoint | Metric | Baseline | Current | Change | |\n");
+        out.append("|---|---|---:|---:|---:|---|\n");
+        for (BaselineDelta delta : deltas) {
+            out.append(String.format("| %s | %s | %.2f | %.2f | %+.1f%% | %s |%n", delta.getEndpoint(), delta.getMetric(),
+                    delta.getBaseline(), delta.getCurrent(), delta.getChange() * 100, delta.isRegressed() ? "REGRESSED" : "ok"));
+        }
+        for (String note : notes) {
+            out.append("\n- ").append(note);
+        }
+        return out.append('\n').toString();
+    }
+
+    @Override
+    public String toString() {
+        return toMarkdown();
+    }
+}
@@ -0,0 +1,18 @@
+package metrics;
+
+import lombok.Value;
+
+/**
+ * One metric of one endpoint compared against the baseline. {@code change} is relative to the baseline, so 0.25
+ * means 25% higher than before; whether that is a regression depends on the metric.
+ */
+@Value
+public class BaselineDelta {
+
+    String endpoint;
+    String metric;
+    double baseline;
+    double current;
+    double change;
+    boolean regressed;
+}
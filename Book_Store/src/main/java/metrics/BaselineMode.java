@@ -0,0 +1,19 @@
+package metrics;
+
+import config.ConfigReader;
+
+/**
+ * What {@link LatencyBaseline} does with a run's endpoint latencies, chosen per run with -Dperf.baseline.
+ */
+public enum BaselineMode {
+
+    /** Save this run's summary as the new baseline. */
+    RECORD,
+    /** Compare this run against the saved baseline and fail the suite when it regressed. */
+    COMPARE,
+    OFF;
+
+    public static BaselineMode fromSystemProperty() {
+        return valueOf(ConfigReader.snapshot().getString("perf.baseline", OFF.name()).trim().toUpperCase());
+    }
+}
@@ -0,0 +1,102 @@
+package metrics;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Suite-wide latency histograms keyed by "METHOD endpoint-template", e.g. "PUT /books/{book_id}".
+ */
+public class EndpointLatencies {
+
+    private static final long MAX_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(5);
+    private static final ObjectMapper MAPPER = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+
+    private static final Map<String, Histogram> HISTOGRAMS = new ConcurrentHashMap<>();
+    private static final ThreadLocal<Boolean> UNTIMED = ThreadLocal.withInitial(() -> false);
+    private static volatile long startNanos = System.nanoTime();
+
+    public static void record(String method, String endpoint, long elapsedNanos) {
+        if (UNTIMED.get()) {
+            return;
+        }
+        long micros = Math.min(TimeUnit.NANOSECONDS.toMicros(elapsedNanos), MAX_TRACKABLE_MICROS);
+        HISTOGRAMS.computeIfAbsent(method + " " + endpoint, key -> new ConcurrentHistogram(MAX_TRACKABLE_MICROS, 3))
+                .recordValue(micros);
+    }
+
+    /**
+     * Runs {@code action} without recording the requests it makes on this thread, leaving everything recorded by
+     * other threads, before or after, as it is.
+     */
+    public static void untimed(Runnable action) {
+        UNTIMED.set(true);
+        try {
+            action.run();
+        } finally {
+            UNTIMED.remove();
+        }
+    }
+
+    public static void reset() {
+        HISTOGRAMS.clear();
+        startNanos = System.nanoTime();
+    }
+
+    public static Map<String, Histogram> getHistograms() {
+        return HISTOGRAMS;
+    }
+
+    /**
+     * p50/p90/p99/p99.9/max in milliseconds plus throughput in requests per second, per endpoint.
+     */
+    public static Map<String, Object> summary() {
+        double elapsedSeconds = (System.nanoTime() - startNanos) / 1e9;
+        Map<String, Object> endpoints = new TreeMap<>();
+        HISTOGRAMS.forEach((endpoint, histogram) -> {
+            Histogram copy = histogram.copy();
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("count", copy.getTotalCount());
+            stats.put("throughputPerSecond", copy.getTotalCount() / elapsedSeconds);
+            stats.put("p50Ms", copy.getValueAtPercentile(50) / 1000.0);
+            stats.put("p90Ms", copy.getValueAtPercentile(90) / 1000.0);
+            stats.put("p99Ms", copy.getValueAtPercentile(99) / 1000.0);
+            stats.put("p999Ms", copy.getValueAtPercentile(99.9) / 1000.0);
+            stats.put("maxMs", copy.getMaxValue() / 1000.0);
+            endpoints.put(endpoint, stats);
+        });
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("elapsedSeconds", elapsedSeconds);
+        summary.put("endpoints", endpoints);
+        return summary;
+    }
+
+    public static String toJson() {
+        try {
+            return MAPPER.writeValueAsString(summary());
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to serialize endpoint latencies", e);
+        }
+    }
+
+    public static String export(Path file) {
+        String json = toJson();
+        try {
+            Files.createDirectories(file.toAbsolutePath().getParent());
+            Files.writeString(file, json);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to write endpoint latencies to " + file, e);
+        }
+        return json;
+    }
+}
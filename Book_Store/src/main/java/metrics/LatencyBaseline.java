@@ -0,0 +1,171 @@
+package metrics;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import config.ConfigReader;
+import config.ConfigSnapshot;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * A saved {@link EndpointLatencies#summary()} that later runs are held to. The file carries a schema version, when
+ * it was recorded and the commit it was recorded on (GITHUB_SHA in CI), next to the per-endpoint statistics.
+ *
+ * An endpoint regresses when its p99 grew by more than -Dperf.p99Tolerance or its throughput dropped by more than
+ * -Dperf.throughputTolerance (both fractions, 0.20 by default) relative to the baseline. Endpoints with fewer than
+ * -Dperf.minSamples requests in either run are listed but not judged, their percentiles being mostly noise.
+ * Throughput is only comparable between runs that offer the same load, such as fixed-rate load runs; a comparison
+ * made {@link #withoutThroughput()} judges p99 alone.
+ */
+public class LatencyBaseline {
+
+    public static final int SCHEMA_VERSION = 1;
+
+    private static final Logger LOG = LoggerFactory.getLogger(LatencyBaseline.class);
+    private static final ObjectMapper MAPPER = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+
+    private final Path file;
+    private final double p99Tolerance;
+    private final double throughputTolerance;
+    private final long minSamples;
+    private final boolean judgeThroughput;
+
+    public LatencyBaseline(Path file, double p99Tolerance, double throughputTolerance, long minSamples) {
+        this(file, p99Tolerance, throughputTolerance, minSamples, true);
+    }
+
+    private LatencyBaseline(Path file, double p99Tolerance, double throughputTolerance, long minSamples, boolean judgeThroughput) {
+        this.file = file;
+        this.p99Tolerance = p99Tolerance;
+        this.throughputTolerance = throughputTolerance;
+        this.minSamples = minSamples;
+        this.judgeThroughput = judgeThroughput;
+    }
+
+    /**
+     * The same baseline compared on p99 only, for runs whose request counts and wall time are not a fixed load, e.g.
+     * the functional suite, where adding a test changes every endpoint's throughput.
+     */
+    public LatencyBaseline withoutThroughput() {
+        return new LatencyBaseline(file, p99Tolerance, throughputTolerance, minSamples, false);
+    }
+
+    /**
+     * -Dperf.baselineFile, -Dperf.p99Tolerance, -Dperf.throughputTolerance and -Dperf.minSamples
+     */
+    public static LatencyBaseline fromSystemProperties() {
+        ConfigSnapshot config = ConfigReader.snapshot();
+        return new LatencyBaseline(
+                Paths.get(config.getString("perf.baselineFile", "performance-baseline/endpoint-latencies.json")),
+                config.getDouble("perf.p99Tolerance", 0.20),
+                config.getDouble("perf.throughputTolerance", 0.20),
+                config.getLong("perf.minSamples", 20L));
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    public boolean exists() {
+        return Files.isRegularFile(file);
+    }
+
+    /**
+     * Writes {@code summary} as the new baseline, replacing any previous one.
+     */
+    public void record(Map<String, Object> summary) {
+        Map<String, Object> baseline = new LinkedHashMap<>();
+        baseline.put("schemaVersion", SCHEMA_VERSION);
+        baseline.put("createdAt", Instant.now().toString());
+        baseline.put("commit", System.getenv().getOrDefault("GITHUB_SHA", "unknown"));
+        baseline.putAll(summary);
+        try {
+            Files.createDirectories(file.toAbsolutePath().getParent());
+            Files.writeString(file, MAPPER.writeValueAsString(baseline));
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to write latency baseline to " + file, e);
+        }
+        LOG.info("Recorded latency baseline for {} endpoints in {}", endpoints(summary).size(), file);
+    }
+
+    @SuppressWarnings("unchecked")
+    public Map<String, Object> load() {
+        Map<String, Object> baseline;
+        try {
+            baseline = MAPPER.readValue(file.toFile(), Map.class);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to read latency baseline from " + file, e);
+        }
+        Object version = baseline.get("schemaVersion");
+        if (!(version instanceof Number) || ((Number) version).intValue() != SCHEMA_VERSION) {
+            throw new IllegalStateException("Latency baseline " + file + " has schema version " + version
+                    + ", expected " + SCHEMA_VERSION + "; record it again with -Dperf.baseline=record");
+        }
+        return baseline;
+    }
+
+    /**
+     * Compares {@code summary} against the saved baseline.
+     */
+    public BaselineComparison compare(Map<String, Object> summary) {
+        return compare(load(), summary);
+    }
+
+    public BaselineComparison compare(Map<String, Object> baseline, Map<String, Object> summary) {
+        BaselineComparison comparison = new BaselineComparison(
+                file + " (recorded " + baseline.get("createdAt") + " at " + baseline.get("commit") + ")");
+        Map<String, Map<String, Object>> before = endpoints(baseline);
+        Map<String, Map<String, Object>> after = endpoints(summary);
+        for (String endpoint : new TreeSet<>(before.keySet())) {
+            Map<String, Object> was = before.get(endpoint);
+            Map<String, Object> now = after.get(endpoint);
+            if (now == null) {
+                comparison.note(endpoint + " is in the baseline but was not called in this run");
+                continue;
+            }
+            long samples = Math.min(number(was, "count").longValue(), number(now, "count").longValue());
+            if (samples < minSamples) {
+                comparison.note(endpoint + " not judged: " + samples + " samples, below perf.minSamples=" + minSamples);
+                continue;
+            }
+            double p99Before = number(was, "p99Ms").doubleValue();
+            double p99After = number(now, "p99Ms").doubleValue();
+            comparison.add(new BaselineDelta(endpoint, "p99Ms", p99Before, p99After, change(p99Before, p99After),
+                    p99After > p99Before * (1 + p99Tolerance)));
+            if (!judgeThroughput) {
+                continue;
+            }
+            double throughputBefore = number(was, "throughputPerSecond").doubleValue();
+            double throughputAfter = number(now, "throughputPerSecond").doubleValue();
+            comparison.add(new BaselineDelta(endpoint, "throughputPerSecond", throughputBefore, throughputAfter,
+                    change(throughputBefore, throughputAfter), throughputAfter < throughputBefore * (1 - throughputTolerance)));
+        }
+        after.keySet().stream().filter(endpoint -> !before.containsKey(endpoint))
+                .forEach(endpoint -> comparison.note(endpoint + " is new since the baseline"));
+        return comparison;
+    }
+
+    private static double change(double before, double after) {
+        return before == 0 ? 0 : (after - before) / before;
+    }
+
+    private static Number number(Map<String, Object> stats, String key) {
+        Object value = stats.get(key);
+        return value instanceof Number ? (Number) value : 0;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Map<String, Object>> endpoints(Map<String, Object> summary) {
+        Object endpoints = summary.get("endpoints");
+        return endpoints instanceof Map ? (Map<String, Map<String, Object>>) endpoints : Map.of();
+    }
+}
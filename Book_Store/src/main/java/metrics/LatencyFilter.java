@@ -0,0 +1,29 @@
+package metrics;
+
+import io.restassured.filter.Filter;
+import io.restassured.filter.FilterContext;
+import io.restassured.response.Response;
+import io.restassured.specification.FilterableRequestSpecification;
+import io.restassured.specification.FilterableResponseSpecification;
+
+/**
+ * Times every request and records it against the endpoint template (the path before path params are
+ * expanded), so all "/books/{book_id}" calls land in one histogram regardless of id.
+ */
+public class LatencyFilter implements Filter {
+
+    public static final LatencyFilter INSTANCE = new LatencyFilter();
+
+    private LatencyFilter() {
+    }
+
+    @Override
+    public Response filter(FilterableRequestSpecification requestSpec, FilterableResponseSpecification responseSpec, FilterContext ctx) {
+        long start = System.nanoTime();
+        try {
+            return ctx.next(requestSpec, responseSpec);
+        } finally {
+            EndpointLatencies.record(requestSpec.getMethod(), requestSpec.getUserDefinedPath(), System.nanoTime() - start);
+        }
+    }
+}
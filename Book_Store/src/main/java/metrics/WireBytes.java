@@ -0,0 +1,37 @@
+package metrics;
+
+/**
+ * Request and response body bytes the shared client put on and took off the wire, counted per calling thread by
+ * {@link base.ConnectionPool}: after request compression and before response decoding, so compressed exchanges
+ * count their compressed size. Status lines and headers are not included.
+ *
+ * The counts live as long as the thread and only ever grow, so on pooled threads they add up across every task the
+ * thread has run. Measure the difference around the requests of interest, or {@link #reset()} first.
+ */
+public class WireBytes {
+
+    private static final ThreadLocal<long[]> COUNTS = ThreadLocal.withInitial(() -> new long[2]);
+
+    public static void recordSent(long bytes) {
+        COUNTS.get()[0] += bytes;
+    }
+
+    public static void recordReceived(long bytes) {
+        COUNTS.get()[1] += bytes;
+    }
+
+    /** Body bytes sent by the current thread so far. */
+    public static long sent() {
+        return COUNTS.get()[0];
+    }
+
+    /** Body bytes received by the current thread so far. */
+    public static long received() {
+        return COUNTS.get()[1];
+    }
+
+    /** Starts the current thread's counts from zero again. */
+    public static void reset() {
+        COUNTS.remove();
+    }
+}
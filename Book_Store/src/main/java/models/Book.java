@@ -0,0 +1,54 @@
+package models;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class Book {
+
+    @JsonProperty(access = JsonProperty.Access.WRITE_ONLY)
+    private Object id;
+    private String name;
+    private String author;
+    @JsonProperty("published_year")
+    private Long publishedYear;
+    @JsonProperty("book_summary")
+    private String bookSummary;
+
+    public Book(String name, String author, Long publishedYear, String bookSummary) {
+        this(null, name, author, publishedYear, bookSummary);
+    }
+
+    /**
+     * From the test-data map form ("bookName", "author", "published_year", "book_summary", "createdBookId"). A year
+     * given as digits in a string is parsed; any other year cannot be held by a Book and is rejected, so the
+     * invalid-year cases keep sending the map form itself.
+     */
+    public static Book fromDetails(Map<String, Object> bookDetails) {
+        Object year = bookDetails.get("published_year");
+        Long publishedYear;
+        if (year == null) {
+            publishedYear = null;
+        } else if (year instanceof Number) {
+            publishedYear = ((Number) year).longValue();
+        } else {
+            try {
+                publishedYear = Long.valueOf(year.toString().trim());
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("published_year is not a number: " + year, e);
+            }
+        }
+        return new Book(bookDetails.get("createdBookId"), (String) bookDetails.get("bookName"), (String) bookDetails.get("author"),
+                publishedYear, (String) bookDetails.get("book_summary"));
+    }
+}
@@ -0,0 +1,178 @@
+package replay;
+
+import api.ParsedResponse;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.restassured.RestAssured;
+import io.restassured.filter.Filter;
+import io.restassured.filter.FilterContext;
+import io.restassured.response.Response;
+import io.restassured.specification.FilterableRequestSpecification;
+import io.restassured.specification.FilterableResponseSpecification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Records every request made through RestAssured, and so through {@code BooksApi} and {@code UserApi}, into a
+ * {@link CaptureLog}. A request is appended once its response is in, so the log is in completion order and a
+ * request that uses an id or token from an earlier response always comes after it. Start it with {@link #start(Path)} (or
+ * -Dcapture.file in {@code BaseSetupApi}); it is closed by {@link #stop()} or, failing that, a shutdown hook.
+ *
+ * Access tokens and "password" fields never reach the file. Each is replaced by a digest keyed with a random salt
+ * that lives only as long as the capture, so the same secret always gets the same stand-in: a replayed signup and
+ * login still agree on the password, and the token a login issued still matches the Authorization of the requests
+ * that used it.
+ */
+public class CaptureFilter implements Filter {
+
+    private static final Logger LOG = LoggerFactory.getLogger(CaptureFilter.class);
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final byte[] PASSWORD_FIELD = "\"password\"".getBytes(StandardCharsets.UTF_8);
+    public static final CaptureFilter INSTANCE = new CaptureFilter();
+
+    /** The log being written, or null while nothing is captured and requests just pass through. */
+    private volatile CaptureLog log;
+    private volatile byte[] salt;
+    private final AtomicBoolean failed = new AtomicBoolean();
+    private final AtomicBoolean hookInstalled = new AtomicBoolean();
+
+    private CaptureFilter() {
+    }
+
+    public static void start(Path file) throws IOException {
+        INSTANCE.open(file);
+    }
+
+    public static void stop() {
+        INSTANCE.close();
+    }
+
+    private synchronized void open(Path file) throws IOException {
+        close();
+        byte[] newSalt = new byte[16];
+        new SecureRandom().nextBytes(newSalt);
+        salt = newSalt;
+        log = new CaptureLog(file);
+        failed.set(false);
+        if (!RestAssured.filters().contains(this)) {
+            RestAssured.filters(this);
+        }
+        if (hookInstalled.compareAndSet(false, true)) {
+            Runtime.getRuntime().addShutdownHook(new Thread(this::close, "capture-log"));
+        }
+        LOG.info("Capturing requests to {}", file);
+    }
+
+    private synchronized void close() {
+        CaptureLog current = log;
+        if (current == null) {
+            return;
+        }
+        log = null;
+        try {
+            current.close();
+        } catch (IOException e) {
+            LOG.warn("Failed to close capture log", e);
+        }
+    }
+
+    @Override
+    public Response filter(FilterableRequestSpecification requestSpec, FilterableResponseSpecification responseSpec, FilterContext ctx) {
+        CaptureLog log = this.log;
+        long start = System.nanoTime();
+        Response response = ctx.next(requestSpec, responseSpec);
+        long end = System.nanoTime();
+        if (log == null) {
+            return response;
+        }
+        try {
+            log.append(new CapturedRequest(log.offsetNanos(start), end - start,
+                    requestSpec.getMethod(),
+                    requestSpec.getUserDefinedPath(),
+                    new LinkedHashMap<>(requestSpec.getPathParams()),
+                    authorization(requestSpec.getHeaders().getValue("Authorization")),
+                    body(requestSpec.getBody()),
+                    response.getStatusCode(),
+                    field(requestSpec, response, "id"),
+                    redact(field(requestSpec, response, "access_token"))));
+        } catch (IOException | RuntimeException e) {
+            // Capturing must never fail the request it observes
+            if (failed.compareAndSet(false, true)) {
+                LOG.warn("Failed to capture {} {}, further failures are not logged", requestSpec.getMethod(), requestSpec.getUserDefinedPath(), e);
+            }
+        }
+        return response;
+    }
+
+    private String authorization(String authorization) {
+        if (authorization == null) {
+            return null;
+        }
+        return authorization.startsWith("Bearer ") ? "Bearer " + redact(authorization.substring("Bearer ".length())) : redact(authorization);
+    }
+
+    private byte[] body(Object body) throws IOException {
+        if (body == null) {
+            return null;
+        }
+        byte[] bytes = body instanceof byte[] ? (byte[]) body : body.toString().getBytes(StandardCharsets.UTF_8);
+        if (!contains(bytes, PASSWORD_FIELD)) {
+            return bytes;
+        }
+        JsonNode json = MAPPER.readTree(bytes);
+        if (json instanceof ObjectNode && json.path("password").isTextual()) {
+            ((ObjectNode) json).put("password", redact(json.get("password").asText()));
+            return MAPPER.writeValueAsBytes(json);
+        }
+        return bytes;
+    }
+
+    private String redact(String secret) {
+        if (secret == null) {
+            return null;
+        }
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(salt);
+            byte[] hash = digest.digest(secret.getBytes(StandardCharsets.UTF_8));
+            StringBuilder redacted = new StringBuilder("redacted-");
+            for (int i = 0; i < 8; i++) {
+                redacted.append(String.format("%02x", hash[i]));
+            }
+            return redacted.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private static boolean contains(byte[] bytes, byte[] part) {
+        for (int i = 0; i <= bytes.length - part.length; i++) {
+            if (Arrays.equals(bytes, i, i + part.length, part, 0, part.length)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** Ids and tokens are only handed out by POSTs (add book, login); other bodies are not parsed. */
+    private static String field(FilterableRequestSpecification requestSpec, Response response, String name) {
+        String contentType = response.getContentType();
+        if (!"POST".equals(requestSpec.getMethod()) || response.getStatusCode() / 100 != 2
+                || contentType == null || !contentType.contains("json")) {
+            return null;
+        }
+        Object value = ParsedResponse.of(response).get(name);
+        return value == null || value instanceof JsonNode ? null : value.toString();
+    }
+}
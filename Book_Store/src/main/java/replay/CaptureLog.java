@@ -0,0 +1,123 @@
+package replay;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Append-only binary log of {@link CapturedRequest}s. Records are encoded into one direct buffer and written to the
+ * file channel sequentially whenever it fills up, so capturing costs a memory copy per request rather than a
+ * write. Each time the log is opened it starts a new session, and offsets within a session count from its start.
+ *
+ * Layout: a file header (magic, version), then per session a SESSION byte followed by REQUEST records. Each
+ * record is a REQUEST byte, its length, the offset and duration, a method code, strings as unsigned-short-length UTF-8 and the
+ * body as int-length bytes. The length lets a reader stop cleanly at a record torn by a crash.
+ */
+public class CaptureLog implements AutoCloseable {
+
+    static final int MAGIC = 0x42534350;
+    static final byte VERSION = 1;
+    static final byte SESSION = 0;
+    static final byte REQUEST = 1;
+    static final List<String> METHODS = List.of("GET", "POST", "PUT", "DELETE", "PATCH", "HEAD", "OPTIONS");
+
+    private static final int BUFFER_BYTES = 1 << 16;
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_BYTES);
+    private final long startNanos = System.nanoTime();
+
+    public CaptureLog(Path file) throws IOException {
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        if (channel.size() == 0) {
+            buffer.putInt(MAGIC).put(VERSION);
+        }
+        buffer.put(SESSION);
+    }
+
+    /** Nanoseconds since this session started, for {@link CapturedRequest#getOffsetNanos()}. */
+    public long offsetNanos(long nanoTime) {
+        return nanoTime - startNanos;
+    }
+
+    public synchronized void append(CapturedRequest request) throws IOException {
+        byte[] template = utf8(request.getTemplate());
+        byte[] authorization = utf8(request.getAuthorization());
+        byte[] createdId = utf8(request.getCreatedId());
+        byte[] issuedToken = utf8(request.getIssuedToken());
+        byte[] body = request.getBody() == null ? new byte[0] : request.getBody();
+        int length = 2 * Long.BYTES + 1 + 2 + template.length + 1 + 2 + authorization.length + Integer.BYTES
+                + 2 + createdId.length + 2 + issuedToken.length + Integer.BYTES + body.length;
+        for (Map.Entry<String, String> param : request.getPathParams().entrySet()) {
+            length += 2 + utf8(param.getKey()).length + 2 + utf8(param.getValue()).length;
+        }
+
+        int recordBytes = 1 + Integer.BYTES + length;
+        if (recordBytes > buffer.remaining()) {
+            flush();
+        }
+        // Records bigger than the whole buffer are written on their own
+        ByteBuffer target = recordBytes > buffer.capacity() ? ByteBuffer.allocate(recordBytes) : buffer;
+        target.put(REQUEST).putInt(length).putLong(request.getOffsetNanos()).putLong(request.getDurationNanos());
+        int method = METHODS.indexOf(request.getMethod());
+        if (method < 0) {
+            throw new IllegalArgumentException("Cannot capture HTTP method " + request.getMethod());
+        }
+        target.put((byte) method);
+        putString(target, template);
+        target.put((byte) request.getPathParams().size());
+        for (Map.Entry<String, String> param : request.getPathParams().entrySet()) {
+            putString(target, utf8(param.getKey()));
+            putString(target, utf8(param.getValue()));
+        }
+        putString(target, authorization);
+        target.putInt(request.getStatus());
+        putString(target, createdId);
+        putString(target, issuedToken);
+        target.putInt(body.length).put(body);
+        if (target != buffer) {
+            target.flip();
+            writeFully(target);
+        }
+    }
+
+    private static byte[] utf8(String value) {
+        byte[] bytes = value == null ? new byte[0] : value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > 0xFFFF) {
+            throw new IllegalArgumentException("Value too long to capture: " + bytes.length + " bytes");
+        }
+        return bytes;
+    }
+
+    private static void putString(ByteBuffer target, byte[] value) {
+        target.putShort((short) value.length).put(value);
+    }
+
+    /** Writes everything buffered so far to the file. */
+    public synchronized void flush() throws IOException {
+        buffer.flip();
+        writeFully(buffer);
+        buffer.clear();
+    }
+
+    private void writeFully(ByteBuffer source) throws IOException {
+        while (source.hasRemaining()) {
+            channel.write(source);
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (channel.isOpen()) {
+            flush();
+            channel.close();
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package replay;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * Streams the {@link CapturedRequest}s of a {@link CaptureLog} back in the order they were written. Sessions are
+ * laid end to end: each one's offsets continue from the last request of the session before it, so idle time
+ * between captures is not replayed. A record cut short by a crash ends the log instead of failing the read.
+ */
+public class CaptureReader implements Iterator<CapturedRequest>, AutoCloseable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(CaptureReader.class);
+
+    private final DataInputStream in;
+    private long sessionBase;
+    private long lastOffset;
+    private CapturedRequest next;
+
+    public CaptureReader(Path file) throws IOException {
+        in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 1 << 16));
+        if (in.readInt() != CaptureLog.MAGIC) {
+            in.close();
+            throw new IOException(file + " is not a capture log");
+        }
+        byte version = in.readByte();
+        if (version != CaptureLog.VERSION) {
+            in.close();
+            throw new IOException("Unsupported capture log version " + version + " in " + file);
+        }
+        next = readNext();
+    }
+
+    @Override
+    public boolean hasNext() {
+        return next != null;
+    }
+
+    @Override
+    public CapturedRequest next() {
+        if (next == null) {
+            throw new NoSuchElementException();
+        }
+        CapturedRequest current = next;
+        try {
+            next = readNext();
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to read capture log", e);
+        }
+        return current;
+    }
+
+    private CapturedRequest readNext() throws IOException {
+        while (true) {
+            int type = in.read();
+            if (type < 0) {
+                return null;
+            }
+            if (type == CaptureLog.SESSION) {
+                sessionBase = lastOffset;
+                continue;
+            }
+            if (type != CaptureLog.REQUEST) {
+                throw new IOException("Unknown record type " + type + " in capture log");
+            }
+            byte[] record;
+            try {
+                record = new byte[in.readInt()];
+                in.readFully(record);
+            } catch (EOFException e) {
+                LOG.warn("Capture log ends with a partial record, ignoring it");
+                return null;
+            }
+            return decode(ByteBuffer.wrap(record));
+        }
+    }
+
+    private CapturedRequest decode(ByteBuffer record) {
+        long offset = sessionBase + record.getLong();
+        long duration = record.getLong();
+        lastOffset = Math.max(lastOffset, offset + duration);
+        String method = CaptureLog.METHODS.get(record.get());
+        String template = getString(record);
+        Map<String, String> pathParams = new LinkedHashMap<>();
+        for (int i = record.get(); i > 0; i--) {
+            pathParams.put(getString(record), getString(record));
+        }
+        String authorization = getString(record);
+        int status = record.getInt();
+        String createdId = getString(record);
+        String issuedToken = getString(record);
+        byte[] body = new byte[record.getInt()];
+        record.get(body);
+        return new CapturedRequest(offset, duration, method, template, pathParams, emptyToNull(authorization),
+                body.length == 0 ? null : body, status, emptyToNull(createdId), emptyToNull(issuedToken));
+    }
+
+    private static String getString(ByteBuffer record) {
+        byte[] bytes = new byte[Short.toUnsignedInt(record.getShort())];
+        record.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static String emptyToNull(String value) {
+        return value.isEmpty() ? null : value;
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+}
@@ -0,0 +1,30 @@
+package replay;
+
+import lombok.Value;
+
+import java.util.Map;
+
+/**
+ * One request as recorded by {@link CaptureFilter}: when it started relative to the capture and how long it took,
+ * what was sent, and the parts of the answer a replay needs to remap later requests (the status, a created book id,
+ * an issued token).
+ */
+@Value
+public class CapturedRequest {
+
+    long offsetNanos;
+    long durationNanos;
+    String method;
+    /** The endpoint template, e.g. "/books/{book_id}", with path params kept separately. */
+    String template;
+    Map<String, String> pathParams;
+    /** The Authorization header, or null. */
+    String authorization;
+    /** The request body, or null. */
+    byte[] body;
+    int status;
+    /** The "id" the response returned, or null. */
+    String createdId;
+    /** The "access_token" the response returned, or null. */
+    String issuedToken;
+}
@@ -0,0 +1,245 @@
+package replay;
+
+import api.BookSweeper;
+import api.ParsedResponse;
+import base.BaseSetupApi;
+import base.ConnectionPool;
+import config.ConfigReader;
+import config.ConfigSnapshot;
+import io.restassured.http.ContentType;
+import io.restassured.response.Response;
+import io.restassured.specification.RequestSpecification;
+import load.FlowStats;
+import load.LoadRunner;
+import load.VirtualThreads;
+import metrics.EndpointLatencies;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import stub.BookStoreStub;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import static io.restassured.RestAssured.given;
+
+/**
+ * Replays a {@link CaptureLog} against another target as load, with no test code involved. Each request is
+ * started at its captured offset divided by the speed (1 for real time, 10 for ten times faster), or as soon as
+ * possible with speed 0.
+ *
+ * A request never starts before every request that had finished when it was captured has finished in the replay,
+ * so a sequential session stays sequential at any speed while requests that overlapped still overlap. Ids and tokens
+ * from the capture mean nothing to the new target, so they are remapped as the replay goes: a book created with id 17
+ * during capture maps to whatever id the replayed POST got, and a captured access token to the one the replayed
+ * login returned.
+ *
+ * Latencies are recorded per "METHOD template". A request counts as an error when its status differs from the
+ * captured one.
+ */
+public class Replayer {
+
+    private static final Logger LOG = LoggerFactory.getLogger(Replayer.class);
+    /** How many finished entries pile up at the front of the bookkeeping before they are dropped in one go. */
+    private static final int TRIM_BATCH = 1024;
+
+    private final String baseUrl;
+    private final double speed;
+    private final int maxInFlight;
+    private final FlowStats responseTimes = new FlowStats();
+    private final FlowStats serviceTimes = new FlowStats();
+    private final Map<String, String> bookIds = new ConcurrentHashMap<>();
+    private final Map<String, String> tokens = new ConcurrentHashMap<>();
+
+    public Replayer(String baseUrl, double speed, int maxInFlight) {
+        if (speed < 0) {
+            throw new IllegalArgumentException("Replay speed must be positive, or 0 for as fast as possible");
+        }
+        this.baseUrl = baseUrl;
+        this.speed = speed;
+        this.maxInFlight = maxInFlight;
+    }
+
+    /** Parses "1x", "10", "2.5x" or "max" (as fast as possible, 0). */
+    public static double parseSpeed(String speed) {
+        String value = speed.trim().toLowerCase();
+        if (value.equals("max")) {
+            return 0;
+        }
+        return Double.parseDouble(value.endsWith("x") ? value.substring(0, value.length() - 1) : value);
+    }
+
+    /** Latency from each request's scheduled start. */
+    public FlowStats getResponseTimes() {
+        return responseTimes;
+    }
+
+    /** Latency from each request's actual start. */
+    public FlowStats getServiceTimes() {
+        return serviceTimes;
+    }
+
+    /**
+     * Replays every request in {@code file} and returns how many were sent, once all of them have completed.
+     */
+    public long replay(Path file) throws IOException, InterruptedException {
+        ExecutorService executor = VirtualThreads.newExecutor();
+        Semaphore inFlight = new Semaphore(maxInFlight);
+        // Entry i completes once request i and every request logged before it have; the log is in captured completion
+        // order. Entries therefore complete front to back, and finished ones are dropped from the front now and then,
+        // so both lists only reach back to about the oldest request still in flight
+        List<CompletableFuture<Void>> completedThrough = new ArrayList<>();
+        List<Long> capturedEnds = new ArrayList<>();
+        long replayed = 0;
+        try (CaptureReader reader = new CaptureReader(file)) {
+            long start = System.nanoTime();
+            while (reader.hasNext()) {
+                CapturedRequest request = reader.next();
+                long intendedStart = speed == 0 ? System.nanoTime() : start + (long) (request.getOffsetNanos() / speed);
+                LoadRunner.parkUntil(intendedStart);
+                inFlight.acquire();
+                // Nothing left before it means whatever it waits for was trimmed, and so has finished
+                int finishedBefore = finishedBy(capturedEnds, request.getOffsetNanos());
+                CompletableFuture<Void> after = finishedBefore < 0 ? CompletableFuture.completedFuture(null) : completedThrough.get(finishedBefore);
+                CompletableFuture<Void> done = after.thenApplyAsync(ignored -> send(request, intendedStart), executor)
+                        .handle((response, error) -> {
+                            inFlight.release();
+                            return null;
+                        });
+                completedThrough.add(completedThrough.isEmpty() ? done : CompletableFuture.allOf(completedThrough.get(completedThrough.size() - 1), done));
+                capturedEnds.add(request.getOffsetNanos() + request.getDurationNanos());
+                replayed++;
+                if (replayed % TRIM_BATCH == 0) {
+                    trimFinished(completedThrough, capturedEnds);
+                }
+            }
+            if (!inFlight.tryAcquire(maxInFlight, 5, TimeUnit.MINUTES)) {
+                LOG.warn("Gave up waiting for {} replayed requests still in flight", maxInFlight - inFlight.availablePermits());
+            }
+        } finally {
+            executor.shutdown();
+        }
+        return replayed;
+    }
+
+    private static void trimFinished(List<CompletableFuture<Void>> completedThrough, List<Long> capturedEnds) {
+        int finished = 0;
+        while (finished < completedThrough.size() && completedThrough.get(finished).isDone()) {
+            finished++;
+        }
+        // The newest entry stays so the next one can still chain onto it
+        finished = Math.min(finished, completedThrough.size() - 1);
+        if (finished >= TRIM_BATCH || finished > completedThrough.size() / 2) {
+            completedThrough.subList(0, finished).clear();
+            capturedEnds.subList(0, finished).clear();
+        }
+    }
+
+    /** The last index whose captured end is at or before {@code offset}, or -1; ends are in (near) ascending order. */
+    private static int finishedBy(List<Long> capturedEnds, long offset) {
+        int low = 0;
+        int high = capturedEnds.size() - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            if (capturedEnds.get(middle) <= offset) {
+                low = middle + 1;
+            } else {
+                high = middle - 1;
+            }
+        }
+        return high;
+    }
+
+    private Response send(CapturedRequest request, long intendedStart) {
+        String step = request.getMethod() + " " + request.getTemplate();
+        long actualStart = System.nanoTime();
+        Response response = null;
+        try {
+            RequestSpecification spec = given().baseUri(baseUrl).contentType(ContentType.JSON);
+            String authorization = request.getAuthorization();
+            String token = token(authorization);
+            if (authorization != null) {
+                spec.header("Authorization", token == null ? authorization : authorization.replace(token, remap(tokens, token)));
+            }
+            request.getPathParams().forEach((name, value) -> spec.pathParam(name, remap(bookIds, value)));
+            if (request.getBody() != null) {
+                spec.body(request.getBody());
+            }
+            response = spec.request(request.getMethod(), request.getTemplate()).then().extract().response();
+            // Mapped before this request counts as finished, so whatever waits on it sees the new values
+            remember(bookIds, request.getCreatedId(), response, "id");
+            remember(tokens, request.getIssuedToken(), response, "access_token");
+            return response;
+        } catch (RuntimeException e) {
+            LOG.debug("Replaying {} failed", step, e);
+            return null;
+        } finally {
+            long end = System.nanoTime();
+            boolean matched = response != null && response.getStatusCode() == request.getStatus();
+            responseTimes.record(step, end - intendedStart, matched);
+            serviceTimes.record(step, end - actualStart, matched);
+        }
+    }
+
+    private static String token(String authorization) {
+        if (authorization == null) {
+            return null;
+        }
+        return authorization.startsWith("Bearer ") ? authorization.substring("Bearer ".length()) : authorization;
+    }
+
+    private static String remap(Map<String, String> mapping, String captured) {
+        return mapping.getOrDefault(captured, captured);
+    }
+
+    private static void remember(Map<String, String> mapping, String captured, Response response, String field) {
+        if (captured == null || response.getStatusCode() / 100 != 2) {
+            return;
+        }
+        try {
+            Object value = ParsedResponse.of(response).get(field);
+            if (value != null) {
+                mapping.put(captured, value.toString());
+            }
+        } catch (RuntimeException e) {
+            LOG.debug("Replayed response has no {} to map {} to", field, captured, e);
+        }
+    }
+
+    /**
+     * -Dreplay.file (target/capture/requests.bcap), -Dreplay.speed (1x, 10x or max), -Dreplay.maxInFlight (1000),
+     * against -Dload.baseUrl or the environment's base URL
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        ConfigSnapshot config = ConfigReader.snapshot();
+        Path file = Paths.get(config.getString("replay.file", "target/capture/requests.bcap"));
+        String baseUrl = config.getString("load.baseUrl", config.getBaseUrl());
+        BookStoreStub stub = LoadRunner.prepareClient(baseUrl);
+        BaseSetupApi.installSweeper();
+        String target = stub != null ? stub.baseUrl() : baseUrl;
+        Replayer replayer = new Replayer(target, parseSpeed(config.getString("replay.speed", "1x")), config.getInt("replay.maxInFlight", 1_000));
+
+        LOG.info("Replaying {} against {} at {}", file, target, replayer.speed == 0 ? "max speed" : replayer.speed + "x");
+        long start = System.nanoTime();
+        long replayed = replayer.replay(file);
+        double elapsedSeconds = (System.nanoTime() - start) / 1e9;
+        LOG.info("Replayed {} requests in {} s (errors = status differs from capture)\nResponse time (from scheduled start):\n{}\nService time (from actual start):\n{}",
+                replayed, String.format("%.1f", elapsedSeconds), replayer.getResponseTimes().summary(elapsedSeconds),
+                replayer.getServiceTimes().summary(elapsedSeconds));
+        LOG.info("Endpoint latencies:\n{}", EndpointLatencies.export(Paths.get("target", "performance", "replay-endpoint-latencies.json")));
+        BookSweeper.shared().sweep();
+        LoadRunner.stopMonitoring();
+        ConnectionPool.shutdown();
+        if (stub != null) {
+            stub.close();
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package reporting;
+
+import config.ConfigReader;
+import config.ConfigSnapshot;
+import io.qameta.allure.Allure;
+import io.qameta.allure.AllureLifecycle;
+import io.qameta.allure.util.PropertiesUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.testng.IExecutionListener;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Field;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Puts an {@link AsyncResultsWriter} behind Allure for the whole TestNG run and closes it, writing out whatever is
+ * still queued, when the run ends or the JVM exits.
+ *
+ * allure-testng takes {@code Allure.getLifecycle()} when TestNG instantiates it from its ServiceLoader entry, so
+ * the lifecycle has to be replaced before that. This listener is listed in the test classpath's own
+ * META-INF/services/org.testng.ITestNGListener, which comes first and so is instantiated first.
+ *
+ * -Dallure.async=false keeps Allure's synchronous writer. Tuned with -Dallure.queueCapacity (1024),
+ * -Dallure.batchSize (64) and -Dallure.inlineAttachmentBytes (65536).
+ */
+public class AllureReporting implements IExecutionListener {
+
+    private static final Logger LOG = LoggerFactory.getLogger(AllureReporting.class);
+    /** The private static field behind {@code Allure.getLifecycle()} in allure-java-commons 2.21.0. */
+    public static final String LIFECYCLE_FIELD = "lifecycle";
+
+    private static volatile AsyncResultsWriter writer;
+
+    /** Writes an attachment's content straight to wherever it ends up. */
+    @FunctionalInterface
+    public interface AttachmentContent {
+        void writeTo(OutputStream out) throws IOException;
+    }
+
+    public AllureReporting() {
+        install();
+    }
+
+    /** The installed writer, or null when Allure writes synchronously. */
+    public static AsyncResultsWriter writer() {
+        return writer;
+    }
+
+    public static synchronized void install() {
+        ConfigSnapshot config = ConfigReader.snapshot();
+        if (writer != null || !config.getBoolean("allure.async", true)) {
+            return;
+        }
+        if (lifecycleInUse()) {
+            LOG.warn("Allure's lifecycle was created before the async writer could be installed; results are written synchronously");
+            return;
+        }
+        Path directory = Paths.get(PropertiesUtils.loadAllureProperties().getProperty("allure.results.directory", "allure-results"));
+        AsyncResultsWriter installed = new AsyncResultsWriter(directory,
+                config.getInt("allure.queueCapacity", 1024),
+                config.getInt("allure.batchSize", 64),
+                config.getInt("allure.inlineAttachmentBytes", 64 * 1024));
+        Allure.setLifecycle(new AllureLifecycle(installed));
+        Runtime.getRuntime().addShutdownHook(new Thread(installed::close, "allure-writer-close"));
+        writer = installed;
+    }
+
+    /**
+     * Whether something already holds the default lifecycle; replacing it then would split results between two.
+     * Allure has no public way to ask, so this reads its private static field, which AsyncResultsWriterTest checks
+     * against the Allure version in the pom.
+     */
+    private static boolean lifecycleInUse() {
+        try {
+            Field lifecycle = Allure.class.getDeclaredField(LIFECYCLE_FIELD);
+            lifecycle.setAccessible(true);
+            return lifecycle.get(null) != null;
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            LOG.warn("Cannot tell whether Allure's lifecycle is in use; installing the async writer anyway", e);
+            return false;
+        }
+    }
+
+    @Override
+    public void onExecutionFinish() {
+        AsyncResultsWriter installed = writer;
+        if (installed != null) {
+            installed.close();
+        }
+    }
+
+    /**
+     * Attaches content to the current test or step without holding it in memory as a whole when the async writer is
+     * installed; otherwise the content is buffered and handed to Allure as usual.
+     */
+    public static void attach(String name, String type, String extension, AttachmentContent content) {
+        AllureLifecycle lifecycle = Allure.getLifecycle();
+        String source = lifecycle.prepareAttachment(name, type, extension);
+        AsyncResultsWriter installed = writer;
+        try {
+            if (installed != null) {
+                try (OutputStream out = installed.openAttachment(source)) {
+                    content.writeTo(out);
+                }
+            } else {
+                ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+                content.writeTo(buffer);
+                lifecycle.writeAttachment(source, new ByteArrayInputStream(buffer.toByteArray()));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write attachment " + name, e);
+        }
+    }
+}
@@ -0,0 +1,269 @@
+package reporting;
+
+import io.qameta.allure.AllureResultsWriteException;
+import io.qameta.allure.AllureResultsWriter;
+import io.qameta.allure.internal.Allure2ModelJackson;
+import io.qameta.allure.internal.shadowed.jackson.databind.ObjectMapper;
+import io.qameta.allure.model.TestResult;
+import io.qameta.allure.model.TestResultContainer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Allure results writer that takes file I/O off the test threads. Results, containers and small attachments go
+ * into a bounded queue and a single background thread writes them out in batches, in the same file layout and JSON
+ * as Allure's own {@code FileSystemResultsWriter}, so {@code allure serve} reads the directory as usual.
+ *
+ * A full queue blocks the producer until the writer catches up, which keeps memory flat however long the suite
+ * runs. Attachments larger than {@code inlineLimit} are never queued: they are copied straight to their file on
+ * the calling thread, a chunk at a time, and {@link #openAttachment(String)} lets callers write one without
+ * building it in memory first.
+ */
+public class AsyncResultsWriter implements AllureResultsWriter, AutoCloseable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(AsyncResultsWriter.class);
+    private static final int COPY_BUFFER_BYTES = 64 * 1024;
+
+    private final Path directory;
+    private final int batchSize;
+    private final int inlineLimit;
+    private final BlockingQueue<Job> queue;
+    private final ObjectMapper mapper = Allure2ModelJackson.createMapper();
+    private final Thread writer;
+    private volatile boolean closed;
+
+    private final AtomicLong results = new AtomicLong();
+    private final AtomicLong attachments = new AtomicLong();
+    private final AtomicLong batches = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+
+    /**
+     * One file to write, or with {@code file} null, a marker that everything queued before it has been written, or
+     * {@link #STOP}.
+     */
+    private static final class Job {
+        final String file;
+        final Object result;
+        final byte[] bytes;
+        final CountDownLatch written;
+
+        Job(String file, Object result, byte[] bytes, CountDownLatch written) {
+            this.file = file;
+            this.result = result;
+            this.bytes = bytes;
+            this.written = written;
+        }
+    }
+
+    /** Queued by close() after the last flush; the background thread finishes its batch and exits on taking it. */
+    private static final Job STOP = new Job(null, null, null, null);
+
+    public AsyncResultsWriter(Path directory, int queueCapacity, int batchSize, int inlineLimit) {
+        this.directory = directory;
+        this.batchSize = batchSize;
+        this.inlineLimit = inlineLimit;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException e) {
+            throw new AllureResultsWriteException("Could not create Allure results directory " + directory, e);
+        }
+        this.writer = new Thread(this::writeLoop, "allure-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    @Override
+    public void write(TestResult testResult) {
+        String uuid = Objects.isNull(testResult.getUuid()) ? UUID.randomUUID().toString() : testResult.getUuid();
+        enqueue(new Job(uuid + "-result.json", testResult, null, null));
+    }
+
+    @Override
+    public void write(TestResultContainer testResultContainer) {
+        String uuid = Objects.isNull(testResultContainer.getUuid()) ? UUID.randomUUID().toString() : testResultContainer.getUuid();
+        enqueue(new Job(uuid + "-container.json", testResultContainer, null, null));
+    }
+
+    @Override
+    public void write(String source, InputStream attachment) {
+        try {
+            // Read one byte past the limit to tell a small attachment from the start of a large one
+            byte[] head = attachment.readNBytes(inlineLimit + 1);
+            if (head.length <= inlineLimit) {
+                enqueue(new Job(source, null, head, null));
+                return;
+            }
+            try (OutputStream out = openAttachment(source)) {
+                out.write(head);
+                attachment.transferTo(out);
+            }
+        } catch (IOException e) {
+            throw new AllureResultsWriteException("Could not write Allure attachment " + source, e);
+        }
+    }
+
+    /** A stream straight to the file of attachment {@code source}, as returned by {@code prepareAttachment}. */
+    public OutputStream openAttachment(String source) throws IOException {
+        attachments.incrementAndGet();
+        return new BufferedOutputStream(Files.newOutputStream(directory.resolve(source)), COPY_BUFFER_BYTES);
+    }
+
+    /** Waits until everything queued so far is on disk. */
+    public void flush() throws InterruptedException {
+        if (closed) {
+            drainRemaining();
+            return;
+        }
+        CountDownLatch written = new CountDownLatch(1);
+        queue.put(new Job(null, null, null, written));
+        while (!written.await(100, TimeUnit.MILLISECONDS)) {
+            // The background thread may have been stopped after the marker went in
+            if (closed) {
+                drainRemaining();
+            }
+        }
+    }
+
+    private void enqueue(Job job) {
+        if (closed) {
+            // Late writes after close, e.g. from a shutdown hook, go out directly rather than being lost
+            write(job);
+            return;
+        }
+        try {
+            queue.put(job);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            write(job);
+            return;
+        }
+        if (closed) {
+            // Closed while this job went in, possibly after the final drain
+            drainRemaining();
+        }
+    }
+
+    private void drainRemaining() {
+        boolean stopTaken = false;
+        Job job;
+        while ((job = queue.poll()) != null) {
+            if (job == STOP) {
+                stopTaken = true;
+            } else if (job.written != null) {
+                job.written.countDown();
+            } else {
+                write(job);
+            }
+        }
+        if (stopTaken && writer.isAlive()) {
+            // Taken from under the background thread, which is still waiting for it
+            try {
+                queue.put(STOP);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private void writeLoop() {
+        List<Job> batch = new ArrayList<>(batchSize);
+        boolean stopped = false;
+        try {
+            while (!stopped) {
+                batch.add(queue.take());
+                queue.drainTo(batch, batchSize - 1);
+                for (Job job : batch) {
+                    if (job == STOP) {
+                        stopped = true;
+                    } else if (job.written != null) {
+                        job.written.countDown();
+                    } else {
+                        write(job);
+                    }
+                }
+                batches.incrementAndGet();
+                batch.clear();
+            }
+        } catch (InterruptedException e) {
+            // Interrupted from outside rather than stopped; close() writes out whatever is left
+        }
+    }
+
+    private void write(Job job) {
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(directory.resolve(job.file)), COPY_BUFFER_BYTES)) {
+            if (job.result != null) {
+                mapper.writeValue(out, job.result);
+                results.incrementAndGet();
+            } else {
+                out.write(job.bytes);
+                attachments.incrementAndGet();
+            }
+        } catch (IOException | UncheckedIOException e) {
+            // There is no test thread left to throw to; one lost file should not stop the rest
+            failures.incrementAndGet();
+            LOG.error("Could not write Allure result file {}", job.file, e);
+        }
+    }
+
+    /** Writes out everything still queued and stops the background thread. Safe to call more than once. */
+    @Override
+    public synchronized void close() {
+        if (closed) {
+            return;
+        }
+        try {
+            flush();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        closed = true;
+        // Not interrupted: an interrupt during a write closes its file channel and leaves the file cut short
+        try {
+            queue.put(STOP);
+            writer.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        drainRemaining();
+        LOG.info("Allure results: {} result and container files and {} attachments written to {} in {} batches, {} failed",
+                results.get(), attachments.get(), directory, batches.get(), failures.get());
+    }
+
+    public long getResultsWritten() {
+        return results.get();
+    }
+
+    public long getAttachmentsWritten() {
+        return attachments.get();
+    }
+
+    public long getBatches() {
+        return batches.get();
+    }
+
+    public long getFailures() {
+        return failures.get();
+    }
+}
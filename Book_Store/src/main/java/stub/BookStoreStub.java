@@ -0,0 +1,373 @@
+package stub;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import config.ConfigReader;
+import config.ConfigSnapshot;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory stand-in for the Bookstore service: signup, login, books/, /books/{book_id} and health, with the
+ * status codes and {@code detail} messages the suites assert. Tokens are unsigned JWTs carrying an {@code exp}
+ * claim so {@link auth.TokenProvider} schedules refreshes exactly as it does against the real service. Book reads
+ * carry an ETag and answer a matching If-None-Match with 304.
+ *
+ * Configured with -Dstub.port (0 picks a free port), -Dstub.latencyMillis, -Dstub.jitterMillis and
+ * -Dstub.tokenTtlSeconds.
+ */
+public class BookStoreStub implements AutoCloseable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(BookStoreStub.class);
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final JsonNodeFactory NODES = JsonNodeFactory.instance;
+    private static final String TOKEN_HEADER = base64Url("{\"alg\":\"none\",\"typ\":\"JWT\"}");
+
+    private final Map<String, String> passwordsByEmail = new ConcurrentHashMap<>();
+    private final Map<String, Long> expiryByToken = new ConcurrentHashMap<>();
+    // Every token lives tokenTtlMillis, so issue order is expiry order and expired tokens are always at the head
+    private final Queue<IssuedToken> tokensByExpiry = new ConcurrentLinkedQueue<>();
+    private final ConcurrentNavigableMap<Long, StoredBook> booksById = new ConcurrentSkipListMap<>();
+    private final AtomicLong nextBookId = new AtomicLong(1);
+    private final AtomicLong nextVersion = new AtomicLong(1);
+    private final long tokenTtlMillis;
+    private final HttpStubServer server;
+
+    /**
+     * A book as served, with the version its ETag is built from. Every add and edit takes a new version from one
+     * counter, so two different states of a book never share an ETag.
+     */
+    private static final class StoredBook {
+        final ObjectNode book;
+        final long version;
+
+        StoredBook(ObjectNode book, long version) {
+            this.book = book;
+            this.version = version;
+        }
+    }
+
+    private static final class IssuedToken {
+        final String token;
+        final long expiresAt;
+
+        IssuedToken(String token, long expiresAt) {
+            this.token = token;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    public BookStoreStub(long latencyMillis, long jitterMillis, long tokenTtlMillis) {
+        this.tokenTtlMillis = tokenTtlMillis;
+        this.server = new HttpStubServer(this::handle, latencyMillis, jitterMillis);
+    }
+
+    public static BookStoreStub fromSystemProperties() {
+        ConfigSnapshot config = ConfigReader.snapshot();
+        return new BookStoreStub(config.getLong("stub.latencyMillis", 0L), config.getLong("stub.jitterMillis", 0L),
+                TimeUnit.SECONDS.toMillis(config.getLong("stub.tokenTtlSeconds", 1_800L)));
+    }
+
+    public BookStoreStub start() {
+        return start(ConfigReader.snapshot().getInt("stub.port", 0));
+    }
+
+    public BookStoreStub start(int port) {
+        try {
+            server.start(port);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to start Bookstore stub on port " + port, e);
+        }
+        LOG.info("Bookstore stub listening on {}", baseUrl());
+        return this;
+    }
+
+    public int port() {
+        return server.port();
+    }
+
+    /** Base URL with a trailing slash, ready for {@code RestAssured.baseURI}. */
+    public String baseUrl() {
+        return "http://127.0.0.1:" + port() + "/";
+    }
+
+    public int userCount() {
+        return passwordsByEmail.size();
+    }
+
+    public int bookCount() {
+        return booksById.size();
+    }
+
+    /** Tokens issued and not yet evicted; expired ones go at the next login. */
+    public int tokenCount() {
+        return expiryByToken.size();
+    }
+
+    @Override
+    public void close() {
+        server.close();
+    }
+
+    StubResponse handle(StubRequest request) {
+        String path = request.path();
+        String method = request.method();
+        switch (path) {
+            case "/health":
+                return "GET".equals(method) ? json(200, NODES.objectNode().put("status", "up")) : methodNotAllowed();
+            case "/signup":
+                return "POST".equals(method) ? signUp(request) : methodNotAllowed();
+            case "/login":
+                return "POST".equals(method) ? login(request) : methodNotAllowed();
+            case "/books":
+            case "/books/":
+                return books(request);
+            default:
+                if (path.startsWith("/books/")) {
+                    return bookById(request, path.substring("/books/".length()));
+                }
+                return detail(404, "Not Found");
+        }
+    }
+
+    private StubResponse signUp(StubRequest request) {
+        ObjectNode body = readObject(request);
+        if (body == null) {
+            return missing("body");
+        }
+        StubResponse invalid = requireFields(body, "email", "password");
+        if (invalid != null) {
+            return invalid;
+        }
+        if (passwordsByEmail.putIfAbsent(body.get("email").asText(), body.get("password").asText()) != null) {
+            return detail(400, "Email already registered");
+        }
+        return json(200, NODES.objectNode().put("message", "User created successfully"));
+    }
+
+    private StubResponse login(StubRequest request) {
+        ObjectNode body = readObject(request);
+        if (body == null) {
+            return missing("body");
+        }
+        StubResponse invalid = requireFields(body, "email", "password");
+        if (invalid != null) {
+            return invalid;
+        }
+        String email = body.get("email").asText();
+        if (!body.get("password").asText().equals(passwordsByEmail.get(email))) {
+            return detail(400, "Incorrect email or password");
+        }
+        long now = System.currentTimeMillis();
+        evictExpiredTokens(now);
+        long expiresAt = now + tokenTtlMillis;
+        ObjectNode claims = NODES.objectNode().put("sub", email).put("exp", TimeUnit.MILLISECONDS.toSeconds(expiresAt));
+        String token = TOKEN_HEADER + "." + base64Url(claims.toString()) + "." + UUID.randomUUID().toString().replace("-", "");
+        expiryByToken.put(token, expiresAt);
+        tokensByExpiry.add(new IssuedToken(token, expiresAt));
+        return json(200, NODES.objectNode().put("access_token", token).put("token_type", "bearer"));
+    }
+
+    private void evictExpiredTokens(long now) {
+        IssuedToken oldest;
+        while ((oldest = tokensByExpiry.peek()) != null && oldest.expiresAt < now) {
+            // Another login may be evicting the same token; only the one that dequeues it removes it
+            if (tokensByExpiry.remove(oldest)) {
+                expiryByToken.remove(oldest.token);
+            }
+        }
+    }
+
+    private StubResponse books(StubRequest request) {
+        StubResponse unauthorized = authenticate(request);
+        if (unauthorized != null) {
+            return unauthorized;
+        }
+        switch (request.method()) {
+            case "GET":
+                ArrayNode all = NODES.arrayNode(booksById.size());
+                booksById.values().forEach(stored -> all.add(stored.book));
+                return json(200, all);
+            case "POST":
+                ObjectNode body = readObject(request);
+                if (body == null) {
+                    return missing("body");
+                }
+                StubResponse invalid = requireFields(body, "name", "author", "published_year", "book_summary");
+                if (invalid == null) {
+                    invalid = validateYear(body);
+                }
+                if (invalid != null) {
+                    return invalid;
+                }
+                long id = nextBookId.getAndIncrement();
+                ObjectNode book = NODES.objectNode().put("id", id);
+                copyBookFields(body, book);
+                booksById.put(id, new StoredBook(book, nextVersion.getAndIncrement()));
+                return json(200, book);
+            default:
+                return methodNotAllowed();
+        }
+    }
+
+    private StubResponse bookById(StubRequest request, String rawId) {
+        StubResponse unauthorized = authenticate(request);
+        if (unauthorized != null) {
+            return unauthorized;
+        }
+        long id;
+        try {
+            id = Long.parseLong(rawId);
+        } catch (NumberFormatException e) {
+            return detail(404, "Book not found");
+        }
+        switch (request.method()) {
+            case "GET": {
+                StoredBook stored = booksById.get(id);
+                if (stored == null) {
+                    return detail(404, "Book not found");
+                }
+                String etag = "\"" + stored.version + "\"";
+                return etag.equals(request.header("If-None-Match"))
+                        ? StubResponse.empty(304).header("ETag", etag)
+                        : json(200, stored.book).header("ETag", etag);
+            }
+            case "PUT": {
+                ObjectNode body = readObject(request);
+                if (body == null) {
+                    return missing("body");
+                }
+                StubResponse invalid = validateYear(body);
+                if (invalid != null) {
+                    return invalid;
+                }
+                // Stored books are never mutated in place, so concurrent readers always serialise a consistent copy
+                StoredBook updated = booksById.computeIfPresent(id, (key, current) -> {
+                    ObjectNode copy = current.book.deepCopy();
+                    copyBookFields(body, copy);
+                    return new StoredBook(copy, nextVersion.getAndIncrement());
+                });
+                return updated == null ? detail(404, "Book not found") : json(200, updated.book);
+            }
+            case "DELETE":
+                return booksById.remove(id) == null
+                        ? detail(404, "Book not found")
+                        : json(200, NODES.objectNode().put("message", "Book deleted successfully"));
+            default:
+                return methodNotAllowed();
+        }
+    }
+
+    private StubResponse authenticate(StubRequest request) {
+        String authorization = request.header("Authorization");
+        if (authorization == null || !authorization.regionMatches(true, 0, "Bearer ", 0, 7)) {
+            return detail(403, "Not authenticated");
+        }
+        Long expiresAt = expiryByToken.get(authorization.substring(7).trim());
+        if (expiresAt == null || expiresAt < System.currentTimeMillis()) {
+            return detail(401, "Could not validate credentials");
+        }
+        return null;
+    }
+
+    private static void copyBookFields(ObjectNode from, ObjectNode to) {
+        for (String field : new String[]{"name", "author", "book_summary"}) {
+            if (from.hasNonNull(field)) {
+                to.put(field, from.get(field).asText());
+            }
+        }
+        if (from.hasNonNull("published_year")) {
+            to.put("published_year", from.get("published_year").asLong());
+        }
+    }
+
+    /** The suites accept 400 for a non-numeric year, so it is reported as such rather than as a 422. */
+    private static StubResponse validateYear(ObjectNode body) {
+        JsonNode year = body.get("published_year");
+        if (year == null || year.isNull() || year.isIntegralNumber()) {
+            return null;
+        }
+        if (year.isTextual()) {
+            try {
+                body.put("published_year", Long.parseLong(year.asText().trim()));
+                return null;
+            } catch (NumberFormatException e) {
+                // Fall through
+            }
+        }
+        return detail(400, "Invalid published_year");
+    }
+
+    private static StubResponse requireFields(ObjectNode body, String... fields) {
+        for (String field : fields) {
+            if (!body.hasNonNull(field)) {
+                return missing("body", field);
+            }
+        }
+        return null;
+    }
+
+    private static ObjectNode readObject(StubRequest request) {
+        if (request.body().length == 0) {
+            return null;
+        }
+        try {
+            JsonNode node = MAPPER.readTree(request.body());
+            return node instanceof ObjectNode ? (ObjectNode) node : null;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /** FastAPI's validation error shape: {"detail":[{"type":"missing","loc":[...],"msg":"Field required"}]}. */
+    private static StubResponse missing(String... location) {
+        ObjectNode error = NODES.objectNode().put("type", "missing");
+        ArrayNode loc = error.putArray("loc");
+        for (String part : location) {
+            loc.add(part);
+        }
+        error.put("msg", "Field required");
+        error.putNull("input");
+        ObjectNode body = NODES.objectNode();
+        body.putArray("detail").add(error);
+        return json(422, body);
+    }
+
+    private static StubResponse detail(int status, String message) {
+        return json(status, NODES.objectNode().put("detail", message));
+    }
+
+    private static StubResponse methodNotAllowed() {
+        return detail(405, "Method Not Allowed");
+    }
+
+    private static StubResponse json(int status, JsonNode body) {
+        try {
+            return StubResponse.json(status, MAPPER.writeValueAsBytes(body));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialise stub response", e);
+        }
+    }
+
+    private static String base64Url(String json) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(json.getBytes(StandardCharsets.UTF_8));
+    }
+}
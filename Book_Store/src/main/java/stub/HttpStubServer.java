@@ -0,0 +1,362 @@
+package stub;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.CancelledKeyException;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Minimal keep-alive HTTP/1.1 server on a single NIO selector thread, so thousands of idle or slow connections
+ * cost a buffer each rather than a thread each. Requests are handled on a small scheduled pool; artificial
+ * latency is a scheduling delay, so a slow stub still never ties up a thread while it "waits".
+ *
+ * One request per connection is in flight at a time: reading is paused until its response has been written,
+ * which keeps pipelined responses in order. Only Content-Length bodies are accepted. Request bodies sent with
+ * Content-Encoding: gzip are inflated before the handler sees them, and responses of {@value #MIN_GZIP_BYTES} bytes
+ * or more are gzipped for clients that accept it.
+ */
+public class HttpStubServer implements Closeable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(HttpStubServer.class);
+    private static final int MAX_HEADER_BYTES = 64 * 1024;
+    private static final int MAX_BODY_BYTES = 64 * 1024 * 1024;
+    static final int MIN_GZIP_BYTES = 500;
+
+    private final Function<StubRequest, StubResponse> handler;
+    private final long latencyMillis;
+    private final long jitterMillis;
+    private final Queue<Connection> completed = new ConcurrentLinkedQueue<>();
+    private final ScheduledExecutorService workers;
+
+    private ServerSocketChannel serverChannel;
+    private Selector selector;
+    private Thread selectorThread;
+    private volatile boolean running;
+
+    public HttpStubServer(Function<StubRequest, StubResponse> handler, long latencyMillis, long jitterMillis) {
+        this.handler = handler;
+        this.latencyMillis = latencyMillis;
+        this.jitterMillis = jitterMillis;
+        AtomicInteger threadCount = new AtomicInteger();
+        ScheduledThreadPoolExecutor pool = new ScheduledThreadPoolExecutor(
+                Math.max(2, Runtime.getRuntime().availableProcessors()), task -> {
+                    Thread thread = new Thread(task, "stub-worker-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        pool.setRemoveOnCancelPolicy(true);
+        this.workers = pool;
+    }
+
+    public HttpStubServer start(int port) throws IOException {
+        serverChannel = ServerSocketChannel.open();
+        serverChannel.setOption(StandardSocketOptions.SO_REUSEADDR, true);
+        serverChannel.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 4096);
+        serverChannel.configureBlocking(false);
+        selector = Selector.open();
+        serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+
+        running = true;
+        selectorThread = new Thread(this::selectLoop, "stub-selector");
+        selectorThread.setDaemon(true);
+        selectorThread.start();
+        return this;
+    }
+
+    public int port() {
+        return serverChannel.socket().getLocalPort();
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        if (selector != null) {
+            selector.wakeup();
+        }
+        try {
+            if (selectorThread != null) {
+                selectorThread.join(TimeUnit.SECONDS.toMillis(5));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        workers.shutdownNow();
+    }
+
+    private void selectLoop() {
+        try {
+            while (running) {
+                selector.select();
+                Connection done;
+                while ((done = completed.poll()) != null) {
+                    done.startWriting();
+                }
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    try {
+                        if (key.isAcceptable()) {
+                            accept();
+                        } else if (key.isReadable()) {
+                            ((Connection) key.attachment()).onReadable();
+                        } else if (key.isWritable()) {
+                            ((Connection) key.attachment()).onWritable();
+                        }
+                    } catch (CancelledKeyException e) {
+                        // The peer went away while the key was being processed
+                    } catch (IOException e) {
+                        if (key.attachment() instanceof Connection) {
+                            ((Connection) key.attachment()).close();
+                        }
+                    }
+                }
+            }
+        } catch (IOException | ClosedSelectorException e) {
+            if (running) {
+                LOG.error("Stub selector loop failed", e);
+            }
+        } finally {
+            closeAll();
+        }
+    }
+
+    private void accept() throws IOException {
+        SocketChannel channel;
+        while ((channel = serverChannel.accept()) != null) {
+            channel.configureBlocking(false);
+            channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+            Connection connection = new Connection(channel);
+            connection.key = channel.register(selector, SelectionKey.OP_READ, connection);
+        }
+    }
+
+    private void closeAll() {
+        for (SelectionKey key : selector.keys()) {
+            try {
+                key.channel().close();
+            } catch (IOException ignored) {
+                // Shutting down anyway
+            }
+        }
+        try {
+            selector.close();
+        } catch (IOException ignored) {
+            // Shutting down anyway
+        }
+    }
+
+    private void dispatch(Connection connection, StubRequest request, boolean keepAlive) {
+        Runnable task = () -> {
+            StubResponse response;
+            try {
+                response = handle(request);
+            } catch (RuntimeException e) {
+                LOG.error("Stub handler failed for {} {}", request.method(), request.path(), e);
+                response = StubResponse.json(500, "{\"detail\":\"Internal Server Error\"}".getBytes(StandardCharsets.UTF_8));
+            }
+            connection.pending = response.encode(keepAlive);
+            connection.keepAlive = keepAlive;
+            completed.add(connection);
+            selector.wakeup();
+        };
+        long delay = latencyMillis + (jitterMillis > 0 ? ThreadLocalRandom.current().nextLong(jitterMillis + 1) : 0);
+        if (delay > 0) {
+            workers.schedule(task, delay, TimeUnit.MILLISECONDS);
+        } else {
+            workers.execute(task);
+        }
+    }
+
+    private StubResponse handle(StubRequest request) {
+        if ("gzip".equalsIgnoreCase(request.header("Content-Encoding"))) {
+            try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(request.body()))) {
+                byte[] body = in.readNBytes(MAX_BODY_BYTES + 1);
+                if (body.length > MAX_BODY_BYTES) {
+                    return StubResponse.empty(413);
+                }
+                request = request.withBody(body);
+            } catch (IOException e) {
+                return StubResponse.json(400, "{\"detail\":\"Malformed gzip body\"}".getBytes(StandardCharsets.UTF_8));
+            }
+        }
+        StubResponse response = handler.apply(request);
+        String accepted = request.header("Accept-Encoding");
+        if (accepted != null && accepted.toLowerCase().contains("gzip") && response.body().length >= MIN_GZIP_BYTES) {
+            return response.gzipped();
+        }
+        return response;
+    }
+
+    private final class Connection {
+
+        private final SocketChannel channel;
+        private SelectionKey key;
+        private ByteBuffer in = ByteBuffer.allocate(8 * 1024);
+        private ByteBuffer pending;
+        private boolean keepAlive;
+
+        Connection(SocketChannel channel) {
+            this.channel = channel;
+        }
+
+        void onReadable() throws IOException {
+            if (!in.hasRemaining()) {
+                in = grow(in);
+            }
+            if (channel.read(in) < 0) {
+                close();
+                return;
+            }
+            parseNext();
+        }
+
+        void startWriting() {
+            if (key.isValid()) {
+                key.interestOps(SelectionKey.OP_WRITE);
+            }
+        }
+
+        void onWritable() throws IOException {
+            channel.write(pending);
+            if (pending.hasRemaining()) {
+                return;
+            }
+            pending = null;
+            if (!keepAlive) {
+                close();
+                return;
+            }
+            key.interestOps(SelectionKey.OP_READ);
+            parseNext();
+        }
+
+        /** Dispatches the next complete request in the buffer, if there is one. */
+        private void parseNext() {
+            int headerEnd = indexOfHeaderEnd(in);
+            if (headerEnd < 0) {
+                if (in.position() > MAX_HEADER_BYTES) {
+                    reject(431);
+                }
+                return;
+            }
+            String head = new String(in.array(), 0, headerEnd, StandardCharsets.ISO_8859_1);
+            String[] lines = head.split("\r\n");
+            String[] requestLine = lines[0].split(" ");
+            if (requestLine.length != 3) {
+                reject(400);
+                return;
+            }
+            Map<String, String> headers = new HashMap<>();
+            for (int i = 1; i < lines.length; i++) {
+                int colon = lines[i].indexOf(':');
+                if (colon > 0) {
+                    headers.put(lines[i].substring(0, colon).trim().toLowerCase(), lines[i].substring(colon + 1).trim());
+                }
+            }
+            if (headers.containsKey("transfer-encoding")) {
+                reject(411);
+                return;
+            }
+            int contentLength;
+            try {
+                contentLength = Integer.parseInt(headers.getOrDefault("content-length", "0"));
+            } catch (NumberFormatException e) {
+                reject(400);
+                return;
+            }
+            if (contentLength < 0 || contentLength > MAX_BODY_BYTES) {
+                reject(413);
+                return;
+            }
+            int bodyStart = headerEnd + 4;
+            if (in.position() < bodyStart + contentLength) {
+                if (in.capacity() < bodyStart + contentLength) {
+                    in = grow(in, bodyStart + contentLength);
+                }
+                return;
+            }
+
+            byte[] body = new byte[contentLength];
+            System.arraycopy(in.array(), bodyStart, body, 0, contentLength);
+            in.flip().position(bodyStart + contentLength);
+            in.compact();
+
+            String target = requestLine[1];
+            int queryStart = target.indexOf('?');
+            String path = queryStart < 0 ? target : target.substring(0, queryStart);
+            String query = queryStart < 0 ? null : target.substring(queryStart + 1);
+            String connectionHeader = headers.getOrDefault("connection", "");
+            boolean keepAlive = "HTTP/1.1".equals(requestLine[2])
+                    ? !"close".equalsIgnoreCase(connectionHeader)
+                    : "keep-alive".equalsIgnoreCase(connectionHeader);
+
+            key.interestOps(0);
+            dispatch(this, new StubRequest(requestLine[0], path, query, headers, body), keepAlive);
+        }
+
+        private void reject(int status) {
+            key.interestOps(0);
+            pending = StubResponse.empty(status).encode(false);
+            keepAlive = false;
+            startWriting();
+        }
+
+        void close() {
+            key.cancel();
+            try {
+                channel.close();
+            } catch (IOException ignored) {
+                // Already gone
+            }
+        }
+    }
+
+    private static int indexOfHeaderEnd(ByteBuffer buffer) {
+        byte[] bytes = buffer.array();
+        for (int i = 0, end = buffer.position() - 3; i < end; i++) {
+            if (bytes[i] == '\r' && bytes[i + 1] == '\n' && bytes[i + 2] == '\r' && bytes[i + 3] == '\n') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static ByteBuffer grow(ByteBuffer buffer) {
+        return grow(buffer, buffer.capacity() * 2);
+    }
+
+    private static ByteBuffer grow(ByteBuffer buffer, int minimumCapacity) {
+        int capacity = buffer.capacity();
+        while (capacity < minimumCapacity) {
+            capacity *= 2;
+        }
+        return ByteBuffer.allocate(capacity).put(buffer.flip());
+    }
+}
@@ -0,0 +1,52 @@
+package stub;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+/**
+ * One parsed HTTP/1.1 request. Header names are lower-cased; {@code path} excludes the query string.
+ */
+public class StubRequest {
+
+    private final String method;
+    private final String path;
+    private final String query;
+    private final Map<String, String> headers;
+    private final byte[] body;
+
+    StubRequest(String method, String path, String query, Map<String, String> headers, byte[] body) {
+        this.method = method;
+        this.path = path;
+        this.query = query;
+        this.headers = headers;
+        this.body = body;
+    }
+
+    public String method() {
+        return method;
+    }
+
+    public String path() {
+        return path;
+    }
+
+    public String query() {
+        return query;
+    }
+
+    public String header(String name) {
+        return headers.get(name.toLowerCase());
+    }
+
+    public byte[] body() {
+        return body;
+    }
+
+    StubRequest withBody(byte[] body) {
+        return new StubRequest(method, path, query, headers, body);
+    }
+
+    public String bodyAsString() {
+        return new String(body, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,102 @@
+package stub;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Status, headers and body of a stub reply, encoded straight into the bytes that go on the wire.
+ */
+public class StubResponse {
+
+    private static final byte[] EMPTY = new byte[0];
+
+    private final int status;
+    private final byte[] body;
+    private final String contentType;
+    private final Map<String, String> headers = new LinkedHashMap<>();
+
+    public StubResponse(int status, byte[] body, String contentType) {
+        this.status = status;
+        this.body = body == null ? EMPTY : body;
+        this.contentType = contentType;
+    }
+
+    public static StubResponse json(int status, byte[] body) {
+        return new StubResponse(status, body, "application/json");
+    }
+
+    public static StubResponse empty(int status) {
+        return new StubResponse(status, EMPTY, null);
+    }
+
+    public StubResponse header(String name, String value) {
+        headers.put(name, value);
+        return this;
+    }
+
+    public int status() {
+        return status;
+    }
+
+    public byte[] body() {
+        return body;
+    }
+
+    /** The same response with its body gzipped. */
+    StubResponse gzipped() {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(Math.max(64, body.length / 4));
+        try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+            gzip.write(body);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        StubResponse response = new StubResponse(status, compressed.toByteArray(), contentType);
+        response.headers.putAll(headers);
+        return response.header("Content-Encoding", "gzip").header("Vary", "Accept-Encoding");
+    }
+
+    ByteBuffer encode(boolean keepAlive) {
+        StringBuilder head = new StringBuilder(128)
+                .append("HTTP/1.1 ").append(status).append(' ').append(reasonPhrase(status)).append("\r\n");
+        if (contentType != null) {
+            head.append("Content-Type: ").append(contentType).append("\r\n");
+        }
+        head.append("Content-Length: ").append(body.length).append("\r\n");
+        if (!keepAlive) {
+            head.append("Connection: close\r\n");
+        }
+        headers.forEach((name, value) -> head.append(name).append(": ").append(value).append("\r\n"));
+        head.append("\r\n");
+
+        byte[] headBytes = head.toString().getBytes(StandardCharsets.ISO_8859_1);
+        return ByteBuffer.allocate(headBytes.length + body.length).put(headBytes).put(body).flip();
+    }
+
+    static String reasonPhrase(int status) {
+        switch (status) {
+            case 200: return "OK";
+            case 201: return "Created";
+            case 204: return "No Content";
+            case 304: return "Not Modified";
+            case 400: return "Bad Request";
+            case 401: return "Unauthorized";
+            case 403: return "Forbidden";
+            case 404: return "Not Found";
+            case 405: return "Method Not Allowed";
+            case 409: return "Conflict";
+            case 411: return "Length Required";
+            case 413: return "Payload Too Large";
+            case 422: return "Unprocessable Entity";
+            case 431: return "Request Header Fields Too Large";
+            case 500: return "Internal Server Error";
+            case 503: return "Service Unavailable";
+            default: return "Unknown";
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package org.test.bookStore;
+
+import auth.UserPool;
+import base.ConnectionPool;
+import io.restassured.RestAssured;
+import load.ArrivalRateConfig;
+import load.ArrivalRateRunner;
+import load.ClientStack;
+import load.Operation;
+import load.OperationMix;
+import org.HdrHistogram.Histogram;
+import org.testng.Assert;
+import org.testng.Reporter;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.Test;
+import stub.BookStoreStub;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+public class ArrivalRateRunnerTest {
+
+    private BookStoreStub stub;
+
+    private void startStub(long latencyMillis) {
+        stub = new BookStoreStub(latencyMillis, 0, TimeUnit.HOURS.toMillis(1)).start(0);
+        RestAssured.baseURI = stub.baseUrl();
+        RestAssured.config = ConnectionPool.restAssuredConfig();
+    }
+
+    @AfterMethod(alwaysRun = true)
+    public void tearDown() {
+        if (stub != null) {
+            stub.close();
+            stub = null;
+        }
+        ConnectionPool.shutdown();
+        RestAssured.reset();
+    }
+
+    @Test
+    public void testMixIsParsedAndWeighted() {
+        OperationMix mix = OperationMix.parse("getBookDetailsById=90, editTheBook=10");
+        Map<Operation, Integer> picks = new EnumMap<>(Operation.class);
+        for (int i = 0; i < 100_000; i++) {
+            picks.merge(mix.pick(), 1, Integer::sum);
+        }
+        Assert.assertEquals(picks.keySet(), mix.getWeights().keySet(), "Only operations in the mix should be picked");
+        Assert.assertEquals(picks.get(Operation.GET_BOOK) / 100_000.0, 0.9, 0.01, "Read share mismatch");
+    }
+
+    @Test
+    public void testRunsTheMixAtTheTargetRate() throws InterruptedException {
+        startStub(5);
+        ArrivalRateRunner runner = new ArrivalRateRunner(new ArrivalRateConfig(stub.baseUrl(), 50, Duration.ofSeconds(2),
+                OperationMix.parse(OperationMix.DEFAULT), 20, 100, ClientStack.RESTASSURED), new UserPool(1));
+        runner.run();
+
+        Map<String, Histogram> latencies = runner.getResponseTimes().getLatencies();
+        long total = latencies.values().stream().mapToLong(Histogram::getTotalCount).sum();
+        Assert.assertEquals(total, 100, "Expected rate x duration operations");
+        latencies.keySet().forEach(step -> Assert.assertEquals(runner.getResponseTimes().getErrors(step), 0, step + " had errors"));
+        Assert.assertTrue(latencies.get("getBookDetailsById").getTotalCount() > latencies.get("editTheBook").getTotalCount(),
+                "Reads should dominate the default mix");
+    }
+
+    @Test
+    public void testElapsedTimeLeavesOutSeeding() throws InterruptedException {
+        startStub(300);
+        ArrivalRateRunner runner = new ArrivalRateRunner(new ArrivalRateConfig(stub.baseUrl(), 10, Duration.ofSeconds(1),
+                OperationMix.parse(OperationMix.DEFAULT), 20, 100, ClientStack.RESTASSURED), new UserPool(1));
+        long start = System.nanoTime();
+        runner.run();
+        double wallSeconds = (System.nanoTime() - start) / 1e9;
+
+        Reporter.log("Run took " + wallSeconds + " s, of which " + runner.elapsedSeconds() + " s scheduling", true);
+        // Seeding 20 books against a 300 ms server costs at least one round trip before the first operation
+        Assert.assertTrue(runner.elapsedSeconds() >= 1, "Elapsed time should cover the whole schedule");
+        Assert.assertTrue(runner.elapsedSeconds() <= wallSeconds - 0.3, "Elapsed time should not include seeding");
+    }
+
+    @Test
+    public void testAsyncClientRunsTheSameMix() throws InterruptedException {
+        startStub(5);
+        ArrivalRateRunner runner = new ArrivalRateRunner(new ArrivalRateConfig(stub.baseUrl(), 200, Duration.ofSeconds(1),
+                OperationMix.parse(OperationMix.DEFAULT), 20, 100, ClientStack.ASYNC), new UserPool(1));
+        runner.run();
+
+        Map<String, Histogram> latencies = runner.getResponseTimes().getLatencies();
+        long total = latencies.values().stream().mapToLong(Histogram::getTotalCount).sum();
+        Assert.assertEquals(total, 200, "Expected rate x duration operations");
+        latencies.keySet().forEach(step -> Assert.assertEquals(runner.getResponseTimes().getErrors(step), 0, step + " had errors"));
+    }
+
+    @Test
+    public void testQueueingBehindASlowServerIsCounted() throws InterruptedException {
+        // One request in flight against a 50 ms server while asking for one every 10 ms: a closed loop would report
+        // ~50 ms, but each operation really waits behind all the ones scheduled before it
+        startStub(50);
+        ArrivalRateRunner runner = new ArrivalRateRunner(new ArrivalRateConfig(stub.baseUrl(), 100, Duration.ofSeconds(1),
+                OperationMix.parse("getBookDetailsById=1"), 5, 1, ClientStack.RESTASSURED), new UserPool(1));
+        runner.run();
+
+        Histogram response = runner.getResponseTimes().getLatencies().get("getBookDetailsById");
+        Histogram service = runner.getServiceTimes().getLatencies().get("getBookDetailsById");
+        Reporter.log("p99 service " + service.getValueAtPercentile(99) / 1000 + " ms, response "
+                + response.getValueAtPercentile(99) / 1000 + " ms", true);
+        Assert.assertTrue(service.getValueAtPercentile(99) < TimeUnit.MILLISECONDS.toMicros(1_000), "Service time should stay near the stub latency");
+        Assert.assertTrue(response.getValueAtPercentile(99) > 4 * service.getValueAtPercentile(99),
+                "Response time should include the time spent waiting to be sent");
+    }
+}
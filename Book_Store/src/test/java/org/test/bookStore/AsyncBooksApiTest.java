@@ -0,0 +1,90 @@
+package org.test.bookStore;
+
+import api.AsyncBooksApi;
+import api.UserApi;
+import auth.Identity;
+import auth.UserPool;
+import base.ConnectionPool;
+import io.restassured.RestAssured;
+import metrics.EndpointLatencies;
+import models.Book;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+import stub.BookStoreStub;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpResponse;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+public class AsyncBooksApiTest {
+
+    private BookStoreStub stub;
+    private String accessToken;
+
+    @BeforeClass
+    public void setup() {
+        stub = new BookStoreStub(20, 0, TimeUnit.HOURS.toMillis(1)).start(0);
+        RestAssured.baseURI = stub.baseUrl();
+        RestAssured.config = ConnectionPool.restAssuredConfig();
+        Identity identity = new UserPool(1).lease();
+        accessToken = "Bearer " + UserApi.login(identity.getEmail(), identity.getPassword()).jsonPath().get("access_token");
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void tearDown() {
+        stub.close();
+        ConnectionPool.shutdown();
+        RestAssured.reset();
+    }
+
+    @Test
+    public void testCrudOverAnHttp2ClientFallsBackToHttp11() {
+        // The stub only speaks HTTP/1.1, so the h2c upgrade offered by the client has to be declined gracefully
+        AsyncBooksApi api = new AsyncBooksApi(stub.baseUrl(), HttpClient.Version.HTTP_2, 2);
+        try {
+            Book book = new Book("Dune", "Frank Herbert", 1965L, "Spice and sandworms.");
+            HttpResponse<byte[]> added = api.addNewBook(book, accessToken).join();
+            Assert.assertEquals(added.statusCode(), 200, "Add failed");
+            Assert.assertEquals(added.version(), HttpClient.Version.HTTP_1_1, "Expected a fallback to HTTP/1.1");
+            Object id = AsyncBooksApi.idOf(added);
+
+            book.setName("Dune Messiah");
+            Assert.assertEquals(api.editTheBook(id, book, accessToken).join().statusCode(), 200, "Edit failed");
+            Assert.assertTrue(new String(api.getBookDetailsById(id, accessToken).join().body()).contains("Dune Messiah"),
+                    "Edit not visible through get by id");
+            Assert.assertEquals(api.getAllBooks(accessToken).join().statusCode(), 200, "Get all failed");
+            Assert.assertEquals(api.deleteTheBookById(id, accessToken).join().statusCode(), 200, "Delete failed");
+            Assert.assertEquals(api.getBookDetailsById(id, accessToken).join().statusCode(), 404, "Book still exists after delete");
+            Assert.assertNotNull(EndpointLatencies.getHistograms().get("GET /books/{book_id}"), "Latency not recorded under the route template");
+        } finally {
+            api.close();
+        }
+    }
+
+    @Test
+    public void testManyRequestsInFlightFromTwoThreads() {
+        AsyncBooksApi api = new AsyncBooksApi(stub.baseUrl(), HttpClient.Version.HTTP_1_1, 2);
+        try {
+            Object id = AsyncBooksApi.idOf(api.addNewBook(new Book("Emma", "Jane Austen", 1815L, "Matchmaking."), accessToken).join());
+
+            // 500 reads against a 20 ms server: sequentially that would take 10 s
+            long start = System.nanoTime();
+            List<CompletableFuture<HttpResponse<byte[]>>> reads = IntStream.range(0, 500)
+                    .mapToObj(i -> api.getBookDetailsById(id, accessToken)).collect(Collectors.toList());
+            List<Integer> statuses = reads.stream().map(CompletableFuture::join).map(HttpResponse::statusCode).collect(Collectors.toList());
+            long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+            Assert.assertTrue(statuses.stream().allMatch(status -> status == 200), "Some reads failed: " + statuses);
+            Assert.assertTrue(elapsedMillis < 5_000, "Requests were not overlapped, took " + elapsedMillis + " ms");
+            api.deleteTheBookById(id, accessToken).join();
+        } finally {
+            api.close();
+        }
+    }
+}
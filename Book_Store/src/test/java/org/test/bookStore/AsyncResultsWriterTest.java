@@ -0,0 +1,184 @@
+package org.test.bookStore;
+
+import io.qameta.allure.Allure;
+import io.qameta.allure.AllureLifecycle;
+import io.qameta.allure.FileSystemResultsWriter;
+import io.qameta.allure.model.Label;
+import io.qameta.allure.model.Status;
+import io.qameta.allure.model.TestResult;
+import io.qameta.allure.model.TestResultContainer;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import reporting.AllureReporting;
+import reporting.AsyncResultsWriter;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+public class AsyncResultsWriterTest {
+
+    private static List<String> files(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(file -> file.getFileName().toString()).sorted().collect(Collectors.toList());
+        }
+    }
+
+    @Test
+    public void testOutputMatchesAllureOwnWriter() throws IOException {
+        Path async = Files.createTempDirectory("allure-async");
+        Path sync = Files.createTempDirectory("allure-sync");
+        TestResult result = new TestResult().setUuid(UUID.randomUUID().toString()).setName("Book added")
+                .setFullName("BooksApiTest.testAddNewBookAfterLogin").setStatus(Status.PASSED).setStart(1L).setStop(2L);
+        TestResultContainer container = new TestResultContainer().setUuid(UUID.randomUUID().toString())
+                .setName("BooksApiTest").setChildren(List.of(result.getUuid()));
+        byte[] attachment = "GET /books/ -> 200".getBytes(StandardCharsets.UTF_8);
+
+        try (AsyncResultsWriter writer = new AsyncResultsWriter(async, 16, 4, 1024)) {
+            writer.write(result);
+            writer.write(container);
+            writer.write("exchange-attachment.txt", new ByteArrayInputStream(attachment));
+        }
+        FileSystemResultsWriter allure = new FileSystemResultsWriter(sync);
+        allure.write(result);
+        allure.write(container);
+        allure.write("exchange-attachment.txt", new ByteArrayInputStream(attachment));
+
+        Assert.assertEquals(files(async), files(sync), "File names should follow Allure's layout");
+        for (String file : files(sync)) {
+            Assert.assertEquals(Files.readAllBytes(async.resolve(file)), Files.readAllBytes(sync.resolve(file)), file + " differs");
+        }
+    }
+
+    @Test
+    public void testBoundedQueueWritesEverythingInBatches() throws IOException {
+        Path directory = Files.createTempDirectory("allure-batches");
+        AsyncResultsWriter writer = new AsyncResultsWriter(directory, 8, 32, 1024);
+        for (int i = 0; i < 500; i++) {
+            writer.write(new TestResult().setUuid("result-" + i).setName("Result " + i).setStatus(Status.PASSED));
+        }
+        writer.close();
+
+        Assert.assertEquals(files(directory).size(), 500, "Every queued result should have been written by close()");
+        Assert.assertEquals(writer.getResultsWritten(), 500, "Results written mismatch");
+        Assert.assertTrue(writer.getBatches() < 500, "Results should have been written in batches, got " + writer.getBatches());
+        writer.close();
+        writer.write(new TestResult().setUuid("late").setStatus(Status.BROKEN));
+        Assert.assertTrue(Files.exists(directory.resolve("late-result.json")), "Writes after close should not be lost");
+    }
+
+    @Test
+    public void testLargeAttachmentsAreStreamedThrough() throws IOException {
+        Path directory = Files.createTempDirectory("allure-large");
+        byte[] large = new byte[3 * 1024 * 1024 + 7];
+        Arrays.fill(large, (byte) 'x');
+        try (AsyncResultsWriter writer = new AsyncResultsWriter(directory, 4, 4, 64 * 1024)) {
+            writer.write("large-attachment.txt", new ByteArrayInputStream(large));
+            Assert.assertEquals(Files.size(directory.resolve("large-attachment.txt")), large.length,
+                    "A large attachment should be on disk before write() returns");
+        }
+        Assert.assertEquals(Files.readAllBytes(directory.resolve("large-attachment.txt")), large, "Attachment content mismatch");
+    }
+
+    @Test
+    public void testLifecycleAttachmentsAreReferencedByTheirTest() throws IOException {
+        Path directory = Files.createTempDirectory("allure-lifecycle");
+        String uuid = UUID.randomUUID().toString();
+        try (AsyncResultsWriter writer = new AsyncResultsWriter(directory, 16, 4, 1024)) {
+            AllureLifecycle lifecycle = new AllureLifecycle(writer);
+            lifecycle.scheduleTestCase(new TestResult().setUuid(uuid).setName("Lifecycle"));
+            lifecycle.startTestCase(uuid);
+            lifecycle.addAttachment("Exchanges", "text/plain", ".txt", "GET /health -> 200".getBytes(StandardCharsets.UTF_8));
+            lifecycle.updateTestCase(uuid, result -> result.setStatus(Status.PASSED));
+            lifecycle.stopTestCase(uuid);
+            lifecycle.writeTestCase(uuid);
+        }
+
+        String json = Files.readString(directory.resolve(uuid + "-result.json"));
+        String attachment = files(directory).stream().filter(file -> file.endsWith("-attachment.txt")).findFirst().orElse(null);
+        Assert.assertNotNull(attachment, "The attachment should have been written");
+        Assert.assertTrue(json.contains(attachment), "The result should reference its attachment");
+        Assert.assertEquals(Files.readString(directory.resolve(attachment)), "GET /health -> 200", "Attachment content mismatch");
+    }
+
+    @Test
+    public void testInstalledForTheTestRun() {
+        Assert.assertNotNull(AllureReporting.writer(), "The async writer should be installed before allure-testng starts");
+    }
+
+    /**
+     * A result whose serialization waits on {@code gate} and then takes {@code millis} more, setting {@code interrupted}
+     * if the writing thread is interrupted meanwhile.
+     */
+    private static TestResult slowResult(String uuid, CountDownLatch gate, long millis, AtomicBoolean interrupted) {
+        List<Label> labels = new AbstractList<>() {
+            @Override
+            public Label get(int index) {
+                try {
+                    gate.await();
+                } catch (InterruptedException e) {
+                    interrupted.set(true);
+                }
+                long end = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(millis);
+                while (System.nanoTime() < end) {
+                    Thread.onSpinWait();
+                }
+                if (Thread.currentThread().isInterrupted()) {
+                    interrupted.set(true);
+                }
+                return new Label().setName("suite").setValue(uuid);
+            }
+
+            @Override
+            public int size() {
+                return 1;
+            }
+        };
+        return new TestResult().setUuid(uuid).setLabels(labels);
+    }
+
+    @Test
+    public void testCloseWaitsForTheWriteInProgress() throws Exception {
+        Path directory = Files.createTempDirectory("allure-close");
+        AsyncResultsWriter writer = new AsyncResultsWriter(directory, 8, 8, 1024);
+        CountDownLatch gate = new CountDownLatch(1);
+        AtomicBoolean interrupted = new AtomicBoolean();
+        // Holds the writer until close() has queued its flush marker, so the second result is written in the batch
+        // that completes the flush, while close() goes on to stop the writer
+        writer.write(slowResult("first", gate, 0, interrupted));
+        Thread closing = new Thread(writer::close);
+        closing.start();
+        Thread.sleep(200);
+        writer.write(slowResult("second", new CountDownLatch(0), 300, interrupted));
+        gate.countDown();
+        closing.join();
+
+        // An interrupt closes an interruptible file channel under the write and leaves the file cut short
+        Assert.assertFalse(interrupted.get(), "close() should not interrupt a write in progress");
+        Assert.assertEquals(writer.getFailures(), 0, "Closing should not cut a write short");
+        Assert.assertEquals(files(directory), List.of("first-result.json", "second-result.json"), "Every result should have been written");
+        Assert.assertTrue(Files.readString(directory.resolve("second-result.json")).endsWith("}"), "The second result was cut short");
+    }
+
+    @Test
+    public void testAllureStillHasTheLifecycleFieldAllureReportingReads() throws NoSuchFieldException {
+        // Fails when an Allure upgrade renames or removes it; AllureReporting could then no longer tell it is in use
+        Field lifecycle = Allure.class.getDeclaredField(AllureReporting.LIFECYCLE_FIELD);
+
+        Assert.assertTrue(Modifier.isStatic(lifecycle.getModifiers()), "Allure's lifecycle field is no longer static");
+        Assert.assertEquals(lifecycle.getType(), AllureLifecycle.class, "Allure's lifecycle field type changed");
+    }
+}
@@ -0,0 +1,198 @@
+package org.test.bookStore;
+
+import api.BookCache;
+import api.BookCacheStats;
+import api.BooksApi;
+import api.ParsedResponse;
+import api.UserApi;
+import base.ConnectionPool;
+import io.restassured.RestAssured;
+import io.restassured.builder.ResponseBuilder;
+import io.restassured.filter.Filter;
+import io.restassured.http.Header;
+import io.restassured.http.Headers;
+import io.restassured.response.Response;
+import models.Book;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+import stub.BookStoreStub;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+public class BookCacheTest {
+
+    private final AtomicInteger sent = new AtomicInteger();
+    private volatile boolean stripValidators;
+    private volatile Runnable afterNextGet;
+    private BookStoreStub stub;
+    private String accessToken;
+
+    /** Behind the cache: counts what actually goes out and can hide the stub's ETag. */
+    private final Filter wire = (requestSpec, responseSpec, ctx) -> {
+        sent.incrementAndGet();
+        Response response = ctx.next(requestSpec, responseSpec);
+        Runnable after = afterNextGet;
+        if (after != null && requestSpec.getMethod().equals("GET")) {
+            afterNextGet = null;
+            after.run();
+        }
+        if (!stripValidators) {
+            return response;
+        }
+        Headers headers = new Headers(response.getHeaders().asList().stream()
+                .filter(header -> !header.getName().equalsIgnoreCase("ETag"))
+                .collect(Collectors.<Header>toList()));
+        return new ResponseBuilder().clone(response).setHeaders(headers).build();
+    };
+
+    @BeforeMethod
+    public void setup() {
+        stub = new BookStoreStub(0, 0, TimeUnit.HOURS.toMillis(1)).start(0);
+        RestAssured.baseURI = stub.baseUrl();
+        RestAssured.config = ConnectionPool.restAssuredConfig();
+        String email = "cache" + System.nanoTime() + "@example.com";
+        UserApi.signUp(email, "Secret123");
+        accessToken = "Bearer " + UserApi.login(email, "Secret123").jsonPath().get("access_token");
+        RestAssured.filters(wire);
+        sent.set(0);
+        stripValidators = false;
+        afterNextGet = null;
+    }
+
+    @AfterMethod(alwaysRun = true)
+    public void tearDown() {
+        BookCache.uninstall();
+        stub.close();
+        ConnectionPool.shutdown();
+        RestAssured.reset();
+    }
+
+    private Object addBook(String title) {
+        return ParsedResponse.of(BooksApi.addNewBook(new Book(title, "Author", 2001L, "Summary"), accessToken)).get("id");
+    }
+
+    @Test
+    public void testFreshReadsAreServedWithoutARequest() {
+        BookCache cache = new BookCache(10, TimeUnit.MINUTES.toMillis(1));
+        BookCache.install(cache);
+        Object id = addBook("Cached");
+        sent.set(0);
+
+        Response first = BooksApi.getBookDetailsById(id, accessToken);
+        Response second = BooksApi.getBookDetailsById(id, accessToken);
+
+        Assert.assertEquals(sent.get(), 1, "The second read should not have gone out");
+        Assert.assertEquals(second.getStatusCode(), 200, "Status mismatch");
+        Assert.assertEquals(second.jsonPath().getString("name"), "Cached", "Cached body mismatch");
+        Assert.assertEquals(second.asString(), first.asString(), "A hit should return the stored body");
+        BookCacheStats stats = cache.getStats();
+        Assert.assertEquals(stats.getMisses(), 1, "Misses mismatch");
+        Assert.assertEquals(stats.getHits(), 1, "Hits mismatch");
+        Assert.assertEquals(stats.getBytesSaved(), first.asByteArray().length, "Saved bytes mismatch");
+    }
+
+    @Test
+    public void testExpiredEntriesAreRevalidatedWithTheirETag() throws InterruptedException {
+        BookCache cache = new BookCache(10, 1);
+        BookCache.install(cache);
+        Object id = addBook("Revalidated");
+
+        BooksApi.getBookDetailsById(id, accessToken);
+        Thread.sleep(5);
+        Response revalidated = BooksApi.getBookDetailsById(id, accessToken);
+
+        Assert.assertEquals(revalidated.getStatusCode(), 200, "A 304 should surface as the cached 200");
+        Assert.assertEquals(revalidated.jsonPath().getString("name"), "Revalidated", "Body mismatch");
+        Assert.assertEquals(cache.getStats().getNotModified(), 1, "The expired entry should have been confirmed with a 304");
+        Assert.assertEquals(cache.getStats().getModified(), 0, "Nothing changed in between");
+    }
+
+    @Test
+    public void testEditsAndDeletesInvalidate() {
+        BookCache cache = new BookCache(10, TimeUnit.MINUTES.toMillis(1));
+        BookCache.install(cache);
+        Object id = addBook("Before");
+
+        BooksApi.getBookDetailsById(id, accessToken);
+        BooksApi.editTheBook(id, new Book("After", "Author", 2001L, "Summary"), accessToken);
+        Assert.assertEquals(BooksApi.getBookDetailsById(id, accessToken).jsonPath().getString("name"), "After",
+                "An edit through the same client should never leave a stale copy");
+
+        BooksApi.deleteTheBookById(id.toString(), accessToken);
+        Assert.assertEquals(BooksApi.getBookDetailsById(id, accessToken).getStatusCode(), 404,
+                "A deleted book should not be served from the cache");
+        Assert.assertEquals(cache.getStats().getInvalidations(), 2, "Invalidations mismatch");
+        Assert.assertEquals(cache.size(), 0, "Nothing should be cached for a deleted book");
+    }
+
+    @Test
+    public void testReadsThatOverlapAnEditAreNotStored() {
+        BookCache cache = new BookCache(10, TimeUnit.MINUTES.toMillis(1));
+        BookCache.install(cache);
+        Object id = addBook("Before");
+        // The edit completes while the read's old copy is on its way back
+        afterNextGet = () -> BooksApi.editTheBook(id, new Book("After", "Author", 2001L, "Summary"), accessToken);
+
+        Assert.assertEquals(BooksApi.getBookDetailsById(id, accessToken).jsonPath().getString("name"), "Before",
+                "The overlapping read should see the book as it was");
+        Assert.assertEquals(cache.size(), 0, "A read that overlapped an edit stored its copy");
+        Assert.assertEquals(BooksApi.getBookDetailsById(id, accessToken).jsonPath().getString("name"), "After",
+                "A stale copy was served after the edit");
+    }
+
+    @Test
+    public void testLeastRecentlyUsedEntriesAreEvicted() {
+        BookCache cache = new BookCache(2, TimeUnit.MINUTES.toMillis(1));
+        BookCache.install(cache);
+        Object first = addBook("First");
+        Object second = addBook("Second");
+        Object third = addBook("Third");
+
+        BooksApi.getBookDetailsById(first, accessToken);
+        BooksApi.getBookDetailsById(second, accessToken);
+        BooksApi.getBookDetailsById(first, accessToken);
+        BooksApi.getBookDetailsById(third, accessToken);
+        sent.set(0);
+        BooksApi.getBookDetailsById(first, accessToken);
+
+        Assert.assertEquals(sent.get(), 0, "The recently read book should have stayed");
+        Assert.assertEquals(cache.size(), 2, "The cache should stay within its bound");
+        Assert.assertEquals(cache.getStats().getEvictions(), 1, "Evictions mismatch");
+        BooksApi.getBookDetailsById(second, accessToken);
+        Assert.assertEquals(sent.get(), 1, "The least recently used book should have been evicted");
+    }
+
+    @Test
+    public void testUnchangedRefetchesAreCountedWithoutValidators() throws InterruptedException {
+        BookCache cache = new BookCache(10, 1);
+        BookCache.install(cache);
+        stripValidators = true;
+        Object id = addBook("Unchanged");
+
+        int length = BooksApi.getBookDetailsById(id, accessToken).asByteArray().length;
+        Thread.sleep(5);
+        BooksApi.getBookDetailsById(id, accessToken);
+
+        BookCacheStats stats = cache.getStats();
+        Assert.assertEquals(stats.getNotModified(), 0, "Without an ETag there is nothing to revalidate with");
+        Assert.assertEquals(stats.getUnchangedRefetches(), 1, "The identical body should have been noticed");
+        Assert.assertEquals(stats.getBytesConditionalGetWouldSave(), length, "Potential savings mismatch");
+    }
+
+    @Test
+    public void testOtherTokensAreNotServedFromTheCache() {
+        BookCache cache = new BookCache(10, TimeUnit.MINUTES.toMillis(1));
+        BookCache.install(cache);
+        Object id = addBook("Private");
+        BooksApi.getBookDetailsById(id, accessToken);
+
+        Response anonymous = BooksApi.getBookDetailsById(id, null);
+
+        Assert.assertEquals(anonymous.getStatusCode(), 403, "A caller without a token should reach the service");
+        Assert.assertEquals(cache.getStats().getHits(), 0, "Hits mismatch");
+    }
+}
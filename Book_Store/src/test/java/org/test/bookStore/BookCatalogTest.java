@@ -0,0 +1,71 @@
+package org.test.bookStore;
+
+import api.BookCatalog;
+import api.BookIndex;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+public class BookCatalogTest {
+
+    /**
+     * A catalog of {@code count} books generated lazily, so the test itself never holds the whole body.
+     */
+    private static InputStream catalog(int count) {
+        Iterator<InputStream> parts = IntStream.rangeClosed(0, count + 1).mapToObj(i -> {
+            String part;
+            if (i == 0) part = "[";
+            else if (i == count + 1) part = "]";
+            else part = (i > 1 ? "," : "") + "{\"id\":" + i + ",\"name\":\"Book " + i + "\",\"author\":\"Author " + (i % 100)
+                    + "\",\"published_year\":2000,\"book_summary\":\"Summary of book " + i + "\"}";
+            return (InputStream) new ByteArrayInputStream(part.getBytes(StandardCharsets.UTF_8));
+        }).iterator();
+        return new SequenceInputStream(new Enumeration<>() {
+            @Override
+            public boolean hasMoreElements() {
+                return parts.hasNext();
+            }
+
+            @Override
+            public InputStream nextElement() {
+                return parts.next();
+            }
+        });
+    }
+
+    @Test
+    public void testMissingNamesInOnePass() {
+        List<String> expectedNames = IntStream.rangeClosed(1, 5_000).mapToObj(i -> "Book " + (i * 40)).collect(Collectors.toList());
+
+        Set<String> missing = BookCatalog.missingNames(catalog(100_000), expectedNames);
+
+        Assert.assertEquals(missing.size(), 2_500, "Only books beyond the catalog size should be missing");
+        Assert.assertFalse(missing.contains("Book 40"), "Book 40 is in the catalog");
+        Assert.assertTrue(missing.contains("Book 200000"), "Book 200000 is not in the catalog");
+    }
+
+    @Test
+    public void testIndexLooksUpByIdNameAndAuthor() {
+        BookIndex index = new BookIndex();
+        long scanned = BookCatalog.scan(catalog(1_000), index);
+
+        Assert.assertEquals(scanned, 1_000L, "Scanned count mismatch");
+        Assert.assertEquals(index.size(), 1_000, "Index size mismatch");
+        Assert.assertEquals(index.byId(42).getName(), "Book 42", "Lookup by id mismatch");
+        Assert.assertEquals(index.byAuthor("Author 7").size(), 10, "Books per author mismatch");
+        Assert.assertTrue(index.containsName("Book 999"), "Book 999 should be indexed");
+        Assert.assertNull(index.byId(42).getBookSummary(), "Summaries should be dropped by default");
+        Assert.assertEquals(index.missingNames(new ArrayList<>(List.of("Book 1", "Book 1001"))), List.of("Book 1001"), "Missing names mismatch");
+    }
+}
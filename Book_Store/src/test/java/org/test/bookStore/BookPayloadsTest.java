@@ -0,0 +1,63 @@
+package org.test.bookStore;
+
+import api.BookPayloads;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import models.Book;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.util.HashMap;
+
+public class BookPayloadsTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    public void testSummaryWithQuotesIsEscaped() throws IOException {
+        HashMap<String, Object> bookDetails = new HashMap<>();
+        bookDetails.put("bookName", "The \"Quoted\" Book");
+        bookDetails.put("author", "Back\\slash");
+        bookDetails.put("published_year", 2021L);
+        bookDetails.put("book_summary", "Line one\nsaid \"hello\"");
+
+        JsonNode json = objectMapper.readTree(BookPayloads.toJson(bookDetails));
+        Assert.assertEquals(json.get("name").asText(), "The \"Quoted\" Book", "Book name mismatch");
+        Assert.assertEquals(json.get("author").asText(), "Back\\slash", "Author name mismatch");
+        Assert.assertEquals(json.get("book_summary").asText(), "Line one\nsaid \"hello\"", "Book summary mismatch");
+        Assert.assertTrue(json.get("published_year").isNumber(), "Published year should be sent as a number");
+    }
+
+    @Test
+    public void testInvalidYearIsSentAsString() throws IOException {
+        HashMap<String, Object> bookDetails = new HashMap<>();
+        bookDetails.put("bookName", "Book");
+        bookDetails.put("published_year", "invalid_year");
+
+        JsonNode json = objectMapper.readTree(BookPayloads.toJson(bookDetails));
+        Assert.assertEquals(json.get("published_year").asText(), "invalid_year", "Invalid year should be passed through");
+    }
+
+    @Test
+    public void testMissingFieldsAreSentAsTheStringNull() throws IOException {
+        HashMap<String, Object> bookDetails = new HashMap<>();
+        bookDetails.put("bookName", "Book");
+
+        JsonNode json = objectMapper.readTree(BookPayloads.toJson(bookDetails));
+        Assert.assertEquals(json.get("author").textValue(), "null", "A missing author should be sent as \"null\"");
+        Assert.assertEquals(json.get("book_summary").textValue(), "null", "A missing summary should be sent as \"null\"");
+        Assert.assertEquals(json.get("published_year").textValue(), "null", "A missing year should be sent as \"null\"");
+    }
+
+    @Test
+    public void testTypedBookOmitsId() throws IOException {
+        Book book = new Book("Project Hail Mary", "Andy Weir", 2021L, "Summary");
+        book.setId(42);
+
+        JsonNode json = objectMapper.readTree(BookPayloads.toJson(book));
+        Assert.assertFalse(json.has("id"), "Id must not be sent in the request body");
+        Assert.assertEquals(json.get("published_year").asLong(), 2021L, "Published year mismatch");
+        Assert.assertEquals(json.get("book_summary").asText(), "Summary", "Book summary mismatch");
+    }
+}
@@ -0,0 +1,222 @@
+package org.test.bookStore;
+
+import api.BooksApi;
+import api.ParsedResponse;
+import api.UserApi;
+import base.ConnectionPool;
+import data.BookStoreData;
+import io.restassured.RestAssured;
+import io.restassured.response.Response;
+import models.Book;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+import stub.BookStoreStub;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+import static io.restassured.RestAssured.given;
+
+/**
+ * The embedded stub answers with the same status lines and messages the suites assert against the real service,
+ * and keeps thousands of slow requests in flight at once.
+ */
+public class BookStoreStubTest {
+
+    private static final int CONNECTIONS = 2_000;
+    private static final long LATENCY_MILLIS = 500;
+
+    private final BookStoreData bookStoreData = new BookStoreData();
+    private BookStoreStub stub;
+
+    @BeforeClass
+    public void setup() {
+        stub = BookStoreStub.fromSystemProperties().start(0);
+        RestAssured.baseURI = stub.baseUrl();
+        RestAssured.config = ConnectionPool.restAssuredConfig();
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void tearDown() {
+        stub.close();
+        ConnectionPool.shutdown();
+        RestAssured.reset();
+    }
+
+    @Test(priority = 1)
+    public void testSignUpAndLogin() {
+        String email = UserApi.generateEmailAndPassword(10) + "@gmail.com";
+        String password = UserApi.generateEmailAndPassword(8);
+
+        Response signUp = UserApi.signUp(email, password);
+        Assert.assertEquals(signUp.getStatusCode(), 200, "Sign up expected status code mismatch");
+        Assert.assertEquals(signUp.jsonPath().get("message"), "User created successfully", "User is not created");
+
+        Response duplicate = UserApi.signUp(email, password);
+        Assert.assertEquals(duplicate.getStatusCode(), 400, "Duplicate sign up expected status code mismatch");
+        Assert.assertEquals(duplicate.jsonPath().get("detail"), "Email already registered", "Duplicate sign up detail mismatch");
+
+        Response login = UserApi.login(email, password);
+        Assert.assertEquals(login.getStatusCode(), 200, "Login expected status code mismatch");
+        Assert.assertEquals(login.jsonPath().get("token_type"), "bearer", "Token type mismatch");
+        Assert.assertEquals(login.getBody().asString().chars().filter(c -> c == '.').count(), 2, "Token is not JWT shaped");
+        bookStoreData.setAccessToken("Bearer " + login.jsonPath().get("access_token"));
+    }
+
+    @Test(priority = 2)
+    public void testLoginErrors() {
+        Response unknown = UserApi.login("nobody@gmail.com", "secret");
+        Assert.assertEquals(unknown.getStatusLine(), "HTTP/1.1 400 Bad Request", "Response line mismatch");
+        Assert.assertEquals(unknown.jsonPath().get("detail"), "Incorrect email or password", "Error detail mismatch");
+
+        Response missing = UserApi.login(null, null);
+        Assert.assertEquals(missing.getStatusLine(), "HTTP/1.1 422 Unprocessable Entity", "Response line mismatch");
+        Assert.assertEquals(missing.jsonPath().get("detail[0].type"), "missing", "Missing param error type mismatch");
+        Assert.assertEquals(missing.jsonPath().get("detail[0].msg"), "Field required", "Missing param message mismatch");
+    }
+
+    @Test(priority = 3)
+    public void testBookLifecycle() {
+        Book book = new Book("Project Hail Mary", "Andy Weir", 2021L, "A lone astronaut must save humanity.");
+        ParsedResponse added = ParsedResponse.of(BooksApi.addNewBook(book, bookStoreData.getAccessToken()));
+        Assert.assertEquals(added.statusCode(), 200, "Add book expected status code mismatch");
+        Object id = added.get("id");
+        Assert.assertNotNull(id, "Unique id is not generated");
+
+        book.setName("Edited name");
+        Response edited = BooksApi.editTheBook(id, book, bookStoreData.getAccessToken());
+        Assert.assertEquals(edited.getStatusLine(), "HTTP/1.1 200 OK", "Response line is not as expected for 200");
+        book.setId(id);
+        ParsedResponse.of(edited).assertMatches(book);
+
+        HashMap<String, Object> details = new HashMap<>();
+        details.put("createdBookId", id);
+        details.put("published_year", "invalid_year");
+        Assert.assertEquals(BooksApi.editTheBook(details, bookStoreData.getAccessToken()).getStatusCode(), 400,
+                "Non-numeric year expected status code mismatch");
+        ParsedResponse.of(BooksApi.getBookDetailsById(details, bookStoreData.getAccessToken())).assertMatches(book);
+
+        Response deleted = BooksApi.deleteTheBookById(id.toString(), bookStoreData.getAccessToken());
+        Assert.assertEquals(deleted.jsonPath().get("message"), "Book deleted successfully", "Book not deleted yet");
+
+        Response gone = BooksApi.getBookDetailsById(details, bookStoreData.getAccessToken());
+        Assert.assertEquals(gone.getStatusCode(), 404, "Expected 404 for deleted book");
+        Assert.assertEquals(gone.jsonPath().get("detail"), "Book not found", "Deleted book detail mismatch");
+    }
+
+    @Test(priority = 3)
+    public void testETagChangesWithEveryEdit() {
+        Book book = new Book("Original", "Author", 2001L, "Summary");
+        Object id = ParsedResponse.of(BooksApi.addNewBook(book, bookStoreData.getAccessToken())).get("id");
+        String original = BooksApi.getBookDetailsById(id, bookStoreData.getAccessToken()).getHeader("ETag");
+
+        book.setName("Edited");
+        BooksApi.editTheBook(id, book, bookStoreData.getAccessToken());
+        book.setName("Original");
+        BooksApi.editTheBook(id, book, bookStoreData.getAccessToken());
+        Response restored = BooksApi.getBookDetailsById(id, bookStoreData.getAccessToken());
+
+        Assert.assertNotNull(original, "Book reads should carry an ETag");
+        Assert.assertNotEquals(restored.getHeader("ETag"), original, "An edited book kept the ETag of an earlier version");
+        BooksApi.deleteTheBookById(id.toString(), bookStoreData.getAccessToken());
+    }
+
+    @Test(priority = 4)
+    public void testBooksRequireToken() {
+        Assert.assertEquals(BooksApi.getAllBooks(null).get(0).getStatusCode(), 403, "Missing token expected status code mismatch");
+        Assert.assertEquals(BooksApi.getAllBooks("Bearer not-a-token").get(0).getStatusCode(), 401,
+                "Unknown token expected status code mismatch");
+        Assert.assertEquals(given().get("health").getStatusCode(), 200, "Health expected status code mismatch");
+    }
+
+    @Test(priority = 5)
+    public void testThousandsOfSlowRequestsInFlight() throws IOException {
+        byte[] request = "GET /health HTTP/1.1\r\nHost: localhost\r\n\r\n".getBytes(StandardCharsets.US_ASCII);
+        try (BookStoreStub slow = new BookStoreStub(LATENCY_MILLIS, 0, 60_000).start(0)) {
+            List<Socket> sockets = new ArrayList<>(CONNECTIONS);
+            long start = System.nanoTime();
+            try {
+                for (int i = 0; i < CONNECTIONS; i++) {
+                    Socket socket = new Socket();
+                    sockets.add(socket);
+                    socket.connect(new InetSocketAddress("127.0.0.1", slow.port()), 5_000);
+                    socket.setSoTimeout(30_000);
+                    OutputStream out = socket.getOutputStream();
+                    out.write(request);
+                    out.flush();
+                }
+                for (Socket socket : sockets) {
+                    Assert.assertTrue(readResponse(socket.getInputStream()).startsWith("HTTP/1.1 200 OK"), "Health response mismatch");
+                }
+            } finally {
+                for (Socket socket : sockets) {
+                    socket.close();
+                }
+            }
+            long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+            // Served one at a time this would take CONNECTIONS * LATENCY_MILLIS; all in flight it is about one latency
+            Assert.assertTrue(elapsedMillis < 20 * LATENCY_MILLIS,
+                    CONNECTIONS + " requests with " + LATENCY_MILLIS + " ms latency took " + elapsedMillis + " ms");
+        }
+    }
+
+    @Test(priority = 6)
+    public void testExpiredTokensAreEvicted() throws InterruptedException {
+        try (BookStoreStub shortLived = new BookStoreStub(0, 0, 1_000).start(0)) {
+            RestAssured.baseURI = shortLived.baseUrl();
+            String email = UserApi.generateEmailAndPassword(10) + "@gmail.com";
+            UserApi.signUp(email, "Secret123");
+            Response first = UserApi.login(email, "Secret123");
+            for (int i = 0; i < 19; i++) {
+                UserApi.login(email, "Secret123");
+            }
+            Assert.assertEquals(shortLived.tokenCount(), 20, "Live tokens should all be kept");
+
+            Thread.sleep(1_100);
+            Response last = UserApi.login(email, "Secret123");
+
+            Assert.assertEquals(shortLived.tokenCount(), 1, "Expired tokens were not evicted");
+            Assert.assertEquals(BooksApi.getAllBooks("Bearer " + first.jsonPath().get("access_token")).get(0).getStatusCode(), 401,
+                    "Evicted token expected status code mismatch");
+            Assert.assertEquals(BooksApi.getAllBooks("Bearer " + last.jsonPath().get("access_token")).get(0).getStatusCode(), 200,
+                    "Live token expected status code mismatch");
+        } finally {
+            RestAssured.baseURI = stub.baseUrl();
+        }
+    }
+
+    private static String readResponse(InputStream in) throws IOException {
+        StringBuilder head = new StringBuilder();
+        int contentLength = 0;
+        while (true) {
+            StringBuilder line = new StringBuilder();
+            int b;
+            while ((b = in.read()) != '\n') {
+                if (b < 0) {
+                    throw new IOException("Connection closed mid-response");
+                }
+                if (b != '\r') {
+                    line.append((char) b);
+                }
+            }
+            if (line.length() == 0) {
+                break;
+            }
+            if (line.toString().toLowerCase().startsWith("content-length:")) {
+                contentLength = Integer.parseInt(line.substring("content-length:".length()).trim());
+            }
+            head.append(line).append('\n');
+        }
+        in.readNBytes(contentLength);
+        return head.toString();
+    }
+}
@@ -0,0 +1,154 @@
+package org.test.bookStore;
+
+import api.BookSweeper;
+import api.BooksApi;
+import api.BulkBooks;
+import api.BulkResult;
+import api.ParsedResponse;
+import api.UserApi;
+import auth.Identity;
+import auth.UserPool;
+import base.BaseSetupApi;
+import base.ConnectionPool;
+import io.restassured.RestAssured;
+import models.Book;
+import org.testng.Assert;
+import org.testng.Reporter;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+import stub.BookStoreStub;
+import stub.HttpStubServer;
+import stub.StubResponse;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+public class BulkBooksTest {
+
+    private static final int BOOKS = 5_000;
+
+    private BookStoreStub stub;
+    private String accessToken;
+
+    @BeforeClass
+    public void setup() {
+        stub = new BookStoreStub(0, 0, TimeUnit.HOURS.toMillis(1)).start(0);
+        RestAssured.baseURI = stub.baseUrl();
+        RestAssured.config = ConnectionPool.restAssuredConfig();
+        Identity identity = new UserPool(4).lease();
+        accessToken = "Bearer " + UserApi.login(identity.getEmail(), identity.getPassword()).jsonPath().get("access_token");
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void tearDown() {
+        stub.close();
+        ConnectionPool.shutdown();
+        RestAssured.reset();
+    }
+
+    private static Stream<Book> books(int count) {
+        return IntStream.range(0, count).mapToObj(i -> new Book("Bulk Book " + i, "Bulk Author " + i, 2000L + i % 25, "Bulk summary " + i));
+    }
+
+    @Test
+    public void testSeedsAndTearsDownThousandsOfBooks() {
+        int booksBefore = stub.bookCount();
+        BulkBooks bulk = new BulkBooks(accessToken, 32, 3);
+
+        long start = System.nanoTime();
+        List<BulkResult> added = bulk.addAll(books(BOOKS));
+        Reporter.log("Added " + BOOKS + " books in " + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) + " ms", true);
+
+        Assert.assertEquals(added.size(), BOOKS, "Expected one result per book");
+        Assert.assertTrue(added.stream().allMatch(BulkResult::isSuccess), "Some adds failed: " + added.stream()
+                .filter(result -> !result.isSuccess()).limit(5).collect(Collectors.toList()));
+        for (int i = 0; i < BOOKS; i++) {
+            Assert.assertEquals(added.get(i).getIndex(), i, "Results are not in input order");
+        }
+        Set<Object> ids = added.stream().map(BulkResult::getId).collect(Collectors.toSet());
+        Assert.assertEquals(ids.size(), BOOKS, "Created ids are not unique");
+        Assert.assertEquals(stub.bookCount() - booksBefore, BOOKS, "Stub book count mismatch after seeding");
+
+        List<BulkResult> deleted = bulk.deleteAll(ids.stream());
+        Assert.assertTrue(deleted.stream().allMatch(result -> result.getStatus() == 200), "Some deletes failed");
+        Assert.assertEquals(stub.bookCount(), booksBefore, "Stub book count mismatch after teardown");
+    }
+
+    @Test
+    public void testTransientFailuresAreRetried() throws IOException {
+        // Every payload is refused with a 503 the first time it arrives and accepted the second time
+        AtomicInteger requests = new AtomicInteger();
+        Set<String> seen = ConcurrentHashMap.newKeySet();
+        HttpStubServer flaky = new HttpStubServer(request -> {
+            int n = requests.incrementAndGet();
+            return seen.add(request.bodyAsString())
+                    ? StubResponse.empty(503)
+                    : StubResponse.json(200, ("{\"id\":" + n + "}").getBytes(StandardCharsets.UTF_8));
+        }, 0, 0).start(0);
+        String baseUri = RestAssured.baseURI;
+        RestAssured.baseURI = "http://127.0.0.1:" + flaky.port() + "/";
+        try {
+            List<BulkResult> added = new BulkBooks(accessToken, 8, 3).addAll(books(300));
+
+            Assert.assertTrue(added.stream().allMatch(BulkResult::isSuccess), "Transient 503s were not retried");
+            Assert.assertTrue(added.stream().allMatch(result -> result.getAttempts() == 2), "Expected exactly one retry per item");
+            Assert.assertEquals(requests.get(), 600, "Server saw an unexpected number of requests");
+            // These ids only existed on the flaky server
+            added.forEach(result -> BookSweeper.shared().untrack(result.getId()));
+        } finally {
+            RestAssured.baseURI = baseUri;
+            flaky.close();
+        }
+    }
+
+    @Test
+    public void testAddsThatMayHaveReachedTheServerAreNotRetried() throws IOException {
+        // A 504 can come from a gateway after the service stored the book, so sending it again could duplicate it
+        AtomicInteger requests = new AtomicInteger();
+        HttpStubServer gateway = new HttpStubServer(request -> {
+            requests.incrementAndGet();
+            return StubResponse.empty(504);
+        }, 0, 0).start(0);
+        String baseUri = RestAssured.baseURI;
+        RestAssured.baseURI = "http://127.0.0.1:" + gateway.port() + "/";
+        try {
+            List<BulkResult> added = new BulkBooks(accessToken, 8, 3).addAll(books(50));
+
+            Assert.assertTrue(added.stream().allMatch(result -> result.getStatus() == 504), "Expected every add to fail with 504");
+            Assert.assertTrue(added.stream().allMatch(result -> result.getAttempts() == 1), "An add was retried after a 504");
+            Assert.assertEquals(requests.get(), 50, "Server saw an unexpected number of requests");
+            for (int i = 0; i < added.size(); i++) {
+                Assert.assertEquals(added.get(i).getIndex(), i, "Results are not in input order");
+            }
+        } finally {
+            RestAssured.baseURI = baseUri;
+            gateway.close();
+        }
+    }
+
+    @Test
+    public void testSweeperRemovesEverythingTheRunCreated() {
+        BaseSetupApi.installSweeper();
+        int booksBefore = stub.bookCount();
+        Set<Object> createdThroughRestAssured = new HashSet<>();
+        for (Book book : books(20).collect(Collectors.toList())) {
+            createdThroughRestAssured.add(ParsedResponse.of(BooksApi.addNewBook(book, accessToken)).get("id"));
+        }
+        new BulkBooks(accessToken).addAll(books(200));
+        BooksApi.deleteTheBookById(createdThroughRestAssured.iterator().next().toString(), accessToken);
+        Assert.assertEquals(stub.bookCount() - booksBefore, 219, "Unexpected number of books before sweeping");
+
+        Assert.assertEquals(BookSweeper.shared().sweep(), 0, "Sweeper left books behind");
+        Assert.assertEquals(stub.bookCount(), booksBefore, "Stub still holds books created by the run");
+    }
+}
@@ -0,0 +1,178 @@
+package org.test.bookStore;
+
+import api.BooksApi;
+import api.ParsedResponse;
+import api.UserApi;
+import base.ConnectionPool;
+import io.restassured.RestAssured;
+import models.Book;
+import org.testng.Assert;
+import org.testng.Reporter;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+import replay.CaptureFilter;
+import replay.CaptureReader;
+import replay.CapturedRequest;
+import replay.Replayer;
+import stub.BookStoreStub;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+public class CaptureReplayTest {
+
+    private final List<BookStoreStub> stubs = new ArrayList<>();
+    private Path log;
+
+    private BookStoreStub startStub() {
+        BookStoreStub stub = new BookStoreStub(0, 0, TimeUnit.HOURS.toMillis(1)).start(0);
+        stubs.add(stub);
+        return stub;
+    }
+
+    @BeforeMethod
+    public void setup() throws IOException {
+        log = Files.createTempDirectory("capture").resolve("session.bcap");
+        RestAssured.config = ConnectionPool.restAssuredConfig();
+    }
+
+    @AfterMethod(alwaysRun = true)
+    public void tearDown() {
+        CaptureFilter.stop();
+        stubs.forEach(BookStoreStub::close);
+        stubs.clear();
+        ConnectionPool.shutdown();
+        RestAssured.reset();
+    }
+
+    private static String login(String email, String password) {
+        return "Bearer " + UserApi.login(email, password).jsonPath().get("access_token");
+    }
+
+    /** A signup-to-delete session with {@code pauseMillis} between requests, captured to {@link #log}. */
+    private void captureSession(long pauseMillis) throws IOException, InterruptedException {
+        RestAssured.baseURI = startStub().baseUrl();
+        String email = "replay" + System.nanoTime() + "@example.com";
+        CaptureFilter.start(log);
+        UserApi.signUp(email, "Secret123");
+        Thread.sleep(pauseMillis);
+        String accessToken = login(email, "Secret123");
+        Thread.sleep(pauseMillis);
+        Object id = ParsedResponse.of(BooksApi.addNewBook(new Book("Captured", "Author", 2001L, "Summary"), accessToken)).get("id");
+        Thread.sleep(pauseMillis);
+        BooksApi.editTheBook(id, new Book("Captured Again", "Author", 2002L, "Summary"), accessToken);
+        Thread.sleep(pauseMillis);
+        BooksApi.getBookDetailsById(id, accessToken);
+        Thread.sleep(pauseMillis);
+        BooksApi.deleteTheBookById(id.toString(), accessToken);
+        Thread.sleep(pauseMillis);
+        BooksApi.getBookDetailsById(id, accessToken);
+        CaptureFilter.stop();
+    }
+
+    private static List<CapturedRequest> read(Path log) throws IOException {
+        List<CapturedRequest> requests = new ArrayList<>();
+        try (CaptureReader reader = new CaptureReader(log)) {
+            reader.forEachRemaining(requests::add);
+        }
+        return requests;
+    }
+
+    @Test
+    public void testSessionIsCapturedInOrderWithIdsAndTokens() throws IOException, InterruptedException {
+        captureSession(0);
+
+        List<CapturedRequest> requests = read(log);
+        Assert.assertEquals(requests.size(), 7, "Expected one record per request");
+        Assert.assertEquals(requests.get(0).getTemplate(), "/signup", "Template mismatch");
+        Assert.assertNotNull(requests.get(1).getIssuedToken(), "Login should record the token it issued");
+        CapturedRequest add = requests.get(2);
+        Assert.assertEquals(add.getMethod(), "POST", "Method mismatch");
+        Assert.assertEquals(add.getAuthorization(), "Bearer " + requests.get(1).getIssuedToken(), "Authorization mismatch");
+        Assert.assertTrue(new String(add.getBody(), StandardCharsets.UTF_8).contains("\"Captured\""), "Body mismatch");
+        Assert.assertNotNull(add.getCreatedId(), "Adding a book should record its id");
+        CapturedRequest edit = requests.get(3);
+        Assert.assertEquals(edit.getTemplate(), "/books/{book_id}", "Template should keep its placeholder");
+        Assert.assertEquals(edit.getPathParams().get("book_id"), add.getCreatedId(), "Path param mismatch");
+        Assert.assertEquals(requests.get(6).getStatus(), 404, "The final get should have found nothing");
+        for (CapturedRequest request : requests) {
+            String body = request.getBody() == null ? "" : new String(request.getBody(), StandardCharsets.UTF_8);
+            Assert.assertFalse(body.contains("Secret123"), "A password was captured in plain text: " + body);
+        }
+        Assert.assertTrue(requests.get(1).getIssuedToken().startsWith("redacted-"), "The issued token was captured in plain text");
+        for (int i = 1; i < requests.size(); i++) {
+            Assert.assertTrue(requests.get(i).getOffsetNanos() >= requests.get(i - 1).getOffsetNanos(), "Offsets should not go back");
+        }
+    }
+
+    @Test
+    public void testReplayRemapsIdsAndTokensOnAnotherTarget() throws IOException, InterruptedException {
+        captureSession(0);
+        BookStoreStub target = startStub();
+        // Books already on the target push the replayed book onto a different id
+        RestAssured.baseURI = target.baseUrl();
+        UserApi.signUp("seed@example.com", "Secret123");
+        String seedToken = login("seed@example.com", "Secret123");
+        for (int i = 0; i < 3; i++) {
+            BooksApi.addNewBook(new Book("Seed " + i, "Author", 2000L, "Summary"), seedToken);
+        }
+
+        Replayer replayer = new Replayer(target.baseUrl(), 0, 100);
+        Assert.assertEquals(replayer.replay(log), 7, "Every captured request should be replayed");
+
+        replayer.getResponseTimes().getLatencies().keySet().forEach(step ->
+                Assert.assertEquals(replayer.getResponseTimes().getErrors(step), 0, step + " answered differently than during capture"));
+        Assert.assertEquals(target.bookCount(), 3, "The replayed book should have been created and deleted again");
+    }
+
+    @Test
+    public void testLongSequentialLogsReplayInOrder() throws IOException, InterruptedException {
+        RestAssured.baseURI = startStub().baseUrl();
+        String email = "long" + System.nanoTime() + "@example.com";
+        CaptureFilter.start(log);
+        UserApi.signUp(email, "Secret123");
+        String accessToken = login(email, "Secret123");
+        Object id = ParsedResponse.of(BooksApi.addNewBook(new Book("Long", "Author", 2001L, "Summary"), accessToken)).get("id");
+        // Enough requests for the replay to drop what has finished and keep chaining after it
+        for (int i = 0; i < 1_100; i++) {
+            BooksApi.editTheBook(id, new Book("Long " + i, "Author", 2001L, "Summary"), accessToken);
+        }
+        BooksApi.deleteTheBookById(id.toString(), accessToken);
+        BooksApi.getBookDetailsById(id, accessToken);
+        CaptureFilter.stop();
+
+        BookStoreStub target = startStub();
+        Replayer replayer = new Replayer(target.baseUrl(), 0, 100);
+        Assert.assertEquals(replayer.replay(log), 1_105, "Every captured request should be replayed");
+
+        replayer.getResponseTimes().getLatencies().keySet().forEach(step ->
+                Assert.assertEquals(replayer.getResponseTimes().getErrors(step), 0, step + " answered differently than during capture"));
+        Assert.assertEquals(target.bookCount(), 0, "The edits should all have landed before the delete");
+    }
+
+    @Test
+    public void testReplaySpeedScalesTheCapturedTiming() throws IOException, InterruptedException {
+        captureSession(100);
+        List<CapturedRequest> requests = read(log);
+        long spanNanos = requests.get(requests.size() - 1).getOffsetNanos();
+
+        long start = System.nanoTime();
+        new Replayer(startStub().baseUrl(), 1, 100).replay(log);
+        long realTime = System.nanoTime() - start;
+        start = System.nanoTime();
+        new Replayer(startStub().baseUrl(), Replayer.parseSpeed("10x"), 100).replay(log);
+        long tenTimes = System.nanoTime() - start;
+
+        Reporter.log("captured " + TimeUnit.NANOSECONDS.toMillis(spanNanos) + " ms, 1x " + TimeUnit.NANOSECONDS.toMillis(realTime)
+                + " ms, 10x " + TimeUnit.NANOSECONDS.toMillis(tenTimes) + " ms", true);
+        Assert.assertTrue(realTime >= spanNanos, "Real-time replay should take at least as long as the capture");
+        Assert.assertTrue(tenTimes < realTime / 2, "10x replay should be much faster than real time");
+        Assert.assertEquals(Replayer.parseSpeed("max"), 0.0, "max means no pacing");
+    }
+}
@@ -0,0 +1,85 @@
+package org.test.bookStore;
+
+import config.ConfigReader;
+import config.ConfigSnapshot;
+import config.Environment;
+import logging.LogMode;
+import org.testng.Assert;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Properties;
+
+public class ConfigReaderTest {
+
+    private Path dir;
+
+    @BeforeClass
+    public void writeEnvironmentFiles() throws IOException {
+        dir = Files.createTempDirectory("env-config");
+        Files.writeString(dir.resolve("application-QA.properties"),
+                "url= http://qa.local:8000/\nprodUrl=http://prod.local/\nhttp.maxPerRoute=10\nlog.mode=sampled\n");
+        Files.writeString(dir.resolve("application-PROD.properties"), "url=http://qa.local:8000/\nprodUrl=http://prod.local/\n");
+    }
+
+    private Properties systemProperties(String... keysAndValues) {
+        Properties properties = new Properties();
+        properties.setProperty("config.dir", dir.toString());
+        for (int i = 0; i < keysAndValues.length; i += 2) {
+            properties.setProperty(keysAndValues[i], keysAndValues[i + 1]);
+        }
+        return properties;
+    }
+
+    @Test
+    public void testDefaultsToQaAndTrimsFileValues() {
+        ConfigSnapshot snapshot = ConfigReader.load(Map.of(), systemProperties());
+
+        Assert.assertEquals(snapshot.getEnvironment(), Environment.QA, "QA should be the default environment");
+        Assert.assertEquals(snapshot.get("env"), "QA", "The env key should always be present");
+        Assert.assertEquals(snapshot.getBaseUrl(), "http://qa.local:8000/", "Base URL should come from the trimmed url key");
+        Assert.assertEquals(snapshot.getHttpMaxPerRoute(), 10, "Pool size should come from the file");
+        Assert.assertEquals(snapshot.getHttpMaxTotal(), 200, "Unset values should keep their defaults");
+        Assert.assertEquals(snapshot.getLogMode(), LogMode.SAMPLED, "Log mode should be parsed case-insensitively");
+    }
+
+    @Test
+    public void testProdUsesProdUrl() {
+        ConfigSnapshot snapshot = ConfigReader.load(Map.of(), systemProperties("env", "prod"));
+
+        Assert.assertEquals(snapshot.getEnvironment(), Environment.PROD, "Environment mismatch");
+        Assert.assertEquals(snapshot.getBaseUrl(), "http://prod.local/", "PROD should target prodUrl");
+        Assert.assertEquals(snapshot.getHttpMaxPerRoute(), 50, "The QA file should not leak into PROD");
+    }
+
+    @Test
+    public void testSystemPropertiesOverrideEnvironmentVariablesOverrideTheFile() {
+        Map<String, String> environment = Map.of(
+                "BOOKSTORE_HTTP_MAX_PER_ROUTE", "20",
+                "BOOKSTORE_LOAD_RATE", "250.5",
+                "HTTP_MAX_TOTAL", "999");
+        ConfigSnapshot snapshot = ConfigReader.load(environment, systemProperties("http.maxperroute", "30"));
+
+        Assert.assertEquals(snapshot.getHttpMaxPerRoute(), 30, "System properties should win over everything");
+        Assert.assertEquals(snapshot.getLoadRate(), 250.5, "Prefixed environment variables should override defaults");
+        Assert.assertEquals(snapshot.getHttpMaxTotal(), 200, "Unprefixed environment variables should be ignored");
+        Assert.assertEquals(snapshot.getInt("http.maxPerRoute", 0), snapshot.getHttpMaxPerRoute(),
+                "Typed and generic reads should agree");
+    }
+
+    @Test
+    public void testMissingFileForAnExplicitEnvironmentFails() {
+        Assert.assertThrows(RuntimeException.class, () -> ConfigReader.load(Map.of(), systemProperties("env", "STAGE")));
+        Assert.assertThrows(IllegalArgumentException.class, () -> ConfigReader.load(Map.of(), systemProperties("env", "DEV")));
+    }
+
+    @Test
+    public void testProcessSnapshotIsLoadedOnce() {
+        Assert.assertSame(ConfigReader.snapshot(), ConfigReader.snapshot(), "The snapshot should be resolved once per JVM");
+        Assert.assertNotNull(ConfigReader.get("url"), "The repo's QA file should be found");
+    }
+}
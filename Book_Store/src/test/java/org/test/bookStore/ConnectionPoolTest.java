@@ -0,0 +1,142 @@
+package org.test.bookStore;
+
+import api.BookCatalog;
+import base.ConnectionPool;
+import com.sun.net.httpserver.HttpServer;
+import config.ConfigReader;
+import io.restassured.RestAssured;
+import io.restassured.config.RestAssuredConfig;
+import org.testng.Assert;
+import org.testng.Reporter;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static io.restassured.RestAssured.given;
+
+/**
+ * Connections opened per 1,000 requests from 5 threads (the testng.xml thread-count), counted on the server
+ * side as distinct client ports, and streamed responses that must neither be buffered nor keep their connection.
+ */
+public class ConnectionPoolTest {
+
+    private static final int REQUESTS = 1_000;
+    private static final int THREADS = 5;
+
+    private final Set<Integer> clientPorts = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean markerSent = new AtomicBoolean();
+    private final AtomicReference<CountDownLatch> firstBookRead = new AtomicReference<>(new CountDownLatch(0));
+    private HttpServer server;
+
+    @BeforeClass
+    public void setup() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/health", exchange -> {
+            clientPorts.add(exchange.getRemoteAddress().getPort());
+            byte[] body = "{\"status\":\"ok\"}".getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.createContext("/books/", exchange -> {
+            markerSent.compareAndSet(false, exchange.getRequestHeaders().containsKey(ConnectionPool.STREAM_RESPONSE_HEADER));
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, 0);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write("[{\"name\":\"first\"}".getBytes(StandardCharsets.UTF_8));
+                out.flush();
+                // Holds the rest back until the client has read the first book, which a buffered client never does
+                firstBookRead.get().await(2, TimeUnit.SECONDS);
+                out.write(",{\"name\":\"second\"}]".getBytes(StandardCharsets.UTF_8));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        server.setExecutor(Executors.newFixedThreadPool(THREADS));
+        server.start();
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void tearDown() {
+        server.stop(0);
+        ConnectionPool.shutdown();
+        RestAssured.reset();
+    }
+
+    @Test
+    public void testPooledClientReusesConnections() throws InterruptedException, ExecutionException {
+        // Pooled run goes first: the default client abandons its connections open, which skews whatever runs after it
+        int pooledConnections = connectionsPer1000Requests(ConnectionPool.restAssuredConfig());
+        int defaultConnections = connectionsPer1000Requests(RestAssuredConfig.config());
+        Reporter.log("Connections opened per " + REQUESTS + " requests: default=" + defaultConnections + ", pooled=" + pooledConnections, true);
+
+        Assert.assertTrue(pooledConnections <= ConfigReader.snapshot().getHttpMaxPerRoute(), "Pooled client opened more connections than the pool allows");
+        Assert.assertTrue(pooledConnections < defaultConnections, "Pooled client should open fewer connections than the default client");
+    }
+
+    @Test
+    public void testStreamedResponsesAreReadOffTheSocketAndReleased() throws Exception {
+        RestAssured.baseURI = "http://127.0.0.1:" + server.getAddress().getPort() + "/";
+        RestAssured.config = ConnectionPool.restAssuredConfig();
+        int streams = ConfigReader.snapshot().getHttpMaxPerRoute() + 1;
+
+        // A connection that is never handed back would block the request after maxPerRoute forever
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            executor.submit(() -> {
+                for (int i = 0; i < streams; i++) {
+                    CountDownLatch latch = new CountDownLatch(1);
+                    firstBookRead.set(latch);
+                    long start = System.nanoTime();
+                    long books = BookCatalog.streamAllBooks(null, book -> latch.countDown());
+                    Assert.assertEquals(books, 2, "Streamed book count mismatch");
+                    Assert.assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(1),
+                            "The first book was only read once the server had sent the whole body");
+                }
+                return null;
+            }).get(1, TimeUnit.MINUTES);
+        } finally {
+            executor.shutdownNow();
+        }
+        Assert.assertFalse(markerSent.get(), ConnectionPool.STREAM_RESPONSE_HEADER + " reached the server");
+    }
+
+    private int connectionsPer1000Requests(RestAssuredConfig config) throws InterruptedException, ExecutionException {
+        clientPorts.clear();
+        RestAssured.baseURI = "http://127.0.0.1:" + server.getAddress().getPort() + "/";
+        RestAssured.config = config;
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Callable<Object>> requests = Collections.nCopies(REQUESTS, () -> given().get("health").then().statusCode(200));
+            for (Future<Object> request : executor.invokeAll(requests, 1, TimeUnit.MINUTES)) {
+                Assert.assertFalse(request.isCancelled(), "Requests did not finish in time");
+                // Rethrows a failed request's exception, status assertion included
+                request.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        return clientPorts.size();
+    }
+}
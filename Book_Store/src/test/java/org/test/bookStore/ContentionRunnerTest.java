@@ -0,0 +1,90 @@
+package org.test.bookStore;
+
+import auth.UserPool;
+import base.ConnectionPool;
+import io.restassured.RestAssured;
+import load.ContentionConfig;
+import load.ContentionResult;
+import load.ContentionRunner;
+import load.WriteHistory;
+import org.testng.Assert;
+import org.testng.Reporter;
+import org.testng.annotations.Test;
+import stub.BookStoreStub;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+public class ContentionRunnerTest {
+
+    @Test
+    public void testOverlappingWritesMayFinishInAnyOrder() {
+        WriteHistory history = new WriteHistory("Book");
+        String a = history.nextMarker();
+        String b = history.nextMarker();
+        history.record(a, 0, 100, true);
+        history.record(b, 50, 80, true);
+
+        // b was acknowledged last, but a was still in flight when b was sent, so either may win
+        Assert.assertEquals(history.judge(a, a), WriteHistory.Verdict.CONSISTENT, "Overlapping write flagged");
+        Assert.assertEquals(history.judge(b, b), WriteHistory.Verdict.CONSISTENT, "Overlapping write flagged");
+    }
+
+    @Test
+    public void testSupersededAndMixedStatesAreFlagged() {
+        WriteHistory history = new WriteHistory("Book");
+        String a = history.nextMarker();
+        String b = history.nextMarker();
+        String c = history.nextMarker();
+        history.record(a, 0, 10, true);
+        history.record(b, 20, 30, true);
+        history.record(c, 40, 50, false);
+
+        Assert.assertEquals(history.judge(a, a), WriteHistory.Verdict.LOST_UPDATE, "Write b was lost");
+        Assert.assertEquals(history.judge(b, a), WriteHistory.Verdict.TORN_WRITE, "Fields from two writes");
+        Assert.assertEquals(history.judge(c, c), WriteHistory.Verdict.CONSISTENT, "An unacknowledged write may still land");
+        Assert.assertEquals(history.judge("Book #4", "Book #4"), WriteHistory.Verdict.UNKNOWN, "Marker never handed out");
+        Assert.assertEquals(history.judge("Other #1", "Other #1"), WriteHistory.Verdict.UNKNOWN, "State from outside the run");
+    }
+
+    @Test
+    public void testSupersededWritesAreNotKept() {
+        WriteHistory history = new WriteHistory("Book");
+        String first = history.nextMarker();
+        history.record(first, 0, 5, true);
+        for (int i = 1; i < 100_000; i++) {
+            history.record(history.nextMarker(), i * 10L, i * 10L + 5, true);
+        }
+
+        Assert.assertEquals(history.size(), 1, "Writes that can only be lost updates should be dropped");
+        Assert.assertEquals(history.judge(first, first), WriteHistory.Verdict.LOST_UPDATE, "Dropped write not recognised");
+        String last = "Book #100000";
+        Assert.assertEquals(history.judge(last, last), WriteHistory.Verdict.CONSISTENT, "Latest write flagged");
+    }
+
+    @Test
+    public void testContendedEditsAreNotLost() throws InterruptedException {
+        BookStoreStub stub = new BookStoreStub(2, 2, TimeUnit.HOURS.toMillis(1)).start(0);
+        RestAssured.baseURI = stub.baseUrl();
+        RestAssured.config = ConnectionPool.restAssuredConfig();
+        int booksBefore = stub.bookCount();
+        try {
+            List<ContentionResult> results = new ContentionRunner(new ContentionConfig(stub.baseUrl(), 2, List.of(1, 8),
+                    Duration.ofSeconds(1)), new UserPool(1)).run();
+            Reporter.log(results.toString(), true);
+
+            Assert.assertEquals(results.size(), 2, "Expected one result per writer count");
+            for (ContentionResult result : results) {
+                Assert.assertTrue(result.getWrites() > 0, result.getThreads() + " writers made no edits");
+                Assert.assertEquals(result.getErrors(), 0, result.getThreads() + " writers had errors");
+                Assert.assertTrue(result.isConsistent(), "Inconsistent final state: " + result);
+            }
+            Assert.assertEquals(stub.bookCount(), booksBefore, "Contended books were not deleted");
+        } finally {
+            stub.close();
+            ConnectionPool.shutdown();
+            RestAssured.reset();
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package org.test.bookStore;
+
+import constants.BookStoreEndPoints;
+import metrics.EndpointLatencies;
+import org.testng.Assert;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+public class EndpointLatenciesTest {
+
+    // The histograms are shared by the whole JVM, so every test records under endpoints of its own
+    private String prefix;
+
+    @BeforeMethod
+    public void setup() {
+        prefix = "/latencies-test-" + System.nanoTime();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testLatenciesAreGroupedByEndpointTemplate() {
+        for (int i = 1; i <= 100; i++) {
+            EndpointLatencies.record("GET", prefix + BookStoreEndPoints.BY_BOOK_ID, TimeUnit.MILLISECONDS.toNanos(i));
+        }
+        EndpointLatencies.record("POST", prefix + BookStoreEndPoints.BY_BOOK_ID, TimeUnit.MILLISECONDS.toNanos(5));
+
+        Map<String, Object> endpoints = (Map<String, Object>) EndpointLatencies.summary().get("endpoints");
+        Map<String, Object> byId = (Map<String, Object>) endpoints.get("GET " + prefix + "/books/{book_id}");
+        Map<String, Object> posted = (Map<String, Object>) endpoints.get("POST " + prefix + "/books/{book_id}");
+        Assert.assertNotNull(byId, "Missing entry for GET");
+        Assert.assertNotNull(posted, "Expected one entry per method and endpoint template");
+        Assert.assertEquals(posted.get("count"), 1L, "Methods were not kept apart");
+        Assert.assertEquals(byId.get("count"), 100L, "Count mismatch");
+        Assert.assertEquals((Double) byId.get("p50Ms"), 50.0, 0.1, "p50 mismatch");
+        Assert.assertEquals((Double) byId.get("p99Ms"), 99.0, 0.1, "p99 mismatch");
+        Assert.assertEquals((Double) byId.get("maxMs"), 100.0, 0.1, "max mismatch");
+    }
+
+    @Test
+    public void testJsonExportContainsPercentiles() {
+        EndpointLatencies.record("POST", prefix + BookStoreEndPoints.SING_UP, TimeUnit.MILLISECONDS.toNanos(12));
+
+        String json = EndpointLatencies.toJson();
+        Assert.assertTrue(json.contains("\"POST " + prefix + "signup\""), "Endpoint key missing from json");
+        Assert.assertTrue(json.contains("\"p999Ms\""), "p99.9 missing from json");
+        Assert.assertTrue(json.contains("\"throughputPerSecond\""), "Throughput missing from json");
+    }
+}
@@ -0,0 +1,93 @@
+package org.test.bookStore;
+
+import base.ConnectionPool;
+import flow.BookStoreFlows;
+import flow.Flow;
+import flow.FlowResult;
+import flow.FlowScheduler;
+import flow.StepResult;
+import io.restassured.RestAssured;
+import org.testng.Assert;
+import org.testng.Reporter;
+import org.testng.annotations.Test;
+import stub.BookStoreStub;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+public class FlowSchedulerTest {
+
+    private static void await(CountDownLatch latch) {
+        try {
+            Assert.assertTrue(latch.await(5, TimeUnit.SECONDS), "Sibling branch never started");
+        } catch (InterruptedException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Test
+    public void testIndependentBranchesRunConcurrently() {
+        // Each branch waits for the other to start, so this only completes if they run side by side
+        CountDownLatch edit = new CountDownLatch(1);
+        CountDownLatch get = new CountDownLatch(1);
+        Flow flow = Flow.named("branches")
+                .step("add", context -> context.put("id", 42))
+                .step("edit", context -> { edit.countDown(); await(get); context.put("edited", context.require("id")); }, "add")
+                .step("get", context -> { get.countDown(); await(edit); context.put("read", context.require("id")); }, "add")
+                .step("delete", context -> Assert.assertEquals(context.<Integer>require("edited"), context.<Integer>require("read")), "edit", "get");
+
+        try (FlowScheduler scheduler = new FlowScheduler(Executors.newFixedThreadPool(2))) {
+            FlowResult result = scheduler.run(flow, 1).get(0);
+            Assert.assertTrue(result.isSuccess(), "Flow failed: " + result);
+        }
+    }
+
+    @Test
+    public void testFailedStepSkipsOnlyItsDependents() {
+        Flow flow = Flow.named("failing")
+                .step("login", context -> context.put("token", "t"))
+                .step("add", context -> Assert.fail("add rejected"), "login")
+                .step("fetchAll", context -> context.require("token"), "login")
+                .step("delete", context -> context.require("book"), "add");
+
+        try (FlowScheduler scheduler = new FlowScheduler(Executors.newFixedThreadPool(2))) {
+            List<StepResult.Status> statuses = scheduler.run(flow, 1).get(0).getSteps().stream()
+                    .map(StepResult::getStatus).collect(Collectors.toList());
+            Assert.assertEquals(statuses, List.of(StepResult.Status.PASSED, StepResult.Status.FAILED,
+                    StepResult.Status.PASSED, StepResult.Status.SKIPPED), "Unexpected step outcomes");
+        }
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testUndeclaredDependencyIsRejected() {
+        Flow.named("broken").step("delete", context -> { }, "add");
+    }
+
+    @Test
+    public void testCrudFlowsRunConcurrentlyAndIsolated() {
+        BookStoreStub stub = new BookStoreStub(100, 0, TimeUnit.HOURS.toMillis(1)).start(0);
+        RestAssured.baseURI = stub.baseUrl();
+        RestAssured.config = ConnectionPool.restAssuredConfig();
+        int booksBefore = stub.bookCount();
+        try (FlowScheduler scheduler = FlowScheduler.fromSystemProperties()) {
+            long start = System.nanoTime();
+            List<FlowResult> results = scheduler.run(BookStoreFlows.crud(), 20);
+            long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            Reporter.log("20 crud flows in " + elapsedMillis + " ms", true);
+
+            Assert.assertTrue(results.stream().allMatch(FlowResult::isSuccess), "Some flows failed: " + results.stream()
+                    .filter(result -> !result.isSuccess()).limit(3).collect(Collectors.toList()));
+            Assert.assertEquals(scheduler.getStats().getCompletedFlows(), 20, "Completed flow count mismatch");
+            Assert.assertEquals(stub.bookCount(), booksBefore, "Flows left books behind");
+            // 20 flows of 12 requests against a 100 ms server take 24 s one after another
+            Assert.assertTrue(elapsedMillis < 8_000, "Flows did not overlap, took " + elapsedMillis + " ms");
+        } finally {
+            stub.close();
+            ConnectionPool.shutdown();
+            RestAssured.reset();
+        }
+    }
+}
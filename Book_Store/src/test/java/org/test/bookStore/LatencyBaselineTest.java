@@ -0,0 +1,90 @@
+package org.test.bookStore;
+
+import constants.BookStoreEndPoints;
+import metrics.BaselineComparison;
+import metrics.BaselineDelta;
+import metrics.EndpointLatencies;
+import metrics.LatencyBaseline;
+import org.testng.Assert;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+public class LatencyBaselineTest {
+
+    private static final String BY_ID = "GET " + BookStoreEndPoints.BY_BOOK_ID;
+
+    private LatencyBaseline baseline;
+
+    @BeforeMethod
+    public void setup() throws IOException {
+        Path file = Files.createTempDirectory("baseline").resolve("endpoint-latencies.json");
+        baseline = new LatencyBaseline(file, 0.20, 0.20, 20);
+    }
+
+    private static Map<String, Object> run(String endpoint, long count, double p99Ms, double throughput) {
+        return Map.of("elapsedSeconds", 10.0, "endpoints", Map.of(endpoint,
+                Map.of("count", count, "throughputPerSecond", throughput, "p99Ms", p99Ms)));
+    }
+
+    @Test
+    public void testRecordedBaselineRoundTrips() {
+        EndpointLatencies.reset();
+        for (int i = 1; i <= 100; i++) {
+            EndpointLatencies.record("GET", BookStoreEndPoints.BY_BOOK_ID, TimeUnit.MILLISECONDS.toNanos(i));
+        }
+        Map<String, Object> summary = EndpointLatencies.summary();
+        baseline.record(summary);
+
+        Map<String, Object> loaded = baseline.load();
+        Assert.assertEquals(loaded.get("schemaVersion"), LatencyBaseline.SCHEMA_VERSION, "Schema version missing");
+        Assert.assertNotNull(loaded.get("createdAt"), "Recording time missing");
+        BaselineComparison comparison = baseline.compare(summary);
+        Assert.assertFalse(comparison.hasRegressions(), "A run regressed against itself:\n" + comparison);
+        Assert.assertEquals(comparison.getDeltas().size(), 2, "Expected p99 and throughput to be compared");
+    }
+
+    @Test
+    public void testP99AndThroughputRegressionsAreFlagged() {
+        baseline.record(run(BY_ID, 1000, 10.0, 100.0));
+
+        Assert.assertFalse(baseline.compare(run(BY_ID, 1000, 11.9, 81.0)).hasRegressions(), "Change within tolerance was flagged");
+
+        List<BaselineDelta> regressions = baseline.compare(run(BY_ID, 1000, 12.5, 70.0)).regressions();
+        Assert.assertEquals(regressions.size(), 2, "Expected both p99 and throughput to regress");
+        Assert.assertEquals(regressions.get(0).getMetric(), "p99Ms", "p99 regression missing");
+        Assert.assertEquals(regressions.get(0).getChange(), 0.25, 1e-9, "Relative change mismatch");
+        Assert.assertEquals(regressions.get(1).getMetric(), "throughputPerSecond", "Throughput regression missing");
+    }
+
+    @Test
+    public void testThroughputCanBeLeftOutOfTheComparison() {
+        baseline.record(run(BY_ID, 1000, 10.0, 100.0));
+
+        BaselineComparison comparison = baseline.withoutThroughput().compare(run(BY_ID, 1000, 10.5, 40.0));
+        Assert.assertFalse(comparison.hasRegressions(), "Throughput was judged:\n" + comparison);
+        Assert.assertEquals(comparison.getDeltas().size(), 1, "Expected p99 alone to be compared");
+        Assert.assertTrue(baseline.withoutThroughput().compare(run(BY_ID, 1000, 12.5, 100.0)).hasRegressions(),
+                "p99 regression missed without throughput");
+    }
+
+    @Test
+    public void testSparseAndMissingEndpointsAreNotedNotJudged() {
+        baseline.record(run(BY_ID, 1000, 10.0, 100.0));
+
+        BaselineComparison sparse = baseline.compare(run(BY_ID, 5, 500.0, 1.0));
+        Assert.assertFalse(sparse.hasRegressions(), "Endpoint below perf.minSamples was judged");
+        Assert.assertEquals(sparse.getNotes().size(), 1, "Expected a note for the skipped endpoint");
+
+        BaselineComparison missing = baseline.compare(run("POST " + BookStoreEndPoints.LOG_IN, 1000, 1.0, 100.0));
+        Assert.assertFalse(missing.hasRegressions(), "Missing endpoint counted as a regression");
+        Assert.assertEquals(missing.getNotes().size(), 2, "Expected notes for the missing and the new endpoint");
+        Assert.assertTrue(missing.toMarkdown().contains("is new since the baseline"), "New endpoint not reported");
+    }
+}
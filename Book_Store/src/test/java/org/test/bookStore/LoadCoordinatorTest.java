@@ -0,0 +1,76 @@
+package org.test.bookStore;
+
+import load.ArrivalRateConfig;
+import load.ClientStack;
+import load.LoadCoordinator;
+import load.OperationMix;
+import load.WorkerReport;
+import org.HdrHistogram.Histogram;
+import org.testng.Assert;
+import org.testng.Reporter;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.Test;
+import stub.BookStoreStub;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+public class LoadCoordinatorTest {
+
+    private BookStoreStub stub;
+
+    @AfterMethod(alwaysRun = true)
+    public void tearDown() {
+        if (stub != null) {
+            stub.close();
+            stub = null;
+        }
+    }
+
+    private static long total(Iterable<Histogram> histograms) {
+        long total = 0;
+        for (Histogram histogram : histograms) {
+            total += histogram.getTotalCount();
+        }
+        return total;
+    }
+
+    @Test
+    public void testWorkerJvmsShareTheRateAndTheirHistogramsMergeExactly() throws IOException, InterruptedException {
+        stub = new BookStoreStub(2, 0, TimeUnit.HOURS.toMillis(1)).start(0);
+        ArrivalRateConfig config = new ArrivalRateConfig(stub.baseUrl(), 100, Duration.ofSeconds(2),
+                OperationMix.parse(OperationMix.DEFAULT), 10, 50, ClientStack.RESTASSURED);
+
+        try (LoadCoordinator coordinator = new LoadCoordinator(config, 2, 0, Duration.ofMinutes(2))) {
+            coordinator.launchLocalWorkers(2);
+            coordinator.run();
+
+            Reporter.log("Merged:\n" + coordinator.getResponseTimes().summary(coordinator.getElapsedSeconds()), true);
+            Assert.assertEquals(coordinator.getLatestReports().size(), 2, "Expected a final report from each worker");
+            long perWorker = 0;
+            for (WorkerReport report : coordinator.getLatestReports().values()) {
+                Assert.assertTrue(report.isDone(), "Worker " + report.getWorker() + " did not finish");
+                Assert.assertNull(report.getError(), "Worker " + report.getWorker() + " failed");
+                long operations = total(report.getResponseTimes().getLatencies().values());
+                Assert.assertEquals(operations, 100, "Each worker should run half of rate x duration");
+                perWorker += operations;
+            }
+            Assert.assertEquals(total(coordinator.getResponseTimes().getLatencies().values()), perWorker,
+                    "Merged histograms should count every worker's operations");
+            Assert.assertEquals(total(coordinator.getServiceTimes().getLatencies().values()), perWorker, "Service time count mismatch");
+            coordinator.getResponseTimes().getLatencies().keySet().forEach(step ->
+                    Assert.assertEquals(coordinator.getResponseTimes().getErrors(step), 0, step + " had errors"));
+            Assert.assertTrue(coordinator.getEndpoints().containsKey("GET /books/{book_id}"), "Endpoint latencies were not merged");
+        }
+    }
+
+    @Test
+    public void testMissingWorkersFailTheRun() throws IOException {
+        ArrivalRateConfig config = new ArrivalRateConfig("http://127.0.0.1:1/", 10, Duration.ofSeconds(1),
+                OperationMix.parse(OperationMix.DEFAULT), 1, 1, ClientStack.RESTASSURED);
+        try (LoadCoordinator coordinator = new LoadCoordinator(config, 1, 0, Duration.ofMillis(300))) {
+            Assert.assertThrows(IllegalStateException.class, coordinator::run);
+        }
+    }
+}
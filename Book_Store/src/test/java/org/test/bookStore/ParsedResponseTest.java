@@ -0,0 +1,102 @@
+package org.test.bookStore;
+
+import api.ParsedResponse;
+import com.fasterxml.jackson.databind.JsonNode;
+import io.restassured.builder.ResponseBuilder;
+import io.restassured.http.ContentType;
+import io.restassured.response.Response;
+import models.Book;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+public class ParsedResponseTest {
+
+    private static Response bookResponse() {
+        return new ResponseBuilder()
+                .setStatusCode(200)
+                .setContentType(ContentType.JSON)
+                .setBody("{\"id\":7,\"name\":\"Project Hail Mary\",\"author\":\"Andy Weir\",\"published_year\":2021,\"book_summary\":\"Sci-fi\"}")
+                .build();
+    }
+
+    @Test
+    public void testFieldsAreReadFromOneParse() {
+        ParsedResponse body = ParsedResponse.of(bookResponse());
+
+        Assert.assertEquals(body.get("id"), 7, "Book id mismatch");
+        Assert.assertEquals(body.get("name"), "Project Hail Mary", "Book name mismatch");
+        Assert.assertNull(body.get("missing"), "Absent field should be null");
+        Assert.assertSame(body.json(), body.json(), "Body should only be parsed once");
+        Assert.assertEquals(body.asBook().getPublishedYear(), Long.valueOf(2021), "Published year mismatch");
+    }
+
+    @Test
+    public void testAssertMatchesAcceptsEquivalentBook() {
+        Book expected = new Book(7, "Project Hail Mary", "Andy Weir", 2021L, "Sci-fi");
+        ParsedResponse.of(bookResponse()).assertMatches(expected);
+    }
+
+    @Test
+    public void testAssertMatchesReportsEveryMismatch() {
+        Book expected = new Book(7, "Other Name", "Other Author", 2021L, "Sci-fi");
+        try {
+            ParsedResponse.of(bookResponse()).assertMatches(expected);
+            Assert.fail("Mismatching book should fail the assertion");
+        } catch (AssertionError e) {
+            Assert.assertTrue(e.getMessage().contains("Book name mismatch"), "Book name mismatch not reported");
+            Assert.assertTrue(e.getMessage().contains("Author name mismatch"), "Author name mismatch not reported");
+        }
+    }
+
+    @Test
+    public void testSameResponseIsParsedOnce() {
+        Response response = bookResponse();
+
+        Assert.assertSame(ParsedResponse.of(response).json(), ParsedResponse.of(response).json(),
+                "Wrapping the same response again should reuse its parsed body");
+    }
+
+    @Test
+    public void testWrapperKeepsItsTreeAfterOtherResponsesAreParsed() {
+        ParsedResponse body = ParsedResponse.of(bookResponse());
+        JsonNode first = body.json();
+        for (int i = 0; i < 1_000; i++) {
+            ParsedResponse.of(bookResponse()).json();
+        }
+
+        Assert.assertSame(body.json(), first, "A wrapper should never parse its response twice");
+    }
+
+    @Test
+    public void testNullFieldIsCheckedUnlessNamedUnchecked() {
+        Book withoutName = new Book(7, null, "Andy Weir", 2021L, "Sci-fi");
+        try {
+            ParsedResponse.of(bookResponse()).assertMatches(withoutName);
+            Assert.fail("A null expected field should not match a name in the response");
+        } catch (AssertionError e) {
+            Assert.assertTrue(e.getMessage().contains("Book name mismatch: expected [null]"), "Null name mismatch not reported");
+        }
+
+        ParsedResponse.of(bookResponse()).assertMatches(withoutName, "name");
+    }
+
+    @Test
+    public void testFromDetailsKeepsYearGivenAsString() {
+        Map<String, Object> details = new HashMap<>();
+        details.put("bookName", "Project Hail Mary");
+        details.put("published_year", "2021");
+
+        Assert.assertEquals(Book.fromDetails(details).getPublishedYear(), Long.valueOf(2021), "Published year mismatch");
+
+        details.put("published_year", "invalid_year");
+        try {
+            Book.fromDetails(details);
+            Assert.fail("A year that is not a number should be rejected, not dropped");
+        } catch (IllegalArgumentException e) {
+            Assert.assertTrue(e.getMessage().contains("invalid_year"), "Rejected year missing from the message");
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package org.test.bookStore;
+
+import api.BooksApi;
+import api.Compression;
+import api.ParsedResponse;
+import api.UserApi;
+import auth.UserPool;
+import base.ConnectionPool;
+import io.restassured.RestAssured;
+import load.PayloadSizeConfig;
+import load.PayloadSizeResult;
+import load.PayloadSizeRunner;
+import metrics.WireBytes;
+import models.Book;
+import org.testng.Assert;
+import org.testng.Reporter;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+import stub.BookStoreStub;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+public class PayloadSizeRunnerTest {
+
+    private BookStoreStub stub;
+
+    @BeforeClass
+    public void startStub() {
+        stub = new BookStoreStub(0, 0, TimeUnit.HOURS.toMillis(1)).start(0);
+        RestAssured.baseURI = stub.baseUrl();
+        RestAssured.config = ConnectionPool.restAssuredConfig();
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void tearDown() {
+        stub.close();
+        ConnectionPool.shutdown();
+        RestAssured.reset();
+    }
+
+    @DataProvider
+    public Object[][] summarySizes() {
+        return new Object[][]{{100}, {10_000}, {1_000_000}};
+    }
+
+    private static PayloadSizeResult result(List<PayloadSizeResult> results, Compression compression, String operation) {
+        Map<String, PayloadSizeResult> byOperation = results.stream().filter(result -> result.getCompression() == compression)
+                .collect(Collectors.toMap(PayloadSizeResult::getOperation, Function.identity()));
+        Assert.assertTrue(byOperation.containsKey(operation), "No " + operation + " result for " + compression);
+        return byOperation.get(operation);
+    }
+
+    @Test(dataProvider = "summarySizes")
+    public void testEveryOperationIsMeasuredPerSizeAndCompression(int summaryBytes) {
+        int booksBefore = stub.bookCount();
+        List<PayloadSizeResult> results = new PayloadSizeRunner(new PayloadSizeConfig(stub.baseUrl(), List.of(summaryBytes), 2,
+                List.of(Compression.IDENTITY, Compression.GZIP)), new UserPool(1)).run();
+        Reporter.log(results.toString(), true);
+
+        Assert.assertEquals(results.size(), 6, "Expected three operations per compression mode");
+        for (PayloadSizeResult result : results) {
+            Assert.assertEquals(result.getErrors(), 0, "Failed requests in " + result);
+            Assert.assertEquals(result.getRequests(), 2, "Request count mismatch in " + result);
+            Assert.assertTrue(result.getAllocatedBytes() > 0, "Allocation was not measured in " + result);
+        }
+        PayloadSizeResult plainAdd = result(results, Compression.IDENTITY, "addNewBook");
+        PayloadSizeResult plainCatalog = result(results, Compression.IDENTITY, "getAllBooks");
+        Assert.assertTrue(plainAdd.getSentBytes() > summaryBytes, "A plain add should send at least the summary");
+        Assert.assertTrue(plainCatalog.getReceivedBytes() > 2L * summaryBytes, "A plain catalog read should carry both summaries");
+        if (summaryBytes >= 10_000) {
+            Assert.assertTrue(result(results, Compression.GZIP, "addNewBook").getSentBytes() < plainAdd.getSentBytes() / 2,
+                    "Gzip should at least halve a large request body");
+            Assert.assertTrue(result(results, Compression.GZIP, "getAllBooks").getReceivedBytes() < plainCatalog.getReceivedBytes() / 2,
+                    "Gzip should at least halve a large catalog");
+        }
+        Assert.assertEquals(stub.bookCount(), booksBefore, "The sweep's books were not deleted");
+    }
+
+    @Test
+    public void testGzippedBooksRoundTripIntact() {
+        String email = "payload" + System.nanoTime() + "@example.com";
+        UserApi.signUp(email, "Secret123");
+        String accessToken = "Bearer " + UserApi.login(email, "Secret123").jsonPath().get("access_token");
+        String summary = "A long and repetitive summary. ".repeat(2_000);
+        WireBytes.reset();
+
+        Object id = ParsedResponse.of(BooksApi.addNewBook(new Book("Gzipped", "Author", 2001L, summary), accessToken, Compression.GZIP)).get("id");
+        Assert.assertTrue(WireBytes.sent() < summary.length() / 10, "The request body should have gone out compressed");
+
+        ParsedResponse book = ParsedResponse.of(BooksApi.getBookDetailsById(id, accessToken, Compression.GZIP));
+        Assert.assertTrue(WireBytes.received() < summary.length() / 10, "The response body should have come back compressed");
+        Assert.assertEquals(book.get("book_summary"), summary, "The summary should survive both directions intact");
+
+        long sent = WireBytes.sent();
+        BooksApi.editTheBook(id, new Book("Plain", "Author", 2001L, summary), accessToken, Compression.IDENTITY);
+        Assert.assertTrue(WireBytes.sent() - sent > summary.length(), "A later plain call should not inherit gzip");
+        BooksApi.deleteTheBookById(String.valueOf(id), accessToken);
+    }
+}
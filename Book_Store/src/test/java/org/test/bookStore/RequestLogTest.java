@@ -0,0 +1,145 @@
+package org.test.bookStore;
+
+import com.sun.net.httpserver.HttpServer;
+import flow.Flow;
+import flow.FlowScheduler;
+import flow.StepResult;
+import io.restassured.RestAssured;
+import io.restassured.response.Response;
+import logging.ExchangeRecord;
+import logging.LogMode;
+import logging.RequestLog;
+import logging.RingBufferLogFilter;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static io.restassured.RestAssured.given;
+
+public class RequestLogTest {
+
+    private HttpServer server;
+    private String baseUri;
+
+    @BeforeClass
+    public void setup() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/login", exchange -> {
+            byte[] body = "{\"detail\":\"Incorrect email or password\"}".getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(400, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.createContext("/catalog", exchange -> {
+            byte[] body = ("[\"" + "x".repeat(100_000) + "\"]").getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.start();
+        baseUri = "http://127.0.0.1:" + server.getAddress().getPort() + "/";
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    public void testExchangesAreKeptPerThreadWithFullDetail() {
+        long start = System.currentTimeMillis();
+        for (int i = 0; i < 3; i++) {
+            given().baseUri(baseUri).filter(RingBufferLogFilter.INSTANCE)
+                    .body("{\"email\":\"user" + i + "@gmail.com\"}")
+                    .post("login");
+        }
+
+        List<ExchangeRecord> records = RequestLog.recent(RequestLog.scope(), start);
+        Assert.assertEquals(records.size(), 3, "Expected one record per exchange");
+        Assert.assertTrue(records.get(0).compact().contains("POST /login -> 400"), "Compact record mismatch: " + records.get(0).compact());
+        Assert.assertTrue(records.get(2).fullDetail().contains("user2@gmail.com"), "Request body missing from full detail");
+        Assert.assertTrue(records.get(2).fullDetail().contains("Incorrect email or password"), "Response body missing from full detail");
+    }
+
+    @Test
+    public void testOtherThreadsExchangesAreNotReturned() throws InterruptedException {
+        long start = System.currentTimeMillis();
+        AtomicReference<String> otherScope = new AtomicReference<>();
+        Thread other = new Thread(() -> {
+            otherScope.set(RequestLog.scope());
+            given().baseUri(baseUri).filter(RingBufferLogFilter.INSTANCE).post("login");
+        });
+        other.start();
+        other.join();
+
+        Assert.assertTrue(RequestLog.recent(RequestLog.scope(), start).isEmpty(), "Records from another thread leaked");
+        Assert.assertEquals(RequestLog.recent(otherScope.get(), start).size(), 1, "Other thread's record missing");
+        RestAssured.reset();
+    }
+
+    @Test
+    public void testLargeBodiesAreTruncatedWhenRecorded() {
+        long start = System.currentTimeMillis();
+        String summary = "x".repeat(100_000);
+        given().baseUri(baseUri).filter(RingBufferLogFilter.INSTANCE)
+                .body("{\"summary\":\"" + summary + "\"}")
+                .post("login");
+
+        String detail = RequestLog.recent(RequestLog.scope(), start).get(0).fullDetail();
+        Assert.assertTrue(detail.length() < 10_000, "Request body was kept whole: " + detail.length() + " chars");
+        Assert.assertTrue(detail.contains("chars)"), "Truncation not marked: " + detail);
+        Assert.assertTrue(detail.contains("<-- HTTP/1.1 400") && detail.contains(": application/json"), "Response status or headers missing: " + detail);
+    }
+
+    @Test
+    public void testLargeResponseBodiesAreTruncatedWhenRecorded() {
+        long start = System.currentTimeMillis();
+        Response response = given().baseUri(baseUri).filter(RingBufferLogFilter.INSTANCE).get("catalog");
+
+        String detail = RequestLog.recent(RequestLog.scope(), start).get(0).fullDetail();
+        Assert.assertTrue(detail.length() < 10_000, "Response body was kept whole: " + detail.length() + " chars");
+        Assert.assertTrue(detail.contains("... (100004 bytes)"), "Truncation not marked: " + detail);
+        Assert.assertEquals(response.asByteArray().length, 100_004, "Recording cut the body the caller reads");
+    }
+
+    @Test
+    public void testFlowStepExchangesAreFoundUnderTheCallersScope() {
+        long start = System.currentTimeMillis();
+        Flow flow = Flow.named("logged")
+                .step("login", context -> given().baseUri(baseUri).filter(RingBufferLogFilter.INSTANCE).post("login"));
+
+        try (FlowScheduler scheduler = new FlowScheduler(Executors.newFixedThreadPool(1))) {
+            Assert.assertEquals(scheduler.run(flow, 1).get(0).getSteps().get(0).getStatus(), StepResult.Status.PASSED, "Step failed");
+        }
+
+        List<ExchangeRecord> records = RequestLog.recent(RequestLog.scope(), start);
+        Assert.assertEquals(records.size(), 1, "The step's exchange should be found under the scope that ran the flow");
+        Assert.assertTrue(records.get(0).compact().contains("POST /login -> 400"), "Compact record mismatch: " + records.get(0).compact());
+    }
+
+    @Test
+    public void testInstallingAllTwiceAddsTheFiltersOnce() {
+        try {
+            RequestLog.install(LogMode.ALL);
+            int filters = RestAssured.filters().size();
+            RequestLog.install(LogMode.ALL);
+
+            Assert.assertEquals(RestAssured.filters().size(), filters, "Installing again added duplicate filters");
+        } finally {
+            RestAssured.reset();
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package org.test.bookStore;
+
+import api.UserApi;
+import auth.IdentityGenerator;
+import base.BaseSetupApi;
+import base.ConnectionPool;
+import base.ServiceHealth;
+import base.WarmUp;
+import io.restassured.RestAssured;
+import metrics.EndpointLatencies;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import stub.BookStoreStub;
+import stub.HttpStubServer;
+import stub.StubResponse;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class ServiceHealthTest {
+
+    private static final byte[] HEALTHY = "{\"status\":\"up\"}".getBytes(StandardCharsets.UTF_8);
+
+    @Test
+    public void testWaitsWithBackoffUntilTheServiceIsReady() throws IOException {
+        AtomicInteger checks = new AtomicInteger();
+        HttpStubServer server = new HttpStubServer(request -> checks.incrementAndGet() <= 3
+                ? StubResponse.empty(503) : StubResponse.json(200, HEALTHY), 0, 0).start(0);
+        try {
+            long start = System.nanoTime();
+            new ServiceHealth("http://127.0.0.1:" + server.port() + "/", Duration.ofSeconds(10), Duration.ZERO, 3).awaitReady();
+
+            Assert.assertEquals(checks.get(), 4, "Expected three failed checks before the ready one");
+            // Backoff of 100 + 200 + 400 ms between the four checks
+            Assert.assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) >= 700, "Checks were not backed off");
+        } finally {
+            server.close();
+        }
+    }
+
+    @Test
+    public void testGivesUpWhenTheServiceNeverComesUp() throws IOException {
+        int closedPort;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            closedPort = socket.getLocalPort();
+        }
+        ServiceHealth health = new ServiceHealth("http://127.0.0.1:" + closedPort + "/", Duration.ofSeconds(1), Duration.ZERO, 3);
+
+        IllegalStateException error = Assert.expectThrows(IllegalStateException.class, health::awaitReady);
+        Assert.assertTrue(error.getMessage().contains("not ready"), "Unexpected message: " + error.getMessage());
+    }
+
+    @Test
+    public void testBecomesUnhealthyAfterConsecutiveFailedChecks() throws Exception {
+        AtomicBoolean up = new AtomicBoolean(true);
+        AtomicInteger failedChecks = new AtomicInteger();
+        HttpStubServer server = new HttpStubServer(request -> {
+            if (up.get()) {
+                return StubResponse.json(200, HEALTHY);
+            }
+            failedChecks.incrementAndGet();
+            return StubResponse.empty(503);
+        }, 0, 0).start(0);
+        ServiceHealth health = new ServiceHealth("http://127.0.0.1:" + server.port() + "/", Duration.ofSeconds(5), Duration.ofMillis(20), 3);
+        try {
+            health.awaitReady();
+            health.startMonitoring();
+            Assert.assertSame(ServiceHealth.monitored(), health, "Monitoring instance not published");
+            Thread.sleep(100);
+            Assert.assertTrue(health.isHealthy(), "Healthy service reported unhealthy");
+
+            up.set(false);
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (health.isHealthy() && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+            Assert.assertFalse(health.isHealthy(), "Service never marked unhealthy");
+            Assert.assertTrue(failedChecks.get() >= 3, "Marked unhealthy before three failed checks");
+            Assert.expectThrows(IllegalStateException.class, health::assertHealthy);
+        } finally {
+            health.stopMonitoring();
+            server.close();
+        }
+        Assert.assertNull(ServiceHealth.monitored(), "Monitoring instance not cleared");
+    }
+
+    @Test
+    public void testWarmUpTimingsAreDiscarded() {
+        BookStoreStub stub = new BookStoreStub(0, 0, TimeUnit.HOURS.toMillis(1)).start(0);
+        RestAssured.baseURI = stub.baseUrl();
+        RestAssured.config = ConnectionPool.restAssuredConfig();
+        BaseSetupApi.installLatencyFilter();
+        int booksBefore = stub.bookCount();
+        try {
+            UserApi.signUp(IdentityGenerator.nextEmail(), UserApi.generateEmailAndPassword(8));
+            Map<String, Long> before = counts();
+            Assert.assertEquals(before, Map.of("POST /signup", 1L), "Timed request was not recorded");
+
+            WarmUp.run(3);
+
+            Assert.assertEquals(counts(), before, "Warm-up latencies were recorded or earlier ones discarded");
+            Assert.assertEquals(stub.bookCount(), booksBefore, "Warm-up left books behind");
+        } finally {
+            stub.close();
+            ConnectionPool.shutdown();
+            RestAssured.reset();
+        }
+    }
+
+    private static Map<String, Long> counts() {
+        Map<String, Long> counts = new HashMap<>();
+        EndpointLatencies.getHistograms().forEach((endpoint, histogram) -> counts.put(endpoint, histogram.getTotalCount()));
+        return counts;
+    }
+}
@@ -0,0 +1,98 @@
+package org.test.bookStore;
+
+import auth.TokenProvider;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class TokenProviderTest {
+
+    private static String jwtExpiringIn(long millis, int serial) {
+        Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+        long exp = TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis() + millis);
+        String claims = "{\"sub\":\"user\",\"exp\":" + exp + ",\"n\":" + serial + "}";
+        return encoder.encodeToString("{\"alg\":\"HS256\"}".getBytes(StandardCharsets.UTF_8)) + "."
+                + encoder.encodeToString(claims.getBytes(StandardCharsets.UTF_8)) + ".signature";
+    }
+
+    @Test
+    public void testConcurrentCallersShareOneLogin() throws InterruptedException {
+        AtomicInteger logins = new AtomicInteger();
+        TokenProvider provider = new TokenProvider((email, password) -> {
+            logins.incrementAndGet();
+            sleep(200);
+            return jwtExpiringIn(TimeUnit.MINUTES.toMillis(30), logins.get());
+        }, TimeUnit.MINUTES.toMillis(15), TimeUnit.MINUTES.toMillis(1));
+
+        ExecutorService executor = Executors.newFixedThreadPool(20);
+        CountDownLatch done = new CountDownLatch(100);
+        for (int i = 0; i < 100; i++) {
+            executor.submit(() -> {
+                Assert.assertTrue(provider.bearerToken("user@gmail.com", "secret").startsWith("Bearer "), "Token is not bearer");
+                done.countDown();
+            });
+        }
+        Assert.assertTrue(done.await(10, TimeUnit.SECONDS), "Token requests did not finish in time");
+        executor.shutdown();
+        provider.shutdown();
+
+        Assert.assertEquals(logins.get(), 1, "Expected exactly one login for one identity");
+    }
+
+    @Test
+    public void testTokenIsRefreshedBeforeExpiry() {
+        AtomicInteger logins = new AtomicInteger();
+        TokenProvider provider = new TokenProvider((email, password) -> jwtExpiringIn(5_000, logins.incrementAndGet()),
+                TimeUnit.MINUTES.toMillis(15), 3_500);
+
+        String first = provider.bearerToken("user@gmail.com", "secret");
+        sleep(2_500);
+        String second = provider.bearerToken("user@gmail.com", "secret");
+        provider.shutdown();
+
+        Assert.assertEquals(logins.get(), 2, "Expected one background refresh");
+        Assert.assertNotEquals(second, first, "Refreshed token should replace the cached one");
+    }
+
+    @Test
+    public void testSlowLoginStillCountsAsUse() {
+        AtomicInteger logins = new AtomicInteger();
+        TokenProvider provider = new TokenProvider((email, password) -> {
+            sleep(300);
+            return jwtExpiringIn(5_000, logins.incrementAndGet());
+        }, TimeUnit.MINUTES.toMillis(15), 3_500);
+
+        provider.bearerToken("user@gmail.com", "secret");
+        sleep(2_500);
+        provider.shutdown();
+
+        Assert.assertEquals(logins.get(), 2, "An identity used right after a slow login was not refreshed");
+    }
+
+    @Test
+    public void testOpaqueTokenFallsBackToDefaultTtl() {
+        AtomicInteger logins = new AtomicInteger();
+        TokenProvider provider = new TokenProvider((email, password) -> "opaque-" + logins.incrementAndGet(), 300, 0);
+
+        Assert.assertEquals(provider.bearerToken("user@gmail.com", "secret"), "Bearer opaque-1", "Unexpected token");
+        Assert.assertEquals(provider.bearerToken("other@gmail.com", "secret"), "Bearer opaque-2", "Identities should not share tokens");
+        sleep(400);
+        Assert.assertNotEquals(provider.bearerToken("user@gmail.com", "secret"), "Bearer opaque-1", "Expired token should not be served");
+        provider.shutdown();
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
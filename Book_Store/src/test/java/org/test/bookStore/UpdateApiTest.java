@@ -1,9 +1,14 @@
 package org.test.bookStore;
 
+import api.BookCatalog;
+import api.BookIndex;
 import api.BooksApi;
+import api.ParsedResponse;
 import api.UserApi;
+import auth.IdentityGenerator;
 import data.BookStoreData;
 import io.restassured.response.Response;
+import models.Book;
 import org.testng.Assert;
 import org.testng.annotations.BeforeClass;
 import org.testng.annotations.Test;
@@ -13,10 +18,10 @@ import java.io.File;
 import java.io.IOException;
 import java.util.*;
 
+@Test(groups = "api")
 public class UpdateApiTest {
 
     private final BookStoreData bookStoreData = new BookStoreData();
-    private final Map<String, Object> bookDetails = new HashMap<>();
     private final Map<String, Object> updateBookData = new HashMap<>();
     private ObjectMapper objectMapper = new ObjectMapper();
 
@@ -43,10 +48,9 @@ public class UpdateApiTest {
 
     @Test(priority = 1)
     public void testUserSignUpWithValidCredentials() {
-        bookStoreData.setValidEmailUsed(UserApi.generateEmailAndPassword(10) + "@gmail.com");
+        bookStoreData.setValidEmailUsed(IdentityGenerator.nextEmail());
         bookStoreData.setValidPasswordUsed(UserApi.generateEmailAndPassword(8));
-        Response response = UserApi.signUp(bookStoreData.getValidEmailUsed(), bookStoreData.getValidPasswordUsed(), bookStoreData);
-        bookStoreData.setSignUpResponse(response);
+        Response response = UserApi.signUp(bookStoreData.getValidEmailUsed(), bookStoreData.getValidPasswordUsed());
 
         Assert.assertEquals(response.getStatusCode(), 200, "Sign up expected status code mismatch");
         Assert.assertEquals(response.getBody().jsonPath().get("message"), "User created successfully", "User is not created");
@@ -55,7 +59,6 @@ public class UpdateApiTest {
     @Test(priority = 2)
     public void testLoginWithValidCredentials() {
         Response response = UserApi.login(bookStoreData.getValidEmailUsed(), bookStoreData.getValidPasswordUsed());
-        bookStoreData.setLogInResponse(response);
 
         Assert.assertEquals(response.getStatusCode(), 200, "The response code is not 200");
         bookStoreData.setAccessToken("Bearer " + response.jsonPath().get("access_token"));
@@ -66,86 +69,74 @@ public class UpdateApiTest {
     @Test(priority = 3)
     public void testAddNewBookForUpdate() {
         Long uniqueId = System.nanoTime();
-        bookDetails.put("bookName", "Original Book Title " + uniqueId);
-        bookDetails.put("author", "Original Author " + uniqueId);
-        bookDetails.put("published_year", uniqueId);
-        bookDetails.put("book_summary", "Original book summary " + uniqueId);
+        Book book = new Book("Original Book Title " + uniqueId, "Original Author " + uniqueId, uniqueId, "Original book summary " + uniqueId);
 
-        Response response = BooksApi.addNewBook((HashMap<String, Object>) bookDetails, bookStoreData.getAccessToken());
-        bookStoreData.setAddBookResponse(response);
+        Response response = BooksApi.addNewBook(book, bookStoreData.getAccessToken());
 
         Assert.assertEquals(response.getStatusCode(), 200, "Add book expected status code mismatch");
-        Assert.assertNotNull(response.getBody().jsonPath().get("id"), "Unique id is not generated");
-        bookDetails.put("createdBookId", response.getBody().jsonPath().get("id"));
-        Assert.assertEquals(response.getBody().jsonPath().get("name"), bookDetails.get("bookName"), "Book name mismatch");
-        Assert.assertEquals(response.getBody().jsonPath().get("author"), bookDetails.get("author"), "Author name mismatch");
-        Assert.assertEquals(response.getBody().jsonPath().get("published_year"), bookDetails.get("published_year"), "Published year mismatch");
-        Assert.assertEquals(response.getBody().jsonPath().get("book_summary"), bookDetails.get("book_summary"), "Book summary mismatch");
+        ParsedResponse body = ParsedResponse.of(response);
+        Assert.assertNotNull(body.get("id"), "Unique id is not generated");
+        book.setId(body.get("id"));
+        body.assertMatches(book);
+        bookStoreData.setExpectedBook(book);
     }
 
     @Test(priority = 4)
     public void testUpdateBookWithJsonData() {
         // Update book details with data from JSON file
-        bookDetails.put("bookName", updateBookData.get("name"));
-        bookDetails.put("author", updateBookData.get("author"));
-        bookDetails.put("published_year", updateBookData.get("published_year"));
-        bookDetails.put("book_summary", updateBookData.get("book_summary"));
+        Book book = bookStoreData.getExpectedBook();
+        book.setName((String) updateBookData.get("name"));
+        book.setAuthor((String) updateBookData.get("author"));
+        book.setPublishedYear(((Number) updateBookData.get("published_year")).longValue());
+        book.setBookSummary((String) updateBookData.get("book_summary"));
 
-        Response response = BooksApi.editTheBook((HashMap<String, Object>) bookDetails, bookStoreData.getAccessToken());
-        bookStoreData.setEditBookResponse(response);
+        Response response = BooksApi.editTheBook(book.getId(), book, bookStoreData.getAccessToken());
 
         Assert.assertEquals(response.getStatusCode(), 200, "The response code is not 200");
         Assert.assertEquals(response.getStatusLine(), "HTTP/1.1 200 OK", "Response line is not as expected for 200");
 
-        // Verify updated data matches JSON data
-        Assert.assertEquals(response.getBody().jsonPath().get("name"), updateBookData.get("name"), "Updated book name mismatch with JSON data");
-        Assert.assertEquals(response.getBody().jsonPath().get("author"), updateBookData.get("author"), "Updated author name mismatch with JSON data");
-        Assert.assertEquals(response.getBody().jsonPath().get("published_year"), updateBookData.get("published_year"), "Updated published year mismatch with JSON data");
-        Assert.assertEquals(response.getBody().jsonPath().get("book_summary"), updateBookData.get("book_summary"), "Updated book summary mismatch with JSON data");
-        Assert.assertEquals(response.getBody().jsonPath().get("id"), bookDetails.get("createdBookId"), "Book id should remain unchanged");
+        // Verify updated data matches JSON data and the id is unchanged
+        ParsedResponse.of(response).assertMatches(book);
     }
 
     @Test(priority = 5)
     public void testGetUpdatedBookDetailsById() {
-        Response response = BooksApi.getBookDetailsById((HashMap<String, Object>) bookDetails, bookStoreData.getAccessToken());
-        bookStoreData.setGetBookDetailsById(response);
+        Response response = BooksApi.getBookDetailsById(bookStoreData.getCreatedBookId(), bookStoreData.getAccessToken());
 
         Assert.assertEquals(response.getStatusCode(), 200, "Get book details expected status code mismatch");
         
         // Verify retrieved data matches the updated JSON data
-        Assert.assertEquals(response.getBody().jsonPath().get("name"), updateBookData.get("name"), "Retrieved book name mismatch with JSON data");
-        Assert.assertEquals(response.getBody().jsonPath().get("author"), updateBookData.get("author"), "Retrieved author name mismatch with JSON data");
-        Assert.assertEquals(response.getBody().jsonPath().get("published_year"), updateBookData.get("published_year"), "Retrieved published year mismatch with JSON data");
-        Assert.assertEquals(response.getBody().jsonPath().get("book_summary"), updateBookData.get("book_summary"), "Retrieved book summary mismatch with JSON data");
-        Assert.assertEquals(response.getBody().jsonPath().get("id"), bookDetails.get("createdBookId"), "Book id mismatch");
+        ParsedResponse.of(response).assertMatches(bookStoreData.getExpectedBook());
     }
 
     @Test(priority = 6)
     public void testUpdateBookWithPartialJsonData() {
         // Test partial update - only update name and author from JSON, keep other fields
-        Map<String, Object> partialUpdateDetails = new HashMap<>(bookDetails);
-        partialUpdateDetails.put("bookName", updateBookData.get("name") + " - Partial Update");
-        partialUpdateDetails.put("author", updateBookData.get("author") + " - Updated");
+        Book current = bookStoreData.getExpectedBook();
+        Book partialUpdate = new Book(current.getId(), updateBookData.get("name") + " - Partial Update",
+                updateBookData.get("author") + " - Updated", current.getPublishedYear(), current.getBookSummary());
 
-        Response response = BooksApi.editTheBook((HashMap<String, Object>) partialUpdateDetails, bookStoreData.getAccessToken());
+        Response response = BooksApi.editTheBook(partialUpdate.getId(), partialUpdate, bookStoreData.getAccessToken());
 
         Assert.assertEquals(response.getStatusCode(), 200, "Partial update expected status code mismatch");
-        Assert.assertEquals(response.getBody().jsonPath().get("name"), partialUpdateDetails.get("bookName"), "Partial updated book name mismatch");
-        Assert.assertEquals(response.getBody().jsonPath().get("author"), partialUpdateDetails.get("author"), "Partial updated author name mismatch");
-        Assert.assertEquals(response.getBody().jsonPath().get("published_year"), partialUpdateDetails.get("published_year"), "Published year should remain unchanged");
-        Assert.assertEquals(response.getBody().jsonPath().get("book_summary"), partialUpdateDetails.get("book_summary"), "Book summary should remain unchanged");
+        ParsedResponse.of(response).assertMatches(partialUpdate);
 
-        // Update bookDetails for subsequent tests
-        bookDetails.putAll(partialUpdateDetails);
+        // Expected state for subsequent tests
+        bookStoreData.setExpectedBook(partialUpdate);
     }
 
     @Test(priority = 7)
     public void testUpdateBookWithInvalidData() {
         // Test update with invalid published year (string instead of number)
-        Map<String, Object> invalidUpdateDetails = new HashMap<>(bookDetails);
+        Book book = bookStoreData.getExpectedBook();
+        HashMap<String, Object> invalidUpdateDetails = new HashMap<>();
+        invalidUpdateDetails.put("createdBookId", book.getId());
+        invalidUpdateDetails.put("bookName", book.getName());
+        invalidUpdateDetails.put("author", book.getAuthor());
         invalidUpdateDetails.put("published_year", "invalid_year");
+        invalidUpdateDetails.put("book_summary", book.getBookSummary());
 
-        Response response = BooksApi.editTheBook((HashMap<String, Object>) invalidUpdateDetails, bookStoreData.getAccessToken());
+        Response response = BooksApi.editTheBook(invalidUpdateDetails, bookStoreData.getAccessToken());
 
         // Expecting either 400 Bad Request or the API to handle the conversion gracefully
         // Adjust assertion based on your API's behavior
@@ -155,19 +146,17 @@ public class UpdateApiTest {
 
     @Test(priority = 8)
     public void testFetchAllBooksContainsUpdatedBook() {
-        Response response = (Response) BooksApi.getAllBooks(bookStoreData.getAccessToken());
-
-        Assert.assertEquals(response.getStatusCode(), 200, "Get all books expected status code mismatch");
-        Assert.assertTrue(response.getBody().asString().contains(bookDetails.get("bookName").toString()), 
+        BookIndex allBooks = new BookIndex();
+        BookCatalog.streamAllBooks(bookStoreData.getAccessToken(), allBooks);
+        Assert.assertTrue(allBooks.containsName(bookStoreData.getExpectedBook().getName()),
             "Updated book name not found in all books");
-        Assert.assertTrue(response.getBody().asString().contains(bookDetails.get("author").toString()), 
+        Assert.assertTrue(allBooks.containsAuthor(bookStoreData.getExpectedBook().getAuthor()),
             "Updated author not found in all books");
     }
 
     @Test(priority = 9)
     public void testDeleteUpdatedBook() {
-        Response response = BooksApi.deleteTheBookById(bookDetails.get("createdBookId").toString(), bookStoreData.getAccessToken());
-        bookStoreData.setDeleteBookResponse(response);
+        Response response = BooksApi.deleteTheBookById(bookStoreData.getCreatedBookId().toString(), bookStoreData.getAccessToken());
 
         Assert.assertEquals(response.getStatusCode(), 200, "The response code is not 200");
         Assert.assertEquals(response.getStatusLine(), "HTTP/1.1 200 OK", "Response line is not as expected");
@@ -176,8 +165,7 @@ public class UpdateApiTest {
 
     @Test(priority = 10)
     public void testGetDeletedBookShouldFail() {
-        Response response = BooksApi.getBookDetailsById((HashMap<String, Object>) bookDetails, bookStoreData.getAccessToken());
-        bookStoreData.setGetBookDetailsById(response);
+        Response response = BooksApi.getBookDetailsById(bookStoreData.getCreatedBookId(), bookStoreData.getAccessToken());
 
         Assert.assertEquals(response.getStatusCode(), 404, "Expected 404 for deleted book");
         Assert.assertEquals(response.getBody().jsonPath().get("detail"), "Book not found", "Book details should not be fetched for deleted");
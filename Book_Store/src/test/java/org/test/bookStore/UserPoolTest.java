@@ -0,0 +1,97 @@
+package org.test.bookStore;
+
+import auth.Identity;
+import auth.IdentityGenerator;
+import auth.UserPool;
+import io.restassured.RestAssured;
+import org.testng.Assert;
+import org.testng.Reporter;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+import stub.BookStoreStub;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+public class UserPoolTest {
+
+    private static final int USERS = 10_000;
+    private static final int THREADS = 8;
+
+    private BookStoreStub stub;
+
+    @BeforeClass
+    public void setup() {
+        stub = new BookStoreStub(0, 0, TimeUnit.HOURS.toMillis(1)).start(0);
+        RestAssured.baseURI = stub.baseUrl();
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void tearDown() {
+        stub.close();
+        RestAssured.reset();
+    }
+
+    @Test
+    public void testGeneratedEmailsNeverCollideAcrossThreads() throws Exception {
+        Set<String> emails = ConcurrentHashMap.newKeySet();
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        for (int thread = 0; thread < THREADS; thread++) {
+            executor.submit(() -> {
+                for (int i = 0; i < 50_000; i++) {
+                    emails.add(IdentityGenerator.nextEmail());
+                }
+            });
+        }
+        executor.shutdown();
+        Assert.assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS), "Email generation did not finish in time");
+        Assert.assertEquals(emails.size(), THREADS * 50_000, "Generated emails collided");
+    }
+
+    @Test
+    public void testProvisionsTenThousandUsersInParallel() {
+        UserPool pool = new UserPool(64);
+        int usersBefore = stub.userCount();
+        long start = System.nanoTime();
+        int created = pool.provision(USERS);
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        Reporter.log("Provisioned " + created + " users in " + elapsedMillis + " ms", true);
+
+        Assert.assertEquals(created, USERS, "Not every user was provisioned");
+        Assert.assertEquals(pool.available(), USERS, "Pool size mismatch after provisioning");
+        Assert.assertEquals(stub.userCount() - usersBefore, USERS, "Stub registered a different number of users");
+        Assert.assertTrue(elapsedMillis < TimeUnit.SECONDS.toMillis(60), "Provisioning took " + elapsedMillis + " ms");
+    }
+
+    @Test
+    public void testLeasesAreNeverSharedBetweenThreads() throws Exception {
+        UserPool pool = new UserPool(16);
+        pool.provision(THREADS * 4);
+        Set<Identity> leased = ConcurrentHashMap.newKeySet();
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        Future<?>[] workers = new Future<?>[THREADS];
+        for (int thread = 0; thread < THREADS; thread++) {
+            workers[thread] = executor.submit(() -> {
+                for (int i = 0; i < 20_000; i++) {
+                    Identity identity = pool.lease();
+                    Assert.assertTrue(leased.add(identity), "Identity leased twice at once: " + identity.getEmail());
+                    leased.remove(identity);
+                    pool.release(identity);
+                }
+            });
+        }
+        for (Future<?> worker : workers) {
+            worker.get(60, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        Assert.assertEquals(pool.available(), THREADS * 4, "Accounts were lost or duplicated by lease/release");
+        Assert.assertEquals(pool.provisioned(), THREADS * 4, "Pool signed up extra accounts although it never ran dry");
+    }
+}